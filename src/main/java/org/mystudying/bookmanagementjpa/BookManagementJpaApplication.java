@@ -2,8 +2,12 @@ package org.mystudying.bookmanagementjpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class
 BookManagementJpaApplication {
 
@@ -12,4 +16,3 @@ BookManagementJpaApplication {
     }
 
 }
-
@@ -0,0 +1,81 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Primary pool is configured by the usual {@code spring.datasource.*} properties.
+ * The replica pool ({@code app.datasource.replica.hikari.*}) is only created when
+ * {@code app.datasource.replica.enabled=true}; without it every query goes to the primary as before.
+ * The reporting pool ({@code app.datasource.reporting.hikari.*}) serves {@link ReportingWorkload}
+ * methods, so reports and bulk loads never take the connections rent and return need.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, PoolMetrics poolMetrics) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setMetricsTrackerFactory(poolMetrics);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(PoolMetrics poolMetrics) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("ReplicaPool");
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(poolMetrics);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.reporting", name = "enabled", havingValue = "true", matchIfMissing = true)
+    @ConfigurationProperties("app.datasource.reporting.hikari")
+    public HikariDataSource reportingDataSource(PoolMetrics poolMetrics) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("ReportingPool");
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(poolMetrics);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaProperties properties) {
+        return new ReplicaLagMonitor(replicaDataSource, properties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 @Qualifier("reportingDataSource") ObjectProvider<DataSource> reportingDataSource,
+                                 ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                 ReadAfterWriteTracker readAfterWriteTracker) {
+        var routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+                replicaDataSource.getIfAvailable(), reportingDataSource.getIfAvailable(),
+                replicaLagMonitor.getIfAvailable(), readAfterWriteTracker);
+        routingDataSource.afterPropertiesSet();
+
+        var lazyDataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        lazyDataSource.setDefaultAutoCommit(true);
+        lazyDataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return lazyDataSource;
+    }
+}
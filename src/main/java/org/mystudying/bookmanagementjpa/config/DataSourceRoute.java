@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.config;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA,
+    REPORTING
+}
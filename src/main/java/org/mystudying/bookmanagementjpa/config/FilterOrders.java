@@ -0,0 +1,16 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import org.springframework.core.Ordered;
+
+/**
+ * Order of the protective servlet filters: cheap rejections first, before any request reaches JPA.
+ */
+public final class FilterOrders {
+
+    public static final int RATE_LIMIT = Ordered.HIGHEST_PRECEDENCE + 100;
+    public static final int ADMISSION = Ordered.HIGHEST_PRECEDENCE + 200;
+    public static final int IDEMPOTENCY = Ordered.HIGHEST_PRECEDENCE + 300;
+
+    private FilterOrders() {
+    }
+}
@@ -0,0 +1,129 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves static assets gzip-compressed and sets their cache policy.
+ * <p>
+ * Compression happens once per asset: together with the {@code CachingResourceResolver} of the
+ * resource chain (which keys on the accepted encoding) the gzipped bytes are reused for every
+ * later request. Content-hashed URLs ({@code books-<md5>.js}) are cached as immutable for a year,
+ * plain URLs have to be revalidated.
+ */
+public class GzipResourceResolver extends AbstractResourceResolver {
+
+    private static final int MIN_SIZE = 1024;
+    private static final CacheControl VERSIONED = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl UNVERSIONED = CacheControl.noCache();
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || request == null) {
+            return resource;
+        }
+        boolean versioned = !StringUtils.getFilename(requestPath).equals(resource.getFilename());
+        CacheControl cacheControl = versioned ? VERSIONED : UNVERSIONED;
+        try {
+            byte[] content = readAll(resource);
+            if (content.length >= MIN_SIZE && acceptsGzip(request)) {
+                return new StaticAssetResource(resource, gzip(content), cacheControl, true);
+            }
+            return new StaticAssetResource(resource, content, cacheControl, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static byte[] readAll(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        var out = new ByteArrayOutputStream(content.length / 3);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class StaticAssetResource extends ByteArrayResource implements HttpResource {
+
+        private final Resource original;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        StaticAssetResource(Resource original, byte[] content, CacheControl cacheControl, boolean gzipped) {
+            super(content);
+            this.original = original;
+            headers.setCacheControl(cacheControl);
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            if (gzipped) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            if (original instanceof HttpResource httpResource) {
+                httpResource.getResponseHeaders().forEach(headers::putIfAbsent);
+            }
+        }
+
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+
+        @Override
+        public String getDescription() {
+            return "Static asset [" + original.getDescription() + "]";
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.ResourceTransformerChain;
+import org.springframework.web.servlet.resource.ResourceTransformerSupport;
+import org.springframework.web.servlet.resource.TransformedResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites {@code <script src>} and {@code <link href>} references in the static HTML pages
+ * to their content-hashed URLs, e.g. {@code js/books.js} to {@code /js/books-<md5>.js}.
+ */
+public class HtmlLinkResourceTransformer extends ResourceTransformerSupport {
+
+    private static final Pattern LINK =
+            Pattern.compile("(<(?:script|link)\\b[^>]*?\\b(?:src|href)=\")([^\":]+\\.(?:js|css))(\")");
+
+    @Override
+    public Resource transform(HttpServletRequest request, Resource resource, ResourceTransformerChain chain)
+            throws IOException {
+        resource = chain.transform(request, resource);
+        if (!"html".equals(StringUtils.getFilenameExtension(resource.getFilename()))) {
+            return resource;
+        }
+
+        String content = resource.getContentAsString(StandardCharsets.UTF_8);
+        Matcher matcher = LINK.matcher(content);
+        StringBuilder result = new StringBuilder(content.length());
+        while (matcher.find()) {
+            String link = matcher.group(2);
+            String absoluteLink = link.startsWith("/") ? link : StringUtils.applyRelativePath(request.getRequestURI(), link);
+            String versionedLink = resolveUrlPath(absoluteLink, request, resource, chain);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(
+                    matcher.group(1) + (versionedLink != null ? versionedLink : link) + matcher.group(3)));
+        }
+        matcher.appendTail(result);
+        return new TransformedResource(resource, result.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.mystudying.bookmanagementjpa.dto.ConnectionPoolStatsDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-pool connection metrics, fed by Hikari: how long callers waited for a connection, how long
+ * they held it and how often they gave up waiting.
+ */
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolStats);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    /**
+     * Pools that have started, i.e. handed out at least one connection.
+     */
+    public List<ConnectionPoolStatsDto> stats() {
+        return trackers.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .toList();
+    }
+
+    private static final class Tracker implements IMetricsTracker {
+
+        private final PoolStats poolStats;
+        private final AtomicLong acquisitions = new AtomicLong();
+        private final AtomicLong acquireNanos = new AtomicLong();
+        private final AtomicLong maxAcquireNanos = new AtomicLong();
+        private final AtomicLong usages = new AtomicLong();
+        private final AtomicLong usageMillis = new AtomicLong();
+        private final AtomicLong maxUsageMillis = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        private Tracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.incrementAndGet();
+            acquireNanos.addAndGet(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usages.incrementAndGet();
+            usageMillis.addAndGet(elapsedBorrowedMillis);
+            maxUsageMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.incrementAndGet();
+        }
+
+        private ConnectionPoolStatsDto toDto(String poolName) {
+            long acquired = acquisitions.get();
+            long used = usages.get();
+            return new ConnectionPoolStatsDto(
+                    poolName,
+                    poolStats.getActiveConnections(),
+                    poolStats.getIdleConnections(),
+                    poolStats.getPendingThreads(),
+                    poolStats.getMaxConnections(),
+                    acquired,
+                    acquired == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(acquireNanos.get() / acquired),
+                    TimeUnit.NANOSECONDS.toMillis(maxAcquireNanos.get()),
+                    timeouts.get(),
+                    used == 0 ? 0 : usageMillis.get() / used,
+                    maxUsageMillis.get());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Binds the user of a {@code /api/users/{id}/...} request to the current thread and marks
+ * them as "recently written" after a successful mutating request.
+ */
+@Component
+public class ReadAfterWriteInterceptor implements HandlerInterceptor {
+
+    private final ReadAfterWriteTracker tracker;
+    private final ReplicaProperties properties;
+
+    public ReadAfterWriteInterceptor(ReadAfterWriteTracker tracker, ReplicaProperties properties) {
+        this.tracker = tracker;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (properties.isEnabled()) {
+            tracker.bindUser(userIdOf(request));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            Long userId = userIdOf(request);
+            boolean mutating = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+            if (userId != null && mutating && ex == null && response.getStatus() < 400) {
+                tracker.recordWrite(userId);
+            }
+        } finally {
+            tracker.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long userIdOf(HttpServletRequest request) {
+        var variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return null;
+        }
+        String value = variables.containsKey("userId") ? variables.get("userId") : variables.get("id");
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
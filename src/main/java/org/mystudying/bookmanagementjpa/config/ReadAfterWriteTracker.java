@@ -0,0 +1,61 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users changed data recently, so their next reads are served by the primary
+ * and they never see their own rent / return / payment "disappear" because of replica lag.
+ */
+@Component
+public class ReadAfterWriteTracker {
+
+    private final ThreadLocal<Long> currentUserId = new ThreadLocal<>();
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final ReplicaProperties properties;
+
+    public ReadAfterWriteTracker(ReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    public void bindUser(Long userId) {
+        currentUserId.set(userId);
+    }
+
+    public void clear() {
+        currentUserId.remove();
+    }
+
+    public void recordWrite(long userId) {
+        stickyUntil.put(userId, System.currentTimeMillis() + properties.getStickyWindow().toMillis());
+    }
+
+    public boolean isCurrentUserSticky() {
+        Long userId = currentUserId.get();
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            stickyUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+
+    public int stickyUserCount() {
+        return stickyUntil.size();
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until < now);
+    }
+}
@@ -0,0 +1,59 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends {@link ReportingWorkload} work to the reporting pool, {@code @Transactional(readOnly = true)} work
+ * to the replica and everything else to the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * otherwise the connection is fetched before the transaction is marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadAfterWriteTracker readAfterWriteTracker;
+
+    private final boolean reportingPool;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, DataSource reporting,
+                                      ReplicaLagMonitor lagMonitor, ReadAfterWriteTracker readAfterWriteTracker) {
+        this.lagMonitor = lagMonitor;
+        this.readAfterWriteTracker = readAfterWriteTracker;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceRoute.PRIMARY, primary);
+        if (replica != null) {
+            targets.put(DataSourceRoute.REPLICA, replica);
+        }
+        if (reporting != null) {
+            targets.put(DataSourceRoute.REPORTING, reporting);
+        }
+        this.reportingPool = reporting != null;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    DataSourceRoute currentRoute() {
+        if (reportingPool && ReportingWorkloadAspect.isReporting()) {
+            return DataSourceRoute.REPORTING;
+        }
+        if (lagMonitor == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return DataSourceRoute.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable() || readAfterWriteTracker.isCurrentUserSticky()) {
+            return DataSourceRoute.PRIMARY;
+        }
+        return DataSourceRoute.REPLICA;
+    }
+}
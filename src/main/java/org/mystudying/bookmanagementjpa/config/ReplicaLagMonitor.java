@@ -0,0 +1,63 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls {@code SHOW REPLICA STATUS} on the replica and decides whether read-only traffic may use it.
+ * A stand-in replica (a plain second MySQL without replication configured) reports no status row
+ * and is treated as being in sync.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReplicaProperties properties;
+
+    private volatile boolean usable = false;
+    private volatile Long lagSeconds;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaProperties properties) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        try {
+            Long lag = replicaJdbcTemplate.query("SHOW REPLICA STATUS", rs -> {
+                if (!rs.next()) {
+                    return 0L;
+                }
+                long seconds = rs.getLong("Seconds_Behind_Source");
+                return rs.wasNull() ? null : seconds;
+            });
+            update(lag);
+        } catch (RuntimeException e) {
+            log.warn("Replica lag check failed, routing reads to primary: {}", e.getMessage());
+            update(null);
+        }
+    }
+
+    private void update(Long lag) {
+        boolean nowUsable = lag != null && lag <= properties.getMaxLagSeconds();
+        if (nowUsable != usable) {
+            log.info("Replica {} (lag: {}s)", nowUsable ? "enabled for reads" : "disabled for reads", lag);
+        }
+        this.lagSeconds = lag;
+        this.usable = nowUsable;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public Long getLagSeconds() {
+        return lagSeconds;
+    }
+}
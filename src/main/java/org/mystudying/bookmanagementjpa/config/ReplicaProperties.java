@@ -0,0 +1,49 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the optional read replica. Connection settings of the replica pool itself
+ * live under {@code app.datasource.replica.hikari.*}.
+ */
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Replica is skipped while it is more than this many seconds behind the primary.
+     */
+    private long maxLagSeconds = 5;
+
+    /**
+     * After a user changes data, their reads go to the primary for this long.
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+
+    public void setMaxLagSeconds(long maxLagSeconds) {
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public Duration getStickyWindow() {
+        return stickyWindow;
+    }
+
+    public void setStickyWindow(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+}
@@ -0,0 +1,15 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Runs the method's queries on the reporting pool ({@code app.datasource.reporting.*}) instead of the
+ * pool serving rent, return and CRUD, so long scans wait for reporting connections only.
+ * Only effective when the method opens the connection itself; called inside a transaction that
+ * already holds a connection, it keeps using that one.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReportingWorkload {
+}
@@ -0,0 +1,37 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the current thread as doing {@link ReportingWorkload} work for the duration of the call.
+ * Ordered before the transaction advisor, so the mark is set before any connection is fetched.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ReportingWorkloadAspect {
+
+    private static final ThreadLocal<Boolean> REPORTING = new ThreadLocal<>();
+
+    @Around("@annotation(org.mystudying.bookmanagementjpa.config.ReportingWorkload)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (Boolean.TRUE.equals(REPORTING.get())) {
+            return joinPoint.proceed();
+        }
+        REPORTING.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            REPORTING.remove();
+        }
+    }
+
+    static boolean isReporting() {
+        return Boolean.TRUE.equals(REPORTING.get());
+    }
+}
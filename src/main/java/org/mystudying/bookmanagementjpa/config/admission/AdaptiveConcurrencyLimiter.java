@@ -0,0 +1,126 @@
+package org.mystudying.bookmanagementjpa.config.admission;
+
+import org.mystudying.bookmanagementjpa.dto.AdmissionStatsDto;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD concurrency limit with a bounded priority queue.
+ * <p>
+ * A request completing within the latency target raises the limit by {@code 1 / limit} (about +1 per
+ * round of requests); a slow or 503 completion multiplies it by the backoff ratio. Requests above the
+ * limit wait in a queue ordered by priority, then arrival, for at most {@code max-wait}; when the queue
+ * is full they are rejected at once, which keeps the tail latency bounded instead of letting requests
+ * pile up on the connection pool.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome {
+        ADMITTED,
+        SHED,
+        TIMED_OUT
+    }
+
+    private static final class Waiter {
+        private final AdmissionPriority priority;
+        private final long sequence;
+        private boolean granted;
+
+        private Waiter(AdmissionPriority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    private final AdmissionProperties properties;
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.<Waiter, AdmissionPriority>comparing(w -> w.priority).thenComparingLong(w -> w.sequence));
+
+    private double limit;
+    private int inFlight;
+    private long sequence;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    public Outcome acquire(AdmissionPriority priority) throws InterruptedException {
+        Waiter waiter;
+        synchronized (this) {
+            if (inFlight < (int) limit && queue.isEmpty()) {
+                inFlight++;
+                admitted.incrementAndGet();
+                return Outcome.ADMITTED;
+            }
+            int queueCapacity = priority == AdmissionPriority.LOW ? properties.getMaxQueue() / 2 : properties.getMaxQueue();
+            if (queue.size() >= queueCapacity) {
+                shed.incrementAndGet();
+                return Outcome.SHED;
+            }
+            waiter = new Waiter(priority, sequence++);
+            queue.add(waiter);
+
+            long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+            try {
+                while (!waiter.granted) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.remove(waiter);
+                        timedOut.incrementAndGet();
+                        return Outcome.TIMED_OUT;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } catch (InterruptedException e) {
+                if (!queue.remove(waiter)) {
+                    // Granted while being interrupted: hand the slot back
+                    inFlight--;
+                    admitNext();
+                }
+                throw e;
+            }
+            admitted.incrementAndGet();
+            return Outcome.ADMITTED;
+        }
+    }
+
+    /**
+     * @param overloaded the request failed because the server was overloaded (503)
+     */
+    public synchronized void release(Duration latency, boolean overloaded) {
+        inFlight--;
+        if (overloaded || latency.compareTo(properties.getLatencyTarget()) > 0) {
+            limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+        } else if (inFlight + 1 >= (int) limit) {
+            // Only grow while the limit is actually being used
+            limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+        }
+        admitNext();
+    }
+
+    private void admitNext() {
+        boolean woke = false;
+        while (inFlight < (int) limit && !queue.isEmpty()) {
+            queue.poll().granted = true;
+            inFlight++;
+            woke = true;
+        }
+        if (woke) {
+            notifyAll();
+        }
+    }
+
+    public synchronized AdmissionStatsDto stats() {
+        return new AdmissionStatsDto(properties.isEnabled(), (int) limit, inFlight, queue.size(),
+                properties.getMaxQueue(), admitted.get(), shed.get(), timedOut.get());
+    }
+}
@@ -0,0 +1,112 @@
+package org.mystudying.bookmanagementjpa.config.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mystudying.bookmanagementjpa.config.FilterOrders;
+import org.mystudying.bookmanagementjpa.dto.AdmissionStatsDto;
+import org.mystudying.bookmanagementjpa.dto.ErrorResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Admission control for {@code /api/**}: at most {@link AdaptiveConcurrencyLimiter the adaptive limit} of
+ * requests run at once, the rest wait briefly in a priority queue or get 503 with {@code Retry-After}
+ * instead of blocking on the connection pool until its timeout.
+ * <p>
+ * An async request (a report handed to {@code ReportRunner}) gives its slot back as soon as the handler
+ * returns: the async work is bounded by its own executor, and its minutes-long latency would otherwise
+ * keep a slot busy and drive the limit down for everything else.
+ */
+@Component
+@Order(FilterOrders.ADMISSION)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdmissionProperties properties;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.limiter = new AdaptiveConcurrencyLimiter(properties);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathOf(request);
+        return !properties.isEnabled() || !path.startsWith("/api/") || matches(properties.getExcludedPaths(), path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Outcome outcome;
+        try {
+            outcome = limiter.acquire(priorityOf(pathOf(request)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = AdaptiveConcurrencyLimiter.Outcome.TIMED_OUT;
+        }
+        if (outcome != AdaptiveConcurrencyLimiter.Outcome.ADMITTED) {
+            reject(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // For an async request only the dispatch so far counts; its status is not known yet
+            boolean overloaded = !request.isAsyncStarted()
+                    && response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+            limiter.release(Duration.ofNanos(System.nanoTime() - start), overloaded);
+        }
+    }
+
+    private AdmissionPriority priorityOf(String path) {
+        if (matches(properties.getHighPriorityPaths(), path)) {
+            return AdmissionPriority.HIGH;
+        }
+        if (matches(properties.getLowPriorityPaths(), path)) {
+            return AdmissionPriority.LOW;
+        }
+        return AdmissionPriority.NORMAL;
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        return patterns.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(LocalDateTime.now(), status.value(),
+                status.getReasonPhrase(), "Server is busy, please retry", request.getRequestURI()));
+    }
+
+    public AdmissionStatsDto stats() {
+        return limiter.stats();
+    }
+}
@@ -0,0 +1,10 @@
+package org.mystudying.bookmanagementjpa.config.admission;
+
+/**
+ * Queued requests are admitted in this order; declaration order is the priority.
+ */
+public enum AdmissionPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
@@ -0,0 +1,145 @@
+package org.mystudying.bookmanagementjpa.config.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Concurrent API requests allowed at start; adapted between min and max limit from observed latency.
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 2;
+
+    private int maxLimit = 100;
+
+    /**
+     * Requests slower than this (or failing with 503) shrink the limit multiplicatively.
+     */
+    private Duration latencyTarget = Duration.ofMillis(250);
+
+    /**
+     * Factor the limit is multiplied with on an overload signal.
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Requests waiting for a slot; beyond that new requests are shed at once.
+     */
+    private int maxQueue = 50;
+
+    /**
+     * Longest time a queued request waits for a slot before it is shed.
+     */
+    private Duration maxWait = Duration.ofSeconds(1);
+
+    /**
+     * Ant patterns admitted first (rent, return and so on).
+     */
+    private List<String> highPriorityPaths = new ArrayList<>();
+
+    /**
+     * Ant patterns admitted last and never queued beyond half of {@code max-queue} (reports).
+     */
+    private List<String> lowPriorityPaths = new ArrayList<>();
+
+    /**
+     * Ant patterns bypassing admission control, e.g. long-lived streams.
+     */
+    private List<String> excludedPaths = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public Duration getLatencyTarget() {
+        return latencyTarget;
+    }
+
+    public void setLatencyTarget(Duration latencyTarget) {
+        this.latencyTarget = latencyTarget;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public List<String> getHighPriorityPaths() {
+        return highPriorityPaths;
+    }
+
+    public void setHighPriorityPaths(List<String> highPriorityPaths) {
+        this.highPriorityPaths = highPriorityPaths;
+    }
+
+    public List<String> getLowPriorityPaths() {
+        return lowPriorityPaths;
+    }
+
+    public void setLowPriorityPaths(List<String> lowPriorityPaths) {
+        this.lowPriorityPaths = lowPriorityPaths;
+    }
+
+    public List<String> getExcludedPaths() {
+        return excludedPaths;
+    }
+
+    public void setExcludedPaths(List<String> excludedPaths) {
+        this.excludedPaths = excludedPaths;
+    }
+}
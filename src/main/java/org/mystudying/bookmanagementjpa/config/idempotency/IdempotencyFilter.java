@@ -0,0 +1,238 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mystudying.bookmanagementjpa.config.FilterOrders;
+import org.mystudying.bookmanagementjpa.dto.ErrorResponse;
+import org.mystudying.bookmanagementjpa.dto.IdempotencyStatsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the stored response of a retried booking POST carrying the same {@code Idempotency-Key},
+ * without running validation or taking the book lock again.
+ * <p>
+ * Keys are scoped by method and path (which contains the user id). Completed 2xx and 4xx responses are
+ * stored; a 5xx or an exception frees the key so the retry runs for real. A retry arriving while the
+ * first request is still running gets 409, and reusing a key with a different body gets 422.
+ */
+@Component
+@Order(FilterOrders.IDEMPOTENCY)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> PATHS = List.of(
+            "/api/users/*/rent",
+            "/api/users/*/return",
+            "/api/users/*/holds",
+            "/api/users/*/bookings/*/pay");
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong inProgressRejections = new AtomicLong();
+    private final AtomicLong mismatchRejections = new AtomicLong();
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, ObjectMapper objectMapper) {
+        this.store = store;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled() || !HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST, HEADER + " must not be longer than " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        var cachedRequest = new CachedBodyRequest(request);
+        String key = sha256((request.getMethod() + ' ' + request.getRequestURI() + ' ' + idempotencyKey)
+                .getBytes(StandardCharsets.UTF_8));
+        String fingerprint = sha256(cachedRequest.body);
+        Instant now = Instant.now();
+
+        Optional<IdempotencyRecord> existing = store.claim(key,
+                IdempotencyRecord.pending(fingerprint, now.plus(properties.getPendingTimeout())));
+        if (existing.isPresent()) {
+            replayOrReject(existing.get(), fingerprint, request, response);
+            return;
+        }
+
+        var cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(cachedRequest, cachingResponse);
+            if (cachingResponse.getStatus() < 500) {
+                store.complete(key, new IdempotencyRecord(fingerprint, cachingResponse.getStatus(),
+                        cachingResponse.getContentType(), cachingResponse.getContentAsByteArray(),
+                        Instant.now().plus(properties.getTtl())));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(key);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replayOrReject(IdempotencyRecord record, String fingerprint,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!record.fingerprint().equals(fingerprint)) {
+            mismatchRejections.incrementAndGet();
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a request with a different body");
+            return;
+        }
+        if (record.isPending()) {
+            inProgressRejections.incrementAndGet();
+            writeError(request, response, HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still being processed");
+            return;
+        }
+        replays.incrementAndGet();
+        response.setStatus(record.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.contentType() != null) {
+            response.setContentType(record.contentType());
+        }
+        if (record.body() != null && record.body().length > 0) {
+            response.setContentLength(record.body().length);
+            response.getOutputStream().write(record.body());
+        }
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response,
+                            HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(LocalDateTime.now(), status.value(),
+                status.getReasonPhrase(), message, request.getRequestURI()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        try {
+            store.purgeExpired();
+        } catch (RuntimeException e) {
+            log.warn("Purging expired idempotency keys failed: {}", e.getMessage());
+        }
+    }
+
+    public IdempotencyStatsDto stats() {
+        return new IdempotencyStatsDto(properties.isEnabled(), store.name(), store.size(),
+                replays.get(), inProgressRejections.get(), mismatchRejections.get());
+    }
+
+    private static String sha256(byte[] input) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(input));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Booking request bodies are tiny; read them once so they can be fingerprinted and still reach the controller.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The body is already in memory: it is all available at once and ends with it.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    public enum Store {
+        MEMORY,
+        JDBC
+    }
+
+    /**
+     * Honour the {@code Idempotency-Key} header on rent, return, hold and pay-fine POSTs.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Where responses are kept: per instance in memory, or shared in the {@code idempotency_keys} table.
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * How long a stored response is replayed for a retried key.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Upper bound of keys kept by the in-memory store; least recently used keys are evicted first.
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * A key claimed by a request that never completed (crash, lost connection) is freed after this period.
+     */
+    private Duration pendingTimeout = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getPendingTimeout() {
+        return pendingTimeout;
+    }
+
+    public void setPendingTimeout(Duration pendingTimeout) {
+        this.pendingTimeout = pendingTimeout;
+    }
+}
@@ -0,0 +1,27 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import java.time.Instant;
+
+/**
+ * A claimed key. Without a response status the original request is still being processed.
+ */
+public record IdempotencyRecord(
+        String fingerprint,
+        Integer status,
+        String contentType,
+        byte[] body,
+        Instant expiresAt
+) {
+
+    public static IdempotencyRecord pending(String fingerprint, Instant expiresAt) {
+        return new IdempotencyRecord(fingerprint, null, null, null, expiresAt);
+    }
+
+    public boolean isPending() {
+        return status == null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt.isBefore(now);
+    }
+}
@@ -0,0 +1,27 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+
+    /**
+     * Atomically claims the key with the given pending record.
+     *
+     * @return empty when the key was free and is now claimed by the caller,
+     * otherwise the record already stored for the key (pending or completed)
+     */
+    Optional<IdempotencyRecord> claim(String key, IdempotencyRecord pending);
+
+    void complete(String key, IdempotencyRecord response);
+
+    /**
+     * Frees a claimed key, so a retry runs the request again.
+     */
+    void release(String key);
+
+    void purgeExpired();
+
+    long size();
+
+    String name();
+}
@@ -0,0 +1,75 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-instance store: an access-ordered map bounded by {@code max-entries}, so a burst of new keys
+ * evicts the least recently used ones instead of growing the heap.
+ * <p>
+ * Only completed responses are evicted. Dropping a pending claim would let a retry run the request a
+ * second time while the first is still going, so pending claims may take the map past the bound;
+ * there are at most as many as requests in flight, and they expire after {@code pending-timeout}.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, IdempotencyRecord> records = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+
+    public InMemoryIdempotencyStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyRecord> claim(String key, IdempotencyRecord pending) {
+        IdempotencyRecord existing = records.get(key);
+        if (existing != null && !existing.isExpired(Instant.now())) {
+            return Optional.of(existing);
+        }
+        records.put(key, pending);
+        evictCompleted();
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotencyRecord response) {
+        records.put(key, response);
+        evictCompleted();
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        records.remove(key);
+    }
+
+    @Override
+    public synchronized void purgeExpired() {
+        Instant now = Instant.now();
+        records.values().removeIf(record -> record.isExpired(now));
+    }
+
+    @Override
+    public synchronized long size() {
+        return records.size();
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    /**
+     * Least recently used first, skipping pending claims.
+     */
+    private void evictCompleted() {
+        Iterator<IdempotencyRecord> eldest = records.values().iterator();
+        while (records.size() > maxEntries && eldest.hasNext()) {
+            if (!eldest.next().isPending()) {
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Shared store in the {@code idempotency_keys} table, for several instances behind a load balancer.
+ * The primary key insert is the claim; statements run in autocommit outside the business transaction.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcIdempotencyStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, IdempotencyRecord pending) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = ? AND expires_at < ?", key, now);
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idem_key, fingerprint, expires_at) VALUES (?, ?, ?)",
+                    key, pending.fingerprint(), Timestamp.from(pending.expiresAt()));
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.query("SELECT fingerprint, response_status, content_type, response_body, expires_at " +
+                            "FROM idempotency_keys WHERE idem_key = ?",
+                    (rs, rowNum) -> new IdempotencyRecord(
+                            rs.getString("fingerprint"),
+                            rs.getObject("response_status", Integer.class),
+                            rs.getString("content_type"),
+                            rs.getBytes("response_body"),
+                            rs.getTimestamp("expires_at").toInstant()),
+                    key).stream().findFirst()
+                    // Released between our insert and select: report it as in progress, the client retries
+                    .or(() -> Optional.of(pending));
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response_status = ?, content_type = ?, response_body = ?, " +
+                        "expires_at = ? WHERE idem_key = ?",
+                response.status(), response.contentType(), response.body(), Timestamp.from(response.expiresAt()), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = ?", key);
+    }
+
+    @Override
+    public void purgeExpired() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public long size() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+}
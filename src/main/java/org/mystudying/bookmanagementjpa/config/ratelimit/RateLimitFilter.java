@@ -0,0 +1,143 @@
+package org.mystudying.bookmanagementjpa.config.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mystudying.bookmanagementjpa.config.FilterOrders;
+import org.mystudying.bookmanagementjpa.dto.ErrorResponse;
+import org.mystudying.bookmanagementjpa.dto.RateLimitStatsDto;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket limits per user id, per client IP and per endpoint group, checked before the request
+ * reaches a controller, so a flooding client is turned away without borrowing a pooled connection.
+ * <p>
+ * Buckets are created on first use and dropped again once they have refilled completely.
+ * The client IP is {@link HttpServletRequest#getRemoteAddr()}; behind a proxy configure
+ * {@code server.forward-headers-strategy} so it reflects the real client.
+ */
+@Component
+@Order(FilterOrders.RATE_LIMIT)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String USER_ID = "userId";
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> rejections = new ConcurrentHashMap<>();
+    private final AtomicLong allowed = new AtomicLong();
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || properties.getRules().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            if (!rule.getMethods().contains(request.getMethod())) {
+                continue;
+            }
+            for (String pattern : rule.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    long waitNanos = consume(rule, pattern, path, request.getRemoteAddr());
+                    if (waitNanos > 0) {
+                        reject(request, response, waitNanos);
+                        return;
+                    }
+                    allowed.incrementAndGet();
+                    chain.doFilter(request, response);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Most specific scope first, so a single noisy user is rejected before they drain the shared buckets.
+     * A request turned away by a later scope gets back the tokens the earlier ones gave it.
+     */
+    private long consume(RateLimitProperties.Rule rule, String pattern, String path, String clientIp) {
+        String userId = pathMatcher.extractUriTemplateVariables(pattern, path).get(USER_ID);
+        List<TokenBucket> taken = new ArrayList<>(3);
+        long wait = 0;
+        if (userId != null && rule.getPerUser() != null) {
+            wait = consume(rule, "user", userId, rule.getPerUser(), taken);
+        }
+        if (wait == 0 && rule.getPerIp() != null) {
+            wait = consume(rule, "ip", clientIp, rule.getPerIp(), taken);
+        }
+        if (wait == 0 && rule.getGlobal() != null) {
+            wait = consume(rule, "global", "*", rule.getGlobal(), taken);
+        }
+        if (wait > 0) {
+            taken.forEach(TokenBucket::refund);
+        }
+        return wait;
+    }
+
+    private long consume(RateLimitProperties.Rule rule, String scope, String id, RateLimitProperties.Limit limit,
+                         List<TokenBucket> taken) {
+        TokenBucket bucket = buckets.computeIfAbsent(rule.getName() + ':' + scope + ':' + id,
+                key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), System::nanoTime));
+        long wait = bucket.tryConsume();
+        if (wait > 0) {
+            rejections.computeIfAbsent(rule.getName() + '.' + scope, key -> new AtomicLong()).incrementAndGet();
+        } else {
+            taken.add(bucket);
+        }
+        return wait;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(LocalDateTime.now(), status.value(),
+                status.getReasonPhrase(), "Too many requests, retry after " + retryAfterSeconds + "s",
+                request.getRequestURI()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        buckets.values().removeIf(TokenBucket::isIdle);
+    }
+
+    public RateLimitStatsDto stats() {
+        Map<String, Long> rejected = new TreeMap<>();
+        rejections.forEach((scope, count) -> rejected.put(scope, count.get()));
+        return new RateLimitStatsDto(properties.isEnabled(), buckets.size(), allowed.get(), rejected);
+    }
+}
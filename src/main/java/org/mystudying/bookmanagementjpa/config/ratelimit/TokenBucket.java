@@ -0,0 +1,66 @@
+package org.mystudying.bookmanagementjpa.config.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket: the state is an immutable snapshot swapped with compare-and-set,
+ * refilled lazily from the elapsed time on every attempt.
+ */
+public class TokenBucket {
+
+    private record State(double tokens, long refilledAtNanos) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, double refillPerSecond, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.nanoClock = nanoClock;
+        this.state = new AtomicReference<>(new State(capacity, nanoClock.getAsLong()));
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public long tryConsume() {
+        while (true) {
+            State current = state.get();
+            long now = nanoClock.getAsLong();
+            double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.refilledAtNanos()) * tokensPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryConsume()} for a request that was not let through after all.
+     */
+    public void refund() {
+        while (true) {
+            State current = state.get();
+            long now = nanoClock.getAsLong();
+            double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.refilledAtNanos()) * tokensPerNano + 1);
+            if (state.compareAndSet(current, new State(tokens, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * A bucket that would be full by now carries no state worth keeping.
+     */
+    public boolean isIdle() {
+        State current = state.get();
+        return current.tokens() + (nanoClock.getAsLong() - current.refilledAtNanos()) * tokensPerNano >= capacity;
+    }
+}
@@ -0,0 +1,36 @@
+package org.mystudying.bookmanagementjpa.config.retry;
+
+import org.mystudying.bookmanagementjpa.dto.OptimisticLockStatsDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class OptimisticLockMetrics {
+
+    private final Map<String, AtomicLong> conflicts = new ConcurrentHashMap<>();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    void conflict(String method) {
+        conflicts.computeIfAbsent(method, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    void recovered() {
+        recovered.incrementAndGet();
+    }
+
+    void exhausted() {
+        exhausted.incrementAndGet();
+    }
+
+    public OptimisticLockStatsDto stats() {
+        Map<String, Long> byMethod = new TreeMap<>();
+        conflicts.forEach((method, count) -> byMethod.put(method, count.get()));
+        return new OptimisticLockStatsDto(byMethod.values().stream().mapToLong(Long::longValue).sum(),
+                recovered.get(), exhausted.get(), byMethod);
+    }
+}
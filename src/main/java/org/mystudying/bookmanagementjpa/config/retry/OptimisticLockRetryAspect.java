@@ -0,0 +1,59 @@
+package org.mystudying.bookmanagementjpa.config.retry;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ordered before the transaction advisor, so every attempt runs in a fresh transaction
+ * and re-reads the rows it conflicted on.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticLockRetryAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetryAspect.class);
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final OptimisticLockMetrics metrics;
+
+    public OptimisticLockRetryAspect(OptimisticLockMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnOptimisticLock retry) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().toShortString();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    metrics.recovered();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                metrics.conflict(method);
+                if (attempt >= retry.maxAttempts()) {
+                    metrics.exhausted();
+                    log.warn("{} still conflicting after {} attempts", method, attempt);
+                    throw e;
+                }
+                long delay = Math.min(MAX_BACKOFF_MILLIS, retry.backoffMillis() << (attempt - 1));
+                Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + delay / 2 + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.mystudying.bookmanagementjpa.config.retry;
+
+import java.lang.annotation.*;
+
+/**
+ * Re-runs a transactional service method when its commit fails with an optimistic locking conflict.
+ * Only effective when the method starts the transaction itself; inside an outer transaction the
+ * conflict is passed on unchanged.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnOptimisticLock {
+
+    /**
+     * Total attempts including the first one.
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * Base delay before the first retry; doubled per retry and randomized by +/-50%.
+     */
+    long backoffMillis() default 20;
+}
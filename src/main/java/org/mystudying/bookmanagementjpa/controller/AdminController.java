@@ -0,0 +1,142 @@
+package org.mystudying.bookmanagementjpa.controller;
+
+import org.mystudying.bookmanagementjpa.config.PoolMetrics;
+import org.mystudying.bookmanagementjpa.config.ReadAfterWriteTracker;
+import org.mystudying.bookmanagementjpa.config.ReplicaLagMonitor;
+import org.mystudying.bookmanagementjpa.config.admission.AdmissionControlFilter;
+import org.mystudying.bookmanagementjpa.config.idempotency.IdempotencyFilter;
+import org.mystudying.bookmanagementjpa.config.ratelimit.RateLimitFilter;
+import org.mystudying.bookmanagementjpa.config.retry.OptimisticLockMetrics;
+import org.mystudying.bookmanagementjpa.dto.AdmissionStatsDto;
+import org.mystudying.bookmanagementjpa.dto.ArchiveStatsDto;
+import org.mystudying.bookmanagementjpa.dto.CatalogSnapshotStatsDto;
+import org.mystudying.bookmanagementjpa.dto.ColdStorageStatsDto;
+import org.mystudying.bookmanagementjpa.dto.ConnectionPoolStatsDto;
+import org.mystudying.bookmanagementjpa.dto.DataSourceStatusDto;
+import org.mystudying.bookmanagementjpa.dto.FacetIndexStatsDto;
+import org.mystudying.bookmanagementjpa.dto.IdempotencyStatsDto;
+import org.mystudying.bookmanagementjpa.dto.OptimisticLockStatsDto;
+import org.mystudying.bookmanagementjpa.dto.OutboxStatsDto;
+import org.mystudying.bookmanagementjpa.dto.RateLimitStatsDto;
+import org.mystudying.bookmanagementjpa.services.archive.BookingArchiver;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogReadModel;
+import org.mystudying.bookmanagementjpa.services.coldstorage.ColdStorageExporter;
+import org.mystudying.bookmanagementjpa.services.facets.FacetIndex;
+import org.mystudying.bookmanagementjpa.services.outbox.OutboxRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
+
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+    private final ReadAfterWriteTracker readAfterWriteTracker;
+    private final OutboxRelay outboxRelay;
+    private final IdempotencyFilter idempotencyFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final AdmissionControlFilter admissionControlFilter;
+    private final OptimisticLockMetrics optimisticLockMetrics;
+    private final FacetIndex facetIndex;
+    private final CatalogReadModel catalogReadModel;
+    private final PoolMetrics poolMetrics;
+    private final BookingArchiver bookingArchiver;
+    private final ColdStorageExporter coldStorageExporter;
+
+    public AdminController(ObjectProvider<ReplicaLagMonitor> replicaLagMonitor, ReadAfterWriteTracker readAfterWriteTracker,
+                           OutboxRelay outboxRelay, IdempotencyFilter idempotencyFilter, RateLimitFilter rateLimitFilter,
+                           AdmissionControlFilter admissionControlFilter, OptimisticLockMetrics optimisticLockMetrics,
+                           FacetIndex facetIndex, CatalogReadModel catalogReadModel, PoolMetrics poolMetrics,
+                           BookingArchiver bookingArchiver, ColdStorageExporter coldStorageExporter) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readAfterWriteTracker = readAfterWriteTracker;
+        this.outboxRelay = outboxRelay;
+        this.idempotencyFilter = idempotencyFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.admissionControlFilter = admissionControlFilter;
+        this.optimisticLockMetrics = optimisticLockMetrics;
+        this.facetIndex = facetIndex;
+        this.catalogReadModel = catalogReadModel;
+        this.poolMetrics = poolMetrics;
+        this.bookingArchiver = bookingArchiver;
+        this.coldStorageExporter = coldStorageExporter;
+    }
+
+    @GetMapping("/datasource")
+    public DataSourceStatusDto getDataSourceStatus() {
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        return new DataSourceStatusDto(
+                monitor != null,
+                monitor != null && monitor.isReplicaUsable(),
+                monitor != null ? monitor.getLagSeconds() : null,
+                readAfterWriteTracker.stickyUserCount()
+        );
+    }
+
+    @GetMapping("/pools")
+    public List<ConnectionPoolStatsDto> getConnectionPoolStats() {
+        return poolMetrics.stats();
+    }
+
+    @GetMapping("/outbox")
+    public OutboxStatsDto getOutboxStats() {
+        return outboxRelay.stats();
+    }
+
+    @GetMapping("/archive")
+    public ArchiveStatsDto getArchiveStats() {
+        return bookingArchiver.stats();
+    }
+
+    @GetMapping("/cold-storage")
+    public ColdStorageStatsDto getColdStorageStats() {
+        return coldStorageExporter.stats();
+    }
+
+    @GetMapping("/idempotency")
+    public IdempotencyStatsDto getIdempotencyStats() {
+        return idempotencyFilter.stats();
+    }
+
+    @GetMapping("/rate-limit")
+    public RateLimitStatsDto getRateLimitStats() {
+        return rateLimitFilter.stats();
+    }
+
+    @GetMapping("/admission")
+    public AdmissionStatsDto getAdmissionStats() {
+        return admissionControlFilter.stats();
+    }
+
+    @GetMapping("/optimistic-locking")
+    public OptimisticLockStatsDto getOptimisticLockStats() {
+        return optimisticLockMetrics.stats();
+    }
+
+    @GetMapping("/facets")
+    public FacetIndexStatsDto getFacetIndexStats() {
+        return facetIndex.stats();
+    }
+
+    @GetMapping("/catalog-snapshot")
+    public CatalogSnapshotStatsDto getCatalogSnapshotStats() {
+        return catalogReadModel.stats();
+    }
+
+    /**
+     * Local stand-in for a downstream system: point {@code app.outbox.sinks.webhook.url} here to try the webhook sink.
+     */
+    @PostMapping("/outbox/webhook")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void receiveOutboxWebhook(@RequestBody List<Map<String, Object>> events) {
+        log.info("Webhook stand-in received {} booking events", events.size());
+    }
+}
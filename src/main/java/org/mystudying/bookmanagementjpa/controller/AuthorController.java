@@ -2,19 +2,23 @@ package org.mystudying.bookmanagementjpa.controller;
 
 import jakarta.validation.Valid;
 import org.mystudying.bookmanagementjpa.domain.Author;
-import org.mystudying.bookmanagementjpa.domain.Book;
 import org.mystudying.bookmanagementjpa.dto.AuthorDto;
 import org.mystudying.bookmanagementjpa.dto.BookDto;
 import org.mystudying.bookmanagementjpa.dto.CreateAuthorRequestDto;
 import org.mystudying.bookmanagementjpa.dto.UpdateAuthorRequestDto;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
 import org.mystudying.bookmanagementjpa.exceptions.AuthorNotFoundException;
 import org.mystudying.bookmanagementjpa.services.AuthorService;
 import org.mystudying.bookmanagementjpa.services.BookService;
+import org.mystudying.bookmanagementjpa.services.CatalogVersions;
+import org.mystudying.bookmanagementjpa.services.CatalogVersions.CatalogVersion;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/authors")
@@ -22,17 +26,25 @@ public class AuthorController {
 
     private final AuthorService authorService;
     private final BookService bookService;
+    private final CatalogVersions catalogVersions;
 
-    public AuthorController(AuthorService authorService, BookService bookService) {
+    public AuthorController(AuthorService authorService, BookService bookService, CatalogVersions catalogVersions) {
         this.authorService = authorService;
         this.bookService = bookService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    public List<AuthorDto> getAllAuthors() {
-        return authorService.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<AuthorDto>> getAllAuthors(WebRequest request) {
+        CatalogVersion version = catalogVersions.current(CatalogAggregate.AUTHORS);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .body(authorService.findAll());
     }
 
     @GetMapping("/{id}")
@@ -51,9 +63,7 @@ public class AuthorController {
 
     @GetMapping("/{id}/books")
     public List<BookDto> getBooksByAuthorId(@PathVariable long id) {
-        return bookService.findByAuthorId(id).stream()
-                .map(this::toBookDto)
-                .collect(Collectors.toList());
+        return bookService.findByAuthorId(id);
     }
 
     @PostMapping
@@ -79,9 +89,5 @@ public class AuthorController {
     private AuthorDto toDto(Author author) {
         return new AuthorDto(author.getId(), author.getName(), author.getBirthdate());
     }
-
-    private BookDto toBookDto(Book book) {
-        return new BookDto(book.getId(), book.getTitle(), book.getYear(), book.getAvailable());
-    }
 }
 
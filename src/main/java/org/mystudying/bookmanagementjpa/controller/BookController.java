@@ -4,27 +4,61 @@ import jakarta.validation.Valid;
 import org.mystudying.bookmanagementjpa.domain.Book;
 import org.mystudying.bookmanagementjpa.dto.BookDetailDto;
 import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.dto.BookSearchCriteria;
 import org.mystudying.bookmanagementjpa.dto.CreateBookRequestDto;
+import org.mystudying.bookmanagementjpa.dto.FacetedSearchDto;
+import org.mystudying.bookmanagementjpa.dto.TrendingBooksDto;
+import org.mystudying.bookmanagementjpa.dto.TrendingWindow;
 import org.mystudying.bookmanagementjpa.dto.UpdateBookRequestDto;
 import org.mystudying.bookmanagementjpa.exceptions.BookNotFoundException;
+import org.mystudying.bookmanagementjpa.services.AvailabilityStreamService;
 import org.mystudying.bookmanagementjpa.services.BookService;
+import org.mystudying.bookmanagementjpa.services.CatalogVersions;
+import org.mystudying.bookmanagementjpa.services.CatalogVersions.CatalogVersion;
+import org.mystudying.bookmanagementjpa.services.facets.FacetIndex;
+import org.mystudying.bookmanagementjpa.services.facets.FacetQuery;
+import org.mystudying.bookmanagementjpa.services.facets.FacetSearchService;
+import org.mystudying.bookmanagementjpa.services.trending.TrendingService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
+    private static final int MAX_FACET_PAGE_SIZE = 100;
+
     private final BookService bookService;
+    private final FacetSearchService facetSearchService;
+    private final CatalogVersions catalogVersions;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final TrendingService trendingService;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, FacetSearchService facetSearchService,
+                          CatalogVersions catalogVersions, AvailabilityStreamService availabilityStreamService,
+                          TrendingService trendingService) {
         this.bookService = bookService;
+        this.facetSearchService = facetSearchService;
+        this.catalogVersions = catalogVersions;
+        this.availabilityStreamService = availabilityStreamService;
+        this.trendingService = trendingService;
     }
 
+    /**
+     * Unpaged list; every given filter applies (they used to be mutually exclusive).
+     */
     @GetMapping
     public List<BookDto> getAllBooks(@RequestParam Optional<Boolean> available,
                                      @RequestParam Optional<Integer> year,
@@ -32,39 +66,48 @@ public class BookController {
                                      @RequestParam Optional<String> title,
                                      @RequestParam Optional<String> authorPartName,
                                      @RequestParam Optional<Long> genreId) {
-        if (available.isPresent()) {
-            return bookService.findByAvailability(available.get()).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
-        }
-        if (genreId.isPresent()) {
-            return bookService.findByGenreId(genreId.get()).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
-        }
-        if (year.isPresent()) {
-            return bookService.findByYear(year.get()).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
-        }
-        if (title.isPresent()) {
-            return bookService.findByTitleContaining(title.get()).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
-        }
-        if (authorPartName.isPresent()) {
-            return bookService.findByAuthorNameContaining(authorPartName.get()).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
-        }
-        if (authorName.isPresent()) {
-            return bookService.findByAuthorName(authorName.get()).stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
-        }
-        return bookService.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return bookService.search(new BookSearchCriteria(
+                available.orElse(null),
+                year.orElse(null),
+                year.orElse(null),
+                genreId.map(Set::of).orElse(null),
+                title.orElse(null),
+                authorName.orElse(null),
+                authorPartName.orElse(null)));
+    }
+
+    @GetMapping("/search")
+    public Page<BookDto> searchBooks(@RequestParam(required = false) Boolean available,
+                                     @RequestParam(required = false) Integer yearFrom,
+                                     @RequestParam(required = false) Integer yearTo,
+                                     @RequestParam(required = false) Set<Long> genreId,
+                                     @RequestParam(required = false) String title,
+                                     @RequestParam(required = false) String author,
+                                     @PageableDefault(size = 20, sort = "title") Pageable pageable) {
+        return bookService.search(
+                new BookSearchCriteria(available, yearFrom, yearTo, genreId, title, null, author), pageable);
+    }
+
+    /**
+     * Hits and facet counts (genre, decade, availability) in one call; see {@link FacetIndex}.
+     */
+    @GetMapping("/facets")
+    public FacetedSearchDto facetedSearch(@RequestParam(required = false) Set<Long> genreId,
+                                          @RequestParam(required = false) Set<Integer> decade,
+                                          @RequestParam(required = false) Boolean available,
+                                          @RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size) {
+        return facetSearchService.search(new FacetQuery(genreId, decade, available),
+                Math.max(page, 0), Math.min(Math.max(size, 1), MAX_FACET_PAGE_SIZE));
+    }
+
+    /**
+     * Most rented books in the last hour, day or week, from in-memory counters; see {@link TrendingService}.
+     */
+    @GetMapping("/trending")
+    public TrendingBooksDto trendingBooks(@RequestParam(defaultValue = "DAY") TrendingWindow window,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        return trendingService.trending(window, Math.max(limit, 1));
     }
 
     @GetMapping("/{id}")
@@ -74,10 +117,27 @@ public class BookController {
                 .orElseThrow(() -> new BookNotFoundException(id));
     }
 
+    /**
+     * Tagged per book (see {@link CatalogVersions#book}) from memory only, so a matching conditional
+     * request is answered without a query; the details are only loaded when it does not match.
+     */
     @GetMapping("/{id}/details")
-    public BookDetailDto getBookDetailsById(@PathVariable long id) {
-        return bookService.findBookDetailsById(id)
-                .orElseThrow(() -> new BookNotFoundException(id));
+    public ResponseEntity<BookDetailDto> getBookDetailsById(@PathVariable long id, WebRequest request) {
+        CatalogVersion version = catalogVersions.book(id);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .body(bookService.findBookDetailsById(id)
+                        .orElseThrow(() -> new BookNotFoundException(id)));
+    }
+
+    @GetMapping(path = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability() {
+        return availabilityStreamService.subscribe();
     }
 
     @GetMapping("/title/{title}")
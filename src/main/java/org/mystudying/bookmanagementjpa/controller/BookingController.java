@@ -1,34 +1,131 @@
 package org.mystudying.bookmanagementjpa.controller;
 
+import jakarta.validation.Valid;
+import org.mystudying.bookmanagementjpa.dto.BookingAggregatesDto;
 import org.mystudying.bookmanagementjpa.dto.BookingReportDto;
+import org.mystudying.bookmanagementjpa.dto.CirculationStatsDto;
 import org.mystudying.bookmanagementjpa.dto.BookingReportType;
+import org.mystudying.bookmanagementjpa.dto.ReportJobDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobRequestDto;
 import org.mystudying.bookmanagementjpa.services.BookingService;
+import org.mystudying.bookmanagementjpa.services.coldstorage.ColdStorage;
+import org.mystudying.bookmanagementjpa.services.reports.BookingAggregateService;
+import org.mystudying.bookmanagementjpa.services.reports.ReportJobService;
+import org.mystudying.bookmanagementjpa.services.reports.ReportRunner;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/reports")
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ReportRunner reportRunner;
+    private final ReportJobService reportJobService;
+    private final BookingAggregateService bookingAggregateService;
+    private final ColdStorage coldStorage;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ReportRunner reportRunner,
+                             ReportJobService reportJobService, BookingAggregateService bookingAggregateService,
+                             ColdStorage coldStorage) {
         this.bookingService = bookingService;
+        this.reportRunner = reportRunner;
+        this.reportJobService = reportJobService;
+        this.bookingAggregateService = bookingAggregateService;
+        this.coldStorage = coldStorage;
     }
 
+    /**
+     * Answered asynchronously, so a client that gives up (closed tab, newer report requested)
+     * stops the query as well. {@code includeArchived} covers {@code bookings_archive} only; bookings
+     * exported to cold storage are summarized by {@link #getCirculationHistory} instead.
+     */
     @GetMapping("/bookings")
-    public Page<BookingReportDto> getBookingReport(
+    public DeferredResult<Page<BookingReportDto>> getBookingReport(
             @RequestParam(name = "type") BookingReportType type,
             @RequestParam(required = false) Integer days,
             @RequestParam(required = false) Long minActiveBooks,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             @PageableDefault(size = 10) Pageable pageable
     ) {
-        return bookingService.getBookingReport(type, days, minActiveBooks, pageable);
+        return reportRunner.submit(cancellation ->
+                bookingService.getBookingReport(type, days, minActiveBooks, includeArchived, pageable, cancellation));
+    }
+
+    /**
+     * Totals, fines and overdue counts per due date over all bookings, computed range by range in parallel.
+     */
+    @GetMapping("/aggregates")
+    public DeferredResult<BookingAggregatesDto> getBookingAggregates() {
+        return reportRunner.submit(bookingAggregateService::aggregate);
+    }
+
+    /**
+     * Loans per month, late returns, fines and the most borrowed books for one year, scanned from the
+     * cold storage files only: bookings still in the database are not included.
+     */
+    @GetMapping("/history")
+    public DeferredResult<CirculationStatsDto> getCirculationHistory(@RequestParam int year,
+                                                                     @RequestParam(defaultValue = "10") int topBooks) {
+        return reportRunner.submit(cancellation -> coldStorage.circulation(year, topBooks, cancellation));
+    }
+
+    /**
+     * Full report (all rows) computed in the background; poll the returned job until it is {@code DONE}.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobDto> submitReportJob(@Valid @RequestBody ReportJobRequestDto request) {
+        ReportJobDto job = reportJobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ReportJobDto getReportJob(@PathVariable String id) {
+        return reportJobService.find(id);
+    }
+
+    /**
+     * The stored gzip file is sent as is to clients that accept gzip, and decompressed for the others.
+     */
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<Resource> getReportJobResult(@PathVariable String id,
+                                                       @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                       String acceptEncoding) throws IOException {
+        Path file = reportJobService.result(id);
+        var response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report-" + id + ".json\"");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .body(new FileSystemResource(file));
+        }
+        return response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .body(new InputStreamResource(new GZIPInputStream(Files.newInputStream(file))));
     }
 }
 
@@ -3,12 +3,18 @@ package org.mystudying.bookmanagementjpa.controller;
 import org.mystudying.bookmanagementjpa.dto.BookDto;
 import org.mystudying.bookmanagementjpa.dto.GenreDto;
 import org.mystudying.bookmanagementjpa.dto.GenreWithBooksDto;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
 import org.mystudying.bookmanagementjpa.exceptions.GenreNotFoundException;
+import org.mystudying.bookmanagementjpa.services.CatalogVersions;
+import org.mystudying.bookmanagementjpa.services.CatalogVersions.CatalogVersion;
 import org.mystudying.bookmanagementjpa.services.GenreService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,16 +23,21 @@ import java.util.List;
 public class GenreController {
 
     private final GenreService genreService;
+    private final CatalogVersions catalogVersions;
 
 
-    public GenreController(GenreService genreService) {
+    public GenreController(GenreService genreService, CatalogVersions catalogVersions) {
         this.genreService = genreService;
-
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    public List<GenreDto> getAllGenres() {
-        return genreService.findAll();
+    public ResponseEntity<List<GenreDto>> getAllGenres(WebRequest request) {
+        CatalogVersion version = catalogVersions.current(CatalogAggregate.GENRES);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return withVersion(version, genreService.findAll());
     }
 
     @GetMapping("/{id}")
@@ -36,8 +47,12 @@ public class GenreController {
     }
 
     @GetMapping("/with-books")
-    public List<GenreWithBooksDto> getAllGenresWithBooks() {
-        return genreService.findAllWithBooks();
+    public ResponseEntity<List<GenreWithBooksDto>> getAllGenresWithBooks(WebRequest request) {
+        CatalogVersion version = catalogVersions.current(CatalogAggregate.GENRES, CatalogAggregate.BOOKS);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return withVersion(version, genreService.findAllWithBooks());
     }
 
     @GetMapping("/{id}/books")
@@ -49,4 +64,12 @@ public class GenreController {
     public List<BookDto> getBooksByGenre(@PathVariable String name) {
         return genreService.findBooksByGenre(name);
     }
+
+    private <T> ResponseEntity<T> withVersion(CatalogVersion version, T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .body(body);
+    }
 }
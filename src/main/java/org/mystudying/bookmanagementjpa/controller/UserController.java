@@ -1,35 +1,37 @@
 package org.mystudying.bookmanagementjpa.controller;
 
 import jakarta.validation.Valid;
-import org.mystudying.bookmanagementjpa.domain.Book;
 import org.mystudying.bookmanagementjpa.domain.User;
 import org.mystudying.bookmanagementjpa.dto.*;
 import org.mystudying.bookmanagementjpa.exceptions.UserNotFoundException;
+import org.mystudying.bookmanagementjpa.services.FineLedgerService;
+import org.mystudying.bookmanagementjpa.services.HoldService;
 import org.mystudying.bookmanagementjpa.services.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final HoldService holdService;
+    private final FineLedgerService fineLedgerService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, HoldService holdService, FineLedgerService fineLedgerService) {
         this.userService = userService;
+        this.holdService = holdService;
+        this.fineLedgerService = fineLedgerService;
     }
 
 
 
     @GetMapping
     public List<UserDto> getAllUsers() {
-        return userService.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return userService.findAll();
     }
 
     @GetMapping("/{id}")
@@ -57,9 +59,7 @@ public class UserController {
     @Deprecated
     @GetMapping("/{id}/books")
     public List<BookDto> getBooksByUser(@PathVariable long id) {
-        return userService.findActiveBorrowedBooksByUserId(id).stream()
-                .map(this::toBookDto)
-                .collect(Collectors.toList());
+        return userService.findActiveBorrowedBooksByUserId(id);
     }
 
     @PostMapping
@@ -92,8 +92,9 @@ public class UserController {
     }
 
     @GetMapping("/{id}/bookings")
-    public List<BookingResponseDto> getUserBookings(@PathVariable long id) {
-        return userService.findBookingsByUserId(id);
+    public List<BookingResponseDto> getUserBookings(@PathVariable long id,
+                                                    @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return userService.findBookingsByUserId(id, includeArchived);
     }
 
     @PostMapping("/{userId}/bookings/{bookingId}/pay")
@@ -102,12 +103,44 @@ public class UserController {
         userService.payFine(userId, bookingId);
     }
 
+    @PostMapping("/{userId}/bookings/{bookingId}/waive")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void waiveFine(@PathVariable long userId, @PathVariable long bookingId) {
+        userService.waiveFine(userId, bookingId);
+    }
+
+    /**
+     * Unpaid fines, read from the maintained balance rather than summed over the bookings.
+     */
+    @GetMapping("/{id}/balance")
+    public UserBalanceDto getUserBalance(@PathVariable long id) {
+        return fineLedgerService.getBalance(id);
+    }
+
+    @GetMapping("/{userId}/holds")
+    public List<HoldDto> getUserHolds(@PathVariable long userId) {
+        return holdService.findActiveHolds(userId);
+    }
+
+    @GetMapping("/{userId}/holds/{bookId}")
+    public HoldDto getHold(@PathVariable long userId, @PathVariable long bookId) {
+        return holdService.findHold(userId, bookId);
+    }
+
+    @PostMapping("/{userId}/holds")
+    @ResponseStatus(HttpStatus.CREATED)
+    public HoldDto placeHold(@PathVariable long userId, @Valid @RequestBody BookActionRequestDto requestDto) {
+        return holdService.placeHold(userId, requestDto.bookId());
+    }
+
+    @DeleteMapping("/{userId}/holds/{bookId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelHold(@PathVariable long userId, @PathVariable long bookId) {
+        holdService.cancelHold(userId, bookId);
+    }
+
     private UserDto toDto(User user) {
         return new UserDto(user.getId(), user.getName(), user.getEmail());
     }
-    
-    private BookDto toBookDto(Book book) {
-        return new BookDto(book.getId(), book.getTitle(), book.getYear(), book.getAvailable());
-    }
 }
 
@@ -3,12 +3,19 @@ package org.mystudying.bookmanagementjpa.controller.advice;
 import jakarta.servlet.http.HttpServletRequest;
 import org.mystudying.bookmanagementjpa.dto.ErrorResponse;
 import org.mystudying.bookmanagementjpa.exceptions.*;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
@@ -17,18 +24,58 @@ import java.util.stream.Collectors;
 public class GlobalExceptionHandler {
 
     @ExceptionHandler({BookNotFoundException.class, AuthorNotFoundException.class, UserNotFoundException.class,
-            GenreNotFoundException.class})
+            GenreNotFoundException.class, HoldNotFoundException.class, ReportJobNotFoundException.class})
     public ResponseEntity<ErrorResponse> handleNotFoundException(RuntimeException ex, HttpServletRequest request) {
         return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler({BookAlreadyBorrowedException.class, BookNotBorrowedException.class, EmailAlreadyExistsException.class,
             BookNotAvailableException.class, BookHasBookingsException.class, AuthorHasBooksException.class,
-            UserHasBookingsException.class, UserHasOverdueBooksException.class, UserHasUnpaidFinesException.class})
+            UserHasBookingsException.class, UserHasOverdueBooksException.class, UserHasUnpaidFinesException.class,
+            HoldAlreadyExistsException.class, BookAvailableForRentException.class, BookVersionConflictException.class,
+            ReportJobNotReadyException.class})
     public ResponseEntity<ErrorResponse> handleConflictException(RuntimeException ex, HttpServletRequest request) {
         return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
     }
 
+    @ExceptionHandler({TooManySubscribersException.class, TooManyReportJobsException.class, TooManyReportsException.class})
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(RuntimeException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(ArchiveNotSupportedException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequestException(RuntimeException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+    }
+
+    /**
+     * Still conflicting after the retries of {@code @RetryOnOptimisticLock}.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(RuntimeException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.CONFLICT, "The data was changed concurrently, please retry",
+                request.getRequestURI());
+    }
+
+    /**
+     * No database connection within the pool timeout: the server is overloaded, the request can be retried.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class,
+            TransientDataAccessResourceException.class, RecoverableDataAccessException.class})
+    public ResponseEntity<ErrorResponse> handleConnectionUnavailableException(RuntimeException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service is temporarily unavailable, please retry",
+                request.getRequestURI());
+    }
+
+    /**
+     * A report query ran past its timeout, or the report did not finish in time.
+     */
+    @ExceptionHandler({QueryTimeoutException.class, AsyncRequestTimeoutException.class})
+    public ResponseEntity<ErrorResponse> handleQueryTimeoutException(RuntimeException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "The query took too long, please narrow it down or retry later",
+                request.getRequestURI());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex, HttpServletRequest request) {
         String message = ex.getBindingResult().getAllErrors().stream()
@@ -0,0 +1,108 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * A returned and settled {@link Booking} moved to {@code bookings_archive}; keeps the booking's id.
+ */
+@Entity
+@Immutable
+@Table(name = "bookings_archive")
+@NamedEntityGraph(name = ArchivedBooking.WITH_BOOK, attributeNodes = @NamedAttributeNode("book"))
+public class ArchivedBooking {
+
+    public static final String WITH_BOOK = "ArchivedBooking.withBook";
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @Column(name = "borrowed_at", nullable = false)
+    private LocalDate borrowedAt;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDate dueAt;
+
+    @Column(name = "returned_at", nullable = false)
+    private LocalDate returnedAt;
+
+    @Column(name = "fine")
+    private BigDecimal fine;
+
+    @Column(name = "fine_paid")
+    private boolean finePaid;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected ArchivedBooking() {
+        // Required by JPA
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public LocalDate getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    public LocalDate getDueAt() {
+        return dueAt;
+    }
+
+    public LocalDate getReturnedAt() {
+        return returnedAt;
+    }
+
+    public BigDecimal getFine() {
+        return fine == null ? BigDecimal.ZERO : fine;
+    }
+
+    public boolean isFinePaid() {
+        return finePaid;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public long overdueDays() {
+        return returnedAt.isAfter(dueAt) ? ChronoUnit.DAYS.between(dueAt, returnedAt) : 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArchivedBooking)) return false;
+        ArchivedBooking booking = (ArchivedBooking) o;
+        return id != null && Objects.equals(id, booking.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -5,8 +5,10 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import org.mystudying.bookmanagementjpa.exceptions.BookNotAvailableException;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
@@ -33,6 +35,9 @@ public class Book {
     @Column(nullable = false)
     private int available;
 
+    @Version
+    private long version;
+
     @ManyToMany
     @JoinTable(
         name = "book_genres",
@@ -41,8 +46,10 @@ public class Book {
     )
     private Set<Genre> genres = new HashSet<>();
 
+    // A list for the same reason as User.bookings
     @OneToMany(mappedBy = "book")
-    private Set<Booking> bookings = new HashSet<>();
+    @OrderBy("id")
+    private List<Booking> bookings = new ArrayList<>();
 
     protected Book() {
         // Required by JPA
@@ -76,6 +83,10 @@ public class Book {
         return available;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public Set<Genre> getGenres() {
         return Collections.unmodifiableSet(genres);
     }
@@ -88,8 +99,8 @@ public class Book {
         this.genres.remove(genre);
     }
 
-    public Set<Booking> getBookings() {
-        return Collections.unmodifiableSet(bookings);
+    public List<Booking> getBookings() {
+        return Collections.unmodifiableList(bookings);
     }
 
     public void addBooking(Booking booking) {
@@ -0,0 +1,105 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+@Entity
+@Table(name = "book_copies")
+public class BookCopy {
+
+    public static final String DEFAULT_BRANCH = "MAIN";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @Column(nullable = false, unique = true)
+    private String barcode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CopyStatus status;
+
+    @Column(nullable = false)
+    private String branch;
+
+    /**
+     * The hold a RESERVED copy is kept for.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hold_id")
+    private Hold hold;
+
+    protected BookCopy() {
+        // Required by JPA
+    }
+
+    public BookCopy(Book book, String barcode, CopyStatus status, String branch) {
+        this.book = book;
+        this.barcode = barcode;
+        this.status = status;
+        this.branch = branch;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public CopyStatus getStatus() {
+        return status;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public Hold getHold() {
+        return hold;
+    }
+
+    public void lend() {
+        this.status = CopyStatus.ON_LOAN;
+        this.hold = null;
+    }
+
+    public void reserve(Hold hold) {
+        this.status = CopyStatus.RESERVED;
+        this.hold = hold;
+    }
+
+    public void shelve() {
+        this.status = CopyStatus.AVAILABLE;
+        this.hold = null;
+    }
+
+    public void withdraw() {
+        this.status = CopyStatus.WITHDRAWN;
+        this.hold = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BookCopy)) return false;
+        BookCopy copy = (BookCopy) o;
+        return id != null && Objects.equals(id, copy.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
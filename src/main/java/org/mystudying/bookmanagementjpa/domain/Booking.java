@@ -8,8 +8,22 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.WITH_BOOK, attributeNodes = @NamedAttributeNode("book"))
+@NamedEntityGraph(name = Booking.REPORT_ROW, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("book")
+})
 public class Booking {
 
+    /**
+     * A user's bookings page: each row shows the book.
+     */
+    public static final String WITH_BOOK = "Booking.withBook";
+    /**
+     * Booking reports: each row shows the user and the book.
+     */
+    public static final String REPORT_ROW = "Booking.reportRow";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -22,6 +36,13 @@ public class Booking {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
+    /**
+     * The lent copy; only set in copies inventory mode.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
     @Column(name = "borrowed_at", nullable = false)
     private LocalDate borrowedAt;
 
@@ -37,6 +58,9 @@ public class Booking {
     @Column(name = "fine_paid")
     private boolean finePaid = false;
 
+    @Version
+    private long version;
+
     protected Booking() {
         // Required by JPA
     }
@@ -84,6 +108,18 @@ public class Booking {
         this.fine = fine;
     }
 
+    public BookCopy getCopy() {
+        return copy;
+    }
+
+    public void setCopy(BookCopy copy) {
+        this.copy = copy;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
     public boolean isFinePaid() {
         return finePaid;
     }
@@ -116,7 +152,7 @@ public class Booking {
         if (this == o) return true;
         if (!(o instanceof Booking)) return false;
         Booking booking = (Booking) o;
-        return Objects.equals(id, booking.id);
+        return id != null && Objects.equals(id, booking.id);
     }
 
     @Override
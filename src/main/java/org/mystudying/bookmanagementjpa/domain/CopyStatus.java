@@ -0,0 +1,8 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+public enum CopyStatus {
+    AVAILABLE,
+    ON_LOAN,
+    RESERVED,
+    WITHDRAWN
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+public enum FineEntryType {
+    ACCRUAL,
+    PAYMENT,
+    WAIVER
+}
@@ -0,0 +1,73 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One movement of a user's fine balance; never changed once written. Accruals are positive,
+ * payments and waivers negative, so the balance is the sum of the amounts.
+ */
+@Entity
+@Immutable
+@Table(name = "fine_ledger")
+public class FineLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private FineEntryType type;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    protected FineLedgerEntry() {
+        // Required by JPA
+    }
+
+    public FineLedgerEntry(long userId, Long bookingId, FineEntryType type, BigDecimal amount, LocalDateTime createdAt) {
+        this.userId = userId;
+        this.bookingId = bookingId;
+        this.type = type;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public FineEntryType getType() {
+        return type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
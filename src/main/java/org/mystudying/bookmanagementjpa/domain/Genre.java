@@ -2,15 +2,21 @@ package org.mystudying.bookmanagementjpa.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 @Entity
 @Table(name = "genres")
+@NamedEntityGraph(name = Genre.WITH_BOOKS, attributeNodes = @NamedAttributeNode("books"))
 public class Genre {
 
+    /**
+     * Genres with their books, listed together.
+     */
+    public static final String WITH_BOOKS = "Genre.withBooks";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,8 +25,9 @@ public class Genre {
     @Column(nullable = false, unique = true)
     private String name;
 
+    // Inverse side, only read; a list because books hash to a constant
     @ManyToMany(mappedBy = "genres")
-    private Set<Book> books = new HashSet<>();
+    private List<Book> books = new ArrayList<>();
 
     protected Genre() {
         // Required by JPA
@@ -43,8 +50,8 @@ public class Genre {
         this.name = name;
     }
 
-    public Set<Book> getBooks() {
-        return Collections.unmodifiableSet(books);
+    public List<Book> getBooks() {
+        return Collections.unmodifiableList(books);
     }
 
     @Override
@@ -0,0 +1,111 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "holds")
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "ready_at")
+    private LocalDate readyAt;
+
+    @Column(name = "pickup_deadline")
+    private LocalDate pickupDeadline;
+
+    protected Hold() {
+        // Required by JPA
+    }
+
+    public Hold(User user, Book book, LocalDateTime createdAt) {
+        this.user = user;
+        this.book = book;
+        this.createdAt = createdAt;
+        this.status = HoldStatus.WAITING;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public HoldStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDate getReadyAt() {
+        return readyAt;
+    }
+
+    public LocalDate getPickupDeadline() {
+        return pickupDeadline;
+    }
+
+    public boolean isActive() {
+        return status == HoldStatus.WAITING || status == HoldStatus.READY;
+    }
+
+    public void markReady(LocalDate readyAt, LocalDate pickupDeadline) {
+        this.status = HoldStatus.READY;
+        this.readyAt = readyAt;
+        this.pickupDeadline = pickupDeadline;
+    }
+
+    public void fulfil() {
+        this.status = HoldStatus.FULFILLED;
+    }
+
+    public void expire() {
+        this.status = HoldStatus.EXPIRED;
+    }
+
+    public void cancel() {
+        this.status = HoldStatus.CANCELLED;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Hold)) return false;
+        Hold hold = (Hold) o;
+        return id != null && Objects.equals(id, hold.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
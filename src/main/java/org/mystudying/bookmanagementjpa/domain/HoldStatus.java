@@ -0,0 +1,9 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+public enum HoldStatus {
+    WAITING,
+    READY,
+    FULFILLED,
+    EXPIRED,
+    CANCELLED
+}
@@ -0,0 +1,8 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+public enum OutboxEventType {
+    BOOK_RENTED,
+    BOOK_RETURNED,
+    FINE_PAID,
+    FINE_WAIVED
+}
@@ -4,9 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 @Entity
 @Table(name = "users")
@@ -25,8 +25,11 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    // A list, not a set: bookings hash to a constant until they have an id, so a hash set of
+    // thousands of them degrades to a linear scan per add. New bookings are always new instances.
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<Booking> bookings = new HashSet<>();
+    @OrderBy("id")
+    private List<Booking> bookings = new ArrayList<>();
 
     protected User() {
         // Required by JPA
@@ -50,8 +53,8 @@ public class User {
         return email;
     }
 
-    public Set<Booking> getBookings() {
-        return Collections.unmodifiableSet(bookings);
+    public List<Booking> getBookings() {
+        return Collections.unmodifiableList(bookings);
     }
 
     public void addBooking(Booking booking) {
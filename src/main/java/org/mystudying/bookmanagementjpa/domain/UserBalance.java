@@ -0,0 +1,43 @@
+package org.mystudying.bookmanagementjpa.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sum of a user's {@link FineLedgerEntry} amounts. Read-only here: it is only changed by the atomic
+ * upsert in {@code UserBalanceRepository}, in the transaction writing the ledger entry.
+ */
+@Entity
+@Immutable
+@Table(name = "user_balances")
+public class UserBalance {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected UserBalance() {
+        // Required by JPA
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,13 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public record AdmissionStatsDto(
+        boolean enabled,
+        int limit,
+        int inFlight,
+        int queueDepth,
+        int maxQueue,
+        long admitted,
+        long shed,
+        long timedOut
+) {
+}
@@ -0,0 +1,14 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ArchiveStatsDto(
+        boolean enabled,
+        LocalDate cutoff,
+        long archived,
+        long lastRunArchived,
+        long lastRunMillis,
+        LocalDateTime lastRunAt
+) {
+}
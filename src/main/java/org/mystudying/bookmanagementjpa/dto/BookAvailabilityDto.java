@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public record BookAvailabilityDto(
+        long bookId,
+        int available
+) {
+}
@@ -10,18 +10,21 @@ public class BookDetailDto {
     private String authorName;
     private long authorId;
     private List<String> genres;
+    private long version;
 
 
     public BookDetailDto() {
     }
 
-    public BookDetailDto(long id, String title, int year, int available, String authorName, long authorId) {
+    public BookDetailDto(long id, String title, int year, int available, String authorName, long authorId,
+                         long version) {
         this.id = id;
         this.title = title;
         this.year = year;
         this.available = available;
         this.authorName = authorName;
         this.authorId = authorId;
+        this.version = version;
     }
 
 
@@ -80,4 +83,12 @@ public class BookDetailDto {
     public void setGenres(List<String> genres) {
         this.genres = genres;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
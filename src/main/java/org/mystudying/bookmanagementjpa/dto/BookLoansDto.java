@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public record BookLoansDto(
+        long bookId,
+        long loans
+) {
+}
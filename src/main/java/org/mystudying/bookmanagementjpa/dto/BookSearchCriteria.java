@@ -0,0 +1,22 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.util.Set;
+
+/**
+ * Filters for the combined book search. {@code null} (or an empty genre set) means "no restriction";
+ * all present filters must match.
+ */
+public record BookSearchCriteria(
+        Boolean available,
+        Integer yearFrom,
+        Integer yearTo,
+        Set<Long> genreIds,
+        String title,
+        String authorName,
+        String authorNameContains
+) {
+    public boolean isEmpty() {
+        return available == null && yearFrom == null && yearTo == null && (genreIds == null || genreIds.isEmpty())
+                && title == null && authorName == null && authorNameContains == null;
+    }
+}
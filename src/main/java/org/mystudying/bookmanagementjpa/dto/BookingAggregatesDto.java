@@ -0,0 +1,25 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Totals over the bookings in the {@code bookings} table as of {@code date}; bookings moved to the
+ * archive or to cold storage are not counted. {@code accruingFines} is what the overdue bookings
+ * would be charged if returned today; {@code ranges} and {@code parallelism} show how the work was split.
+ */
+public record BookingAggregatesDto(
+        LocalDate date,
+        long bookings,
+        long activeBookings,
+        long overdueBookings,
+        BigDecimal fines,
+        BigDecimal unpaidFines,
+        BigDecimal accruingFines,
+        List<OverdueDayDto> overdueByDueDate,
+        int ranges,
+        int parallelism,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,21 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import org.mystudying.bookmanagementjpa.domain.OutboxEventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record BookingEventDto(
+        OutboxEventType type,
+        long bookingId,
+        long userId,
+        long bookId,
+        LocalDate borrowedAt,
+        LocalDate dueAt,
+        LocalDate returnedAt,
+        BigDecimal fine,
+        boolean finePaid,
+        LocalDateTime occurredAt
+) {
+}
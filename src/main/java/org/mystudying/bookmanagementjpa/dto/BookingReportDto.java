@@ -3,6 +3,10 @@ package org.mystudying.bookmanagementjpa.dto;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+/**
+ * One row of a booking report; from {@code bookings}, or from {@code bookings_archive} for a
+ * {@code RETURNED} report with {@code includeArchived}.
+ */
 public record BookingReportDto(
         Long bookingId,
         Long userId,
@@ -1,5 +1,10 @@
 package org.mystudying.bookmanagementjpa.dto;
 
+/**
+ * Booking report types. All of them read the {@code bookings} table only; {@link #RETURNED} can add the
+ * bookings moved to {@code bookings_archive} ({@code includeArchived}), the others refuse that flag.
+ * Bookings exported from the archive to cold storage are in no report; see {@code /api/reports/history}.
+ */
 public enum BookingReportType {
     ALL,
     ACTIVE,
@@ -7,5 +12,9 @@ public enum BookingReportType {
     FINES,
     UNPAID_FINES,
     DUE_SOON,
-    HEAVY_USERS
+    HEAVY_USERS;
+
+    public boolean supportsArchive() {
+        return this == RETURNED;
+    }
 }
@@ -0,0 +1,16 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDateTime;
+
+public record CatalogSnapshotStatsDto(
+        boolean enabled,
+        int books,
+        int authors,
+        LocalDateTime snapshotCreatedAt,
+        LocalDateTime lastFullRefresh,
+        long oldestPendingChangeMillis,
+        long incrementalRefreshes,
+        long snapshotReads,
+        long databaseReads
+) {
+}
@@ -0,0 +1,24 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Circulation over the bookings borrowed in {@code year} that are kept in cold storage.
+ * {@code segmentsScanned}, {@code rowsScanned} and {@code elapsedMillis} show what the scan cost.
+ */
+public record CirculationStatsDto(
+        int year,
+        long loans,
+        long distinctUsers,
+        long distinctBooks,
+        long lateReturns,
+        double averageLoanDays,
+        BigDecimal fines,
+        List<MonthlyCirculationDto> byMonth,
+        List<BookLoansDto> topBooks,
+        int segmentsScanned,
+        long rowsScanned,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,14 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDateTime;
+
+public record ColdStorageStatsDto(
+        boolean enabled,
+        int segments,
+        long bookings,
+        long bytes,
+        long exported,
+        long lastExportMillis,
+        LocalDateTime lastExportAt
+) {
+}
@@ -0,0 +1,16 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public record ConnectionPoolStatsDto(
+        String pool,
+        int active,
+        int idle,
+        int waiting,
+        int maxSize,
+        long acquisitions,
+        long averageAcquireMillis,
+        long maxAcquireMillis,
+        long acquireTimeouts,
+        long averageUsageMillis,
+        long maxUsageMillis
+) {
+}
@@ -0,0 +1,9 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public record DataSourceStatusDto(
+        boolean replicaEnabled,
+        boolean replicaUsable,
+        Long replicaLagSeconds,
+        int stickyUsers
+) {
+}
@@ -0,0 +1,9 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public record FacetCountDto(
+        String value,
+        String label,
+        long count,
+        boolean selected
+) {
+}
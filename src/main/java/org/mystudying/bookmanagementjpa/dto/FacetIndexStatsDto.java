@@ -0,0 +1,15 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDateTime;
+
+public record FacetIndexStatsDto(
+        boolean built,
+        long books,
+        int genres,
+        int decades,
+        LocalDateTime builtAt,
+        long lastRebuildMillis,
+        long appliedUpdates,
+        int pendingUpdates
+) {
+}
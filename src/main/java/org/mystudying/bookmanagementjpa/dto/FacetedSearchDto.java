@@ -0,0 +1,14 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.util.List;
+
+public record FacetedSearchDto(
+        List<BookDto> hits,
+        long totalHits,
+        int page,
+        int size,
+        List<FacetCountDto> genres,
+        List<FacetCountDto> decades,
+        List<FacetCountDto> availability
+) {
+}
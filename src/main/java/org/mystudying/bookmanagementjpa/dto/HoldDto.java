@@ -0,0 +1,17 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import org.mystudying.bookmanagementjpa.domain.HoldStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record HoldDto(
+        long id,
+        long userId,
+        long bookId,
+        HoldStatus status,
+        Long queuePosition,
+        LocalDateTime createdAt,
+        LocalDate pickupDeadline
+) {
+}
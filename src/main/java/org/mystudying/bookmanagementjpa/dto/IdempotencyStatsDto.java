@@ -0,0 +1,11 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public record IdempotencyStatsDto(
+        boolean enabled,
+        String store,
+        long storedKeys,
+        long replays,
+        long inProgressRejections,
+        long mismatchRejections
+) {
+}
@@ -0,0 +1,10 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.YearMonth;
+
+public record MonthlyCirculationDto(
+        YearMonth month,
+        long loans,
+        long lateReturns
+) {
+}
@@ -0,0 +1,15 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.util.Map;
+
+/**
+ * @param recovered calls that succeeded on a retry
+ * @param exhausted calls that still conflicted after the last attempt (answered with 409)
+ */
+public record OptimisticLockStatsDto(
+        long conflicts,
+        long recovered,
+        long exhausted,
+        Map<String, Long> conflictsByMethod
+) {
+}
@@ -0,0 +1,14 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDateTime;
+
+public record OutboxStatsDto(
+        long backlog,
+        LocalDateTime oldestPendingCreatedAt,
+        long published,
+        long failedDeliveries,
+        long lastBatchSize,
+        long lastBatchMillis,
+        LocalDateTime backoffUntil
+) {
+}
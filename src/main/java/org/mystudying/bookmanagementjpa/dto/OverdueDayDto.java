@@ -0,0 +1,9 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDate;
+
+public record OverdueDayDto(
+        LocalDate dueAt,
+        long bookings
+) {
+}
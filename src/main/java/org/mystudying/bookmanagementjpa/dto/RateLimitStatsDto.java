@@ -0,0 +1,14 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.util.Map;
+
+/**
+ * @param rejected rejections per {@code <rule>.<scope>}, scope being user, ip or global
+ */
+public record RateLimitStatsDto(
+        boolean enabled,
+        int trackedBuckets,
+        long allowed,
+        Map<String, Long> rejected
+) {
+}
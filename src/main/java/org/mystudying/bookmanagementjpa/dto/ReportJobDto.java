@@ -0,0 +1,19 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDateTime;
+
+public record ReportJobDto(
+        String id,
+        BookingReportType type,
+        Integer days,
+        Long minActiveBooks,
+        boolean includeArchived,
+        ReportJobStatus status,
+        long rows,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt,
+        LocalDateTime expiresAt,
+        String resultUrl,
+        String error
+) {
+}
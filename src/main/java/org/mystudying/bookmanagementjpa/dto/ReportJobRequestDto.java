@@ -0,0 +1,15 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Parameters of a report job; equal requests share one job.
+ */
+public record ReportJobRequestDto(
+        @NotNull(message = "Report type is required.") BookingReportType type,
+        @Positive(message = "Days must be positive.") Integer days,
+        @Positive(message = "Minimum active books must be positive.") Long minActiveBooks,
+        boolean includeArchived
+) {
+}
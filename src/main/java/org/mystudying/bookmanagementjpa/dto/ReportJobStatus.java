@@ -0,0 +1,8 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,11 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+/**
+ * {@code title} is null when the book is not in the catalog snapshot (disabled or not loaded yet).
+ */
+public record TrendingBookDto(
+        long bookId,
+        String title,
+        long rents
+) {
+}
@@ -0,0 +1,15 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Most rented books since {@code since}, as of {@code refreshedAt} (at most a second old).
+ */
+public record TrendingBooksDto(
+        TrendingWindow window,
+        LocalDateTime since,
+        LocalDateTime refreshedAt,
+        List<TrendingBookDto> books
+) {
+}
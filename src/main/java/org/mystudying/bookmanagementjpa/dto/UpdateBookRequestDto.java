@@ -20,7 +20,10 @@ public record UpdateBookRequestDto(
 
         @NotNull(message = "Available count cannot be null")
         @Min(value = 0, message = "Available count cannot be negative")
-        Integer available
+        Integer available,
+
+        // Version the client edited (from the book details); null skips the check
+        Long version
 ) {
 }
 
@@ -0,0 +1,14 @@
+package org.mystudying.bookmanagementjpa.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Unpaid fines of a user; {@code updatedAt} is null when there was never a fine.
+ */
+public record UserBalanceDto(
+        long userId,
+        BigDecimal balance,
+        LocalDateTime updatedAt
+) {
+}
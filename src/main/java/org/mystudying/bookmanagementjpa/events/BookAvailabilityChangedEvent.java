@@ -0,0 +1,4 @@
+package org.mystudying.bookmanagementjpa.events;
+
+public record BookAvailabilityChangedEvent(long bookId, int available) {
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.events;
+
+public enum CatalogAggregate {
+    BOOKS,
+    AUTHORS,
+    GENRES
+}
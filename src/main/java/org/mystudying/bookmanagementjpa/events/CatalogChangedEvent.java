@@ -0,0 +1,8 @@
+package org.mystudying.bookmanagementjpa.events;
+
+/**
+ * Published by the services whenever catalog data changes. Listeners that need the committed
+ * state should use {@code @TransactionalEventListener} (after commit).
+ */
+public record CatalogChangedEvent(CatalogAggregate aggregate, long id) {
+}
@@ -0,0 +1,9 @@
+package org.mystudying.bookmanagementjpa.events;
+
+import java.util.Set;
+
+/**
+ * The catalog snapshot now reflects changes to these aggregates.
+ */
+public record CatalogSnapshotRefreshedEvent(Set<CatalogAggregate> aggregates) {
+}
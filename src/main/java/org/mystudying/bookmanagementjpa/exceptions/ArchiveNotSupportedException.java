@@ -0,0 +1,10 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+import org.mystudying.bookmanagementjpa.dto.BookingReportType;
+
+public class ArchiveNotSupportedException extends RuntimeException {
+    public ArchiveNotSupportedException(BookingReportType type) {
+        super("Report type " + type + " covers bookings not yet archived only; includeArchived is supported for "
+                + BookingReportType.RETURNED + ".");
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class BookAvailableForRentException extends RuntimeException {
+    public BookAvailableForRentException(long bookId) {
+        super("Book with id " + bookId + " is available, rent it instead of placing a hold.");
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class BookVersionConflictException extends RuntimeException {
+    public BookVersionConflictException(long bookId) {
+        super("Book with id " + bookId + " was changed by someone else. Reload it and try again.");
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class HoldAlreadyExistsException extends RuntimeException {
+    public HoldAlreadyExistsException(long userId, long bookId) {
+        super("User with id " + userId + " already has a hold on book with id " + bookId + "!");
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class HoldNotFoundException extends RuntimeException {
+    public HoldNotFoundException(long userId, long bookId) {
+        super("Hold not found. User id: " + userId + ", book id: " + bookId);
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class ReportCancelledException extends RuntimeException {
+    public ReportCancelledException() {
+        super("The report was cancelled.");
+    }
+}
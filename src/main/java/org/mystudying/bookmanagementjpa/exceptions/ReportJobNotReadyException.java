@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class ReportJobNotReadyException extends RuntimeException {
+    public ReportJobNotReadyException(String id) {
+        super("Report job has no result yet. Id: " + id);
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class TooManyReportJobsException extends RuntimeException {
+    public TooManyReportJobsException(int limit) {
+        super("Too many report jobs waiting (limit " + limit + "). Try again later.");
+    }
+}
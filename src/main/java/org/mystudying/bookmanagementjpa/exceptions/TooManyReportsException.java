@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class TooManyReportsException extends RuntimeException {
+    public TooManyReportsException(int limit) {
+        super("Too many reports waiting (limit " + limit + "). Try again later.");
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.exceptions;
+
+public class TooManySubscribersException extends RuntimeException {
+    public TooManySubscribersException(int limit) {
+        super("Too many open availability streams (limit " + limit + "). Try again later.");
+    }
+}
@@ -2,7 +2,7 @@ package org.mystudying.bookmanagementjpa.exceptions;
 
 public class UserHasBookingsException extends RuntimeException {
     public UserHasBookingsException(long userId) {
-        super("Cannot delete user with ID '" + userId + "' because they have active bookings.");
+        super("Cannot delete user with ID '" + userId + "' because bookings or fines still refer to them.");
     }
 }
 
@@ -0,0 +1,48 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.mystudying.bookmanagementjpa.domain.ArchivedBooking;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @EntityGraph(ArchivedBooking.WITH_BOOK)
+    @Query("SELECT b FROM ArchivedBooking b WHERE b.user.id = :userId")
+    List<ArchivedBooking> findAllByUserIdWithBooks(@Param("userId") Long userId);
+
+    boolean existsByUser_Id(Long userId);
+
+    boolean existsByBook_Id(Long bookId);
+
+    // --- Archival, one batch per transaction ---
+
+    /**
+     * Returned bookings before {@code cutoff} with no fine left to pay. Rows locked by a running
+     * rent / return / payment are skipped rather than waited for.
+     */
+    @Query(value = "SELECT id FROM bookings WHERE returned_at < :cutoff AND (fine IS NULL OR fine = 0 OR fine_paid) " +
+                   "ORDER BY returned_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("cutoff") LocalDate cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive " +
+                   "(id, user_id, book_id, copy_id, borrowed_at, due_at, returned_at, fine, fine_paid, archived_at) " +
+                   "SELECT id, user_id, book_id, copy_id, borrowed_at, due_at, returned_at, fine, fine_paid, :now " +
+                   "FROM bookings WHERE id IN :ids",
+           nativeQuery = true)
+    int copyFromBookings(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM bookings WHERE id IN :ids", nativeQuery = true)
+    int deleteFromBookings(@Param("ids") List<Long> ids);
+}
@@ -1,10 +1,16 @@
 package org.mystudying.bookmanagementjpa.repositories;
 
 import org.mystudying.bookmanagementjpa.domain.Author;
+import org.mystudying.bookmanagementjpa.dto.AuthorDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
     Optional<Author> findByName(String name);
+
+    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.AuthorDto(a.id, a.name, a.birthdate) FROM Author a ORDER BY a.name")
+    List<AuthorDto> findAllAsDto();
 }
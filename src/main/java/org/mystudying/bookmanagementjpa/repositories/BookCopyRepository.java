@@ -0,0 +1,58 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.mystudying.bookmanagementjpa.domain.BookCopy;
+import org.mystudying.bookmanagementjpa.domain.CopyStatus;
+import org.mystudying.bookmanagementjpa.dto.BookAvailabilityDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    /**
+     * Locks one free copy; copies locked by concurrent renters are skipped instead of waited for.
+     */
+    @Query(value = "SELECT * FROM book_copies WHERE book_id = :bookId AND status = 'AVAILABLE' " +
+            "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<BookCopy> claimAvailable(@Param("bookId") long bookId);
+
+    long countByBook_IdAndStatus(Long bookId, CopyStatus status);
+
+    /**
+     * Books without a copy in that status are missing from the result.
+     */
+    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.BookAvailabilityDto(c.book.id, CAST(COUNT(c) AS Integer)) " +
+           "FROM BookCopy c WHERE c.book.id IN :bookIds AND c.status = :status GROUP BY c.book.id")
+    List<BookAvailabilityDto> countByBookIdsAndStatus(@Param("bookIds") Collection<Long> bookIds,
+                                                      @Param("status") CopyStatus status);
+
+    Optional<BookCopy> findByHold_Id(Long holdId);
+
+    /**
+     * ON_LOAN copies whose booking was returned and RESERVED copies whose hold is no longer READY,
+     * e.g. after running in counter mode for a while.
+     */
+    @Modifying
+    @Query(value = "UPDATE book_copies c SET c.status = 'AVAILABLE', c.hold_id = NULL WHERE c.book_id = :bookId AND (" +
+            "(c.status = 'ON_LOAN' AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.copy_id = c.id AND b.returned_at IS NULL)) OR " +
+            "(c.status = 'RESERVED' AND NOT EXISTS (SELECT 1 FROM holds h WHERE h.id = c.hold_id AND h.status = 'READY')))",
+            nativeQuery = true)
+    int shelveOrphanedCopies(@Param("bookId") long bookId);
+
+    /**
+     * Refreshes the cached {@code books.available} from the copies. Books whose count changes get a new
+     * version, as any other write of the book.
+     */
+    @Modifying
+    @Query(value = "UPDATE books b SET b.version = b.version + 1, b.available = (SELECT COUNT(*) FROM book_copies c " +
+            "WHERE c.book_id = b.id AND c.status = 'AVAILABLE') WHERE b.id IN :bookIds AND b.available <> " +
+            "(SELECT COUNT(*) FROM book_copies c WHERE c.book_id = b.id AND c.status = 'AVAILABLE')", nativeQuery = true)
+    int refreshAvailableCounts(@Param("bookIds") List<Long> bookIds);
+}
@@ -4,54 +4,79 @@ import jakarta.persistence.LockModeType;
 import org.mystudying.bookmanagementjpa.domain.Author;
 import org.mystudying.bookmanagementjpa.domain.Book;
 import org.mystudying.bookmanagementjpa.dto.BookDetailDto;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookSearchRepository {
 
-    List<Book> findByYear(int year);
+    /*
+     * List endpoints read BookDto projections: only the four columns are selected and no managed
+     * Book (with its dirty-checking snapshot) is created per row.
+     */
+    String BOOK_DTO = "SELECT new org.mystudying.bookmanagementjpa.dto.BookDto(b.id, b.title, b.year, b.available) ";
 
-    List<Book> findByAuthor_Id(Long authorId);
+    @Query(BOOK_DTO + "FROM Book b ORDER BY b.title")
+    List<BookDto> findAllAsDto();
 
-    List<Book> findByGenres_Id(Long genreId);
+    @Query(BOOK_DTO + "FROM Book b WHERE b.id IN :ids")
+    List<BookDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
 
+    @Query(BOOK_DTO + "FROM Book b WHERE b.author.id = :authorId")
+    List<BookDto> findByAuthor_Id(@Param("authorId") Long authorId);
 
+    @Query(BOOK_DTO + "FROM Book b JOIN b.genres g WHERE g.id = :genreId")
+    List<BookDto> findByGenres_Id(@Param("genreId") Long genreId);
 
-
-    List<Book> findByGenres_NameIgnoreCase(String name);
-
-
-
-    @Query("SELECT b FROM Book b JOIN b.author a WHERE a.name = :authorName ORDER BY b.title")
-    List<Book> findByAuthorName(@Param("authorName") String authorName);
-
-    @Query("SELECT b FROM Book b WHERE (:available = true AND b.available > 0) OR (:available = false AND b.available = 0) ORDER BY b.title")
-    List<Book> findByAvailability(@Param("available") boolean available);
+    @Query(BOOK_DTO + "FROM Book b JOIN b.genres g WHERE LOWER(g.name) = LOWER(:name)")
+    List<BookDto> findByGenres_NameIgnoreCase(@Param("name") String name);
 
     Optional<Book> findByTitle(String title);
 
-    @Query("SELECT b FROM Book b JOIN b.bookings bk WHERE bk.user.id = :userId AND bk.returnedAt IS NULL ORDER BY b.title")
-    List<Book> findBooksByUserId(@Param("userId") long userId);
+    @Query(BOOK_DTO + "FROM Book b JOIN b.bookings bk WHERE bk.user.id = :userId AND bk.returnedAt IS NULL ORDER BY b.title")
+    List<BookDto> findBooksByUserId(@Param("userId") long userId);
+
+    @Query("SELECT b.id FROM Book b ORDER BY b.id")
+    List<Long> findAllIds();
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT b FROM Book b WHERE b.id = :id")
     Optional<Book> findAndLockById(@Param("id") long id);
 
-    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.BookDetailDto(b.id, b.title, b.year, b.available, a.name, a.id) " +
+    /**
+     * Row lock for work that does not change the book itself but must still conflict with
+     * optimistic writers of it (placing a hold).
+     */
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findAndLockWithVersionIncrementById(@Param("id") long id);
+
+    /**
+     * Takes one free copy off the counter in a single statement; 0 when there was none. Bumps the
+     * version, so optimistic writers of the book still conflict with it.
+     */
+    @Modifying
+    @Query(value = "UPDATE books SET available = available - 1, version = version + 1 WHERE id = :id AND available > 0",
+           nativeQuery = true)
+    int takeAvailable(@Param("id") long id);
+
+    @Modifying
+    @Query(value = "UPDATE books SET available = available + 1, version = version + 1 WHERE id = :id",
+           nativeQuery = true)
+    int putBackAvailable(@Param("id") long id);
+
+    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.BookDetailDto(b.id, b.title, b.year, b.available, a.name, a.id, b.version) " +
            "FROM Book b JOIN b.author a WHERE b.id = :id")
     Optional<BookDetailDto> findBookDetailsById(@Param("id") long id);
 
 
-    List<Book> findByTitleContainingOrderByTitle(String title);
-
-    @Query("SELECT b FROM Book b JOIN b.author a WHERE a.name LIKE %:authorName% ORDER BY b.title")
-    List<Book> findByAuthorNameContaining(@Param("authorName") String authorName);
-
     boolean existsByAuthor(Author  author);
 
 
@@ -0,0 +1,21 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Specification queries that select straight into {@link BookDto}
+ * (JpaSpecificationExecutor can only return entities).
+ */
+public interface BookSearchRepository {
+
+    Page<BookDto> searchDtos(Specification<Book> spec, Pageable pageable);
+
+    List<BookDto> searchDtos(Specification<Book> spec, Sort sort);
+}
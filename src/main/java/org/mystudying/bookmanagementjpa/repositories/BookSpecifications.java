@@ -0,0 +1,77 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.domain.Genre;
+import org.mystudying.bookmanagementjpa.dto.BookSearchCriteria;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Predicates for the combined book search. Each one maps onto a plain column condition so the
+ * whole filter ends up in a single WHERE clause.
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> matching(BookSearchCriteria criteria) {
+        Specification<Book> spec = Specification.where(null);
+        if (criteria.available() != null) {
+            spec = spec.and(available(criteria.available()));
+        }
+        if (criteria.yearFrom() != null) {
+            spec = spec.and((book, query, cb) -> cb.greaterThanOrEqualTo(book.get("year"), criteria.yearFrom()));
+        }
+        if (criteria.yearTo() != null) {
+            spec = spec.and((book, query, cb) -> cb.lessThanOrEqualTo(book.get("year"), criteria.yearTo()));
+        }
+        if (criteria.genreIds() != null && !criteria.genreIds().isEmpty()) {
+            spec = spec.and(inAnyGenre(criteria.genreIds()));
+        }
+        if (criteria.title() != null) {
+            spec = spec.and(contains("title", criteria.title()));
+        }
+        if (criteria.authorName() != null) {
+            spec = spec.and((book, query, cb) -> cb.equal(book.get("author").get("name"), criteria.authorName()));
+        }
+        if (criteria.authorNameContains() != null) {
+            spec = spec.and((book, query, cb) ->
+                    cb.like(book.get("author").get("name"), likePattern(criteria.authorNameContains()), '\\'));
+        }
+        return spec;
+    }
+
+    static Specification<Book> available(boolean available) {
+        return (book, query, cb) -> available
+                ? cb.greaterThan(book.get("available"), 0)
+                : cb.equal(book.get("available"), 0);
+    }
+
+    /**
+     * Semi-join on book_genres: a book in several of the requested genres still comes back once,
+     * without DISTINCT on the outer query.
+     */
+    static Specification<Book> inAnyGenre(Collection<Long> genreIds) {
+        return (book, query, cb) -> {
+            Subquery<Long> inGenres = query.subquery(Long.class);
+            Root<Book> tagged = inGenres.from(Book.class);
+            Join<Book, Genre> genre = tagged.join("genres");
+            inGenres.select(tagged.get("id")).where(genre.get("id").in(genreIds));
+            return book.get("id").in(inGenres);
+        };
+    }
+
+    static Specification<Book> contains(String attribute, String fragment) {
+        return (book, query, cb) -> cb.like(book.get(attribute), likePattern(fragment), '\\');
+    }
+
+    private static String likePattern(String fragment) {
+        String escaped = fragment.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -1,10 +1,14 @@
 package org.mystudying.bookmanagementjpa.repositories;
 
+import jakarta.persistence.QueryHint;
 import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,54 +17,137 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, ReturnedBookingReportRepository {
     
     List<Booking> findByUserId(Long userId);
     
     List<Booking> findByBookId(Long bookId);
     
-    @Query("SELECT b FROM Booking b JOIN FETCH b.book bk WHERE b.user.id = :userId")
+    @EntityGraph(Booking.WITH_BOOK)
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId")
     List<Booking> findAllByUserIdWithBooks(@Param("userId") Long userId);
 
-    @Query("SELECT b FROM Booking b JOIN FETCH b.book bk WHERE b.user.id = :userId AND b.returnedAt IS NULL")
-    List<Booking> findActiveBookingsWithBooksByUserId(@Param("userId") Long userId);
+    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.BookDto(bk.id, bk.title, bk.year, bk.available) " +
+           "FROM Booking b JOIN b.book bk WHERE b.user.id = :userId AND b.returnedAt IS NULL")
+    List<BookDto> findActiveBooksByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT b FROM Booking b JOIN FETCH b.book bk WHERE b.user.id = :userId AND bk.id = :bookId AND b.returnedAt IS NULL")
+    @EntityGraph(Booking.WITH_BOOK)
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.book.id = :bookId AND b.returnedAt IS NULL")
     Optional<Booking> findActiveBooking(@Param("userId") Long userId, @Param("bookId") Long bookId);
 
+    boolean existsByUser_Id(Long userId);
+
+    /**
+     * Same rule as {@link Booking#isExpired()}: still out and due before {@code today}.
+     */
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.user.id = :userId AND b.returnedAt IS NULL AND b.dueAt < :today")
+    boolean existsOverdueByUserId(@Param("userId") long userId, @Param("today") LocalDate today);
+
+    @Query("SELECT b FROM Booking b WHERE b.book.id = :bookId AND b.returnedAt IS NULL AND b.copy IS NULL")
+    List<Booking> findActiveWithoutCopy(@Param("bookId") Long bookId);
+
     // --- Reports with pagination and eager fetching ---
+    // Timeouts per query class (milliseconds, applied to the count query too): plain filters on
+    // indexed columns should be fast, the fine and heavy-user reports scan and aggregate more.
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book",
+    String QUERY_TIMEOUT = "jakarta.persistence.query.timeout";
+    String LISTING_TIMEOUT_MS = "10000";
+    String AGGREGATE_TIMEOUT_MS = "30000";
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b",
            countQuery = "SELECT COUNT(b) FROM Booking b")
     Page<Booking> findAllWithDetails(Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book WHERE b.returnedAt IS NULL",
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b WHERE b.returnedAt IS NULL",
            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.returnedAt IS NULL")
     Page<Booking> findActiveWithDetails(Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book WHERE b.returnedAt IS NOT NULL",
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b WHERE b.returnedAt IS NOT NULL",
            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.returnedAt IS NOT NULL")
     Page<Booking> findReturnedWithDetails(Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book WHERE b.fine > 0 OR (b.returnedAt IS NULL AND b.dueAt < :now)",
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = AGGREGATE_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b WHERE b.fine > 0 OR (b.returnedAt IS NULL AND b.dueAt < :now)",
            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.fine > 0 OR (b.returnedAt IS NULL AND b.dueAt < :now)")
     Page<Booking> findWithActualOrPotentialFines(@Param("now") LocalDate now, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book WHERE (b.fine > 0 AND b.finePaid = false) OR (b.returnedAt IS NULL AND b.dueAt < :now)",
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = AGGREGATE_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b WHERE (b.fine > 0 AND b.finePaid = false) OR (b.returnedAt IS NULL AND b.dueAt < :now)",
            countQuery = "SELECT COUNT(b) FROM Booking b WHERE (b.fine > 0 AND b.finePaid = false) OR (b.returnedAt IS NULL AND b.dueAt < :now)")
     Page<Booking> findWithUnpaidActualOrPotentialFines(@Param("now") LocalDate now, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book WHERE b.returnedAt IS NULL AND b.dueAt < :date",
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b WHERE b.returnedAt IS NULL AND b.dueAt < :date",
            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.returnedAt IS NULL AND b.dueAt < :date")
     Page<Booking> findOverdueWithDetails(@Param("date") LocalDate date, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book WHERE b.returnedAt IS NULL AND b.dueAt BETWEEN :now AND :futureDate",
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b WHERE b.returnedAt IS NULL AND b.dueAt BETWEEN :now AND :futureDate",
            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.returnedAt IS NULL AND b.dueAt BETWEEN :now AND :futureDate")
     Page<Booking> findDueSoonWithDetails(@Param("now") LocalDate now, @Param("futureDate") LocalDate futureDate, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.book WHERE b.user.id IN " +
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = AGGREGATE_TIMEOUT_MS))
+    @Query(value = "SELECT b FROM Booking b WHERE b.user.id IN " +
                    "(SELECT b2.user.id FROM Booking b2 WHERE b2.returnedAt IS NULL GROUP BY b2.user.id HAVING COUNT(b2) > :count)",
            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.user.id IN " +
                         "(SELECT b2.user.id FROM Booking b2 WHERE b2.returnedAt IS NULL GROUP BY b2.user.id HAVING COUNT(b2) > :count)")
     Page<Booking> findBookingsForHeavyUsers(@Param("count") Long count, Pageable pageable);
+
+    // --- The same reports as keyset chunks for exports: rows with id above afterId, in id order,
+    // first pageable.getPageSize() of them; no count, and no offset that grows with the export.
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId ORDER BY b.id")
+    List<Booking> findAllWithDetailsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId AND b.returnedAt IS NULL ORDER BY b.id")
+    List<Booking> findActiveWithDetailsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId AND b.returnedAt IS NOT NULL ORDER BY b.id")
+    List<Booking> findReturnedWithDetailsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = AGGREGATE_TIMEOUT_MS))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId " +
+           "AND (b.fine > 0 OR (b.returnedAt IS NULL AND b.dueAt < :now)) ORDER BY b.id")
+    List<Booking> findWithActualOrPotentialFinesAfter(@Param("now") LocalDate now, @Param("afterId") long afterId,
+                                                       Pageable pageable);
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = AGGREGATE_TIMEOUT_MS))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId " +
+           "AND ((b.fine > 0 AND b.finePaid = false) OR (b.returnedAt IS NULL AND b.dueAt < :now)) ORDER BY b.id")
+    List<Booking> findWithUnpaidActualOrPotentialFinesAfter(@Param("now") LocalDate now, @Param("afterId") long afterId,
+                                                             Pageable pageable);
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = LISTING_TIMEOUT_MS))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId " +
+           "AND b.returnedAt IS NULL AND b.dueAt BETWEEN :now AND :futureDate ORDER BY b.id")
+    List<Booking> findDueSoonWithDetailsAfter(@Param("now") LocalDate now, @Param("futureDate") LocalDate futureDate,
+                                              @Param("afterId") long afterId, Pageable pageable);
+
+    @EntityGraph(Booking.REPORT_ROW)
+    @QueryHints(@QueryHint(name = QUERY_TIMEOUT, value = AGGREGATE_TIMEOUT_MS))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId AND b.user.id IN " +
+           "(SELECT b2.user.id FROM Booking b2 WHERE b2.returnedAt IS NULL GROUP BY b2.user.id HAVING COUNT(b2) > :count) " +
+           "ORDER BY b.id")
+    List<Booking> findBookingsForHeavyUsersAfter(@Param("count") Long count, @Param("afterId") long afterId,
+                                                 Pageable pageable);
 }
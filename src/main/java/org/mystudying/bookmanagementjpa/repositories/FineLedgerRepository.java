@@ -0,0 +1,15 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.mystudying.bookmanagementjpa.domain.FineLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FineLedgerRepository extends JpaRepository<FineLedgerEntry, Long> {
+
+    List<FineLedgerEntry> findByUserIdOrderById(long userId);
+
+    boolean existsByUserId(long userId);
+}
@@ -1,6 +1,8 @@
 package org.mystudying.bookmanagementjpa.repositories;
 
 import org.mystudying.bookmanagementjpa.domain.Genre;
+import org.mystudying.bookmanagementjpa.dto.GenreDto;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,10 +15,14 @@ import java.util.Optional;
 public interface GenreRepository extends JpaRepository<Genre, Long> {
     Optional<Genre> findByNameIgnoreCase(String name);
 
+    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.GenreDto(g.id, g.name) FROM Genre g ORDER BY g.name")
+    List<GenreDto> findAllAsDto();
+
     @Query("SELECT g.name FROM Genre g JOIN g.books b WHERE b.id = :bookId")
     List<String> findNamesByBookId(@Param("bookId") long bookId);
 
-    @Query("SELECT DISTINCT g FROM Genre g LEFT JOIN FETCH g.books b ORDER BY g.name")
+    @EntityGraph(Genre.WITH_BOOKS)
+    @Query("SELECT g FROM Genre g ORDER BY g.name")
     List<Genre> findAllWithBooks();
 
     boolean existsByNameIgnoreCase(String name);
@@ -0,0 +1,46 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.mystudying.bookmanagementjpa.domain.Hold;
+import org.mystudying.bookmanagementjpa.domain.HoldStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    @Query("SELECT h FROM Hold h WHERE h.user.id = :userId AND h.book.id = :bookId AND h.status IN :statuses")
+    Optional<Hold> findByUserAndBookAndStatusIn(@Param("userId") long userId, @Param("bookId") long bookId,
+                                                @Param("statuses") Collection<HoldStatus> statuses);
+
+    @Query("SELECT h FROM Hold h WHERE h.user.id = :userId AND h.status IN :statuses ORDER BY h.createdAt")
+    List<Hold> findByUserAndStatusIn(@Param("userId") long userId, @Param("statuses") Collection<HoldStatus> statuses);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Hold h WHERE h.book.id = :bookId AND h.status = 'WAITING' ORDER BY h.id")
+    List<Hold> findQueueHead(@Param("bookId") long bookId, Limit limit);
+
+    @Query("SELECT COUNT(h) FROM Hold h WHERE h.book.id = :bookId AND h.status = 'WAITING' AND h.id < :holdId")
+    long countWaitingAhead(@Param("bookId") long bookId, @Param("holdId") long holdId);
+
+    @Query("SELECT h FROM Hold h WHERE h.book.id = :bookId AND h.status = 'READY' " +
+            "AND NOT EXISTS (SELECT c FROM BookCopy c WHERE c.hold = h)")
+    List<Hold> findReadyWithoutCopy(@Param("bookId") long bookId);
+
+    boolean existsByBook_IdAndStatus(Long bookId, HoldStatus status);
+
+    @Query("SELECT DISTINCT h.book.id FROM Hold h WHERE h.status = 'READY' AND h.pickupDeadline < :today ORDER BY h.book.id")
+    List<Long> findBookIdsWithExpiredReadyHolds(@Param("today") LocalDate today);
+
+    @Query("SELECT h FROM Hold h WHERE h.book.id = :bookId AND h.status = 'READY' AND h.pickupDeadline < :today")
+    List<Hold> findExpiredReadyHolds(@Param("bookId") long bookId, @Param("today") LocalDate today);
+}
@@ -0,0 +1,21 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.mystudying.bookmanagementjpa.dto.BookingReportDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * The {@code RETURNED} report over {@code bookings} and {@code bookings_archive} together
+ * (archived rows are not entities of the booking repository, so the union is plain SQL).
+ */
+public interface ReturnedBookingReportRepository {
+
+    Page<BookingReportDto> findReturnedIncludingArchive(Pageable pageable);
+
+    /**
+     * Up to {@code limit} rows with id above {@code afterId}, in id order; no count.
+     */
+    List<BookingReportDto> findReturnedIncludingArchiveAfter(long afterId, int limit);
+}
@@ -0,0 +1,123 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.mystudying.bookmanagementjpa.dto.BookingReportDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class ReturnedBookingReportRepositoryImpl implements ReturnedBookingReportRepository {
+
+    private static final String COLUMNS = "id, user_id, book_id, borrowed_at, due_at, returned_at, fine, fine_paid";
+    // Both branches are sorted and cut to offset + size before the union, so a page never sorts
+    // either table as a whole; %2$s is the branch ORDER BY, %3$s the outer one
+    private static final String RETURNED = """
+            SELECT b.id, b.user_id, u.name AS user_name, u.email AS user_email, b.book_id, bk.title AS book_title,
+                   b.borrowed_at, b.due_at, b.returned_at, b.fine, b.fine_paid
+            FROM ((SELECT %1$s FROM bookings WHERE returned_at IS NOT NULL ORDER BY %2$s LIMIT :branchLimit)
+                  UNION ALL
+                  (SELECT %1$s FROM bookings_archive ORDER BY %2$s LIMIT :branchLimit)) b
+            JOIN users u ON u.id = b.user_id
+            JOIN books bk ON bk.id = b.book_id
+            ORDER BY %3$s
+            LIMIT :limit OFFSET :offset
+            """;
+    private static final String RETURNED_UNPAGED = """
+            SELECT b.id, b.user_id, u.name AS user_name, u.email AS user_email, b.book_id, bk.title AS book_title,
+                   b.borrowed_at, b.due_at, b.returned_at, b.fine, b.fine_paid
+            FROM (SELECT %1$s FROM bookings WHERE returned_at IS NOT NULL
+                  UNION ALL
+                  SELECT %1$s FROM bookings_archive) b
+            JOIN users u ON u.id = b.user_id
+            JOIN books bk ON bk.id = b.book_id
+            ORDER BY %2$s
+            """;
+    // Each branch is cut to the chunk before the union, so a chunk reads at most 2 x limit rows
+    private static final String RETURNED_AFTER = """
+            SELECT b.id, b.user_id, u.name AS user_name, u.email AS user_email, b.book_id, bk.title AS book_title,
+                   b.borrowed_at, b.due_at, b.returned_at, b.fine, b.fine_paid
+            FROM ((SELECT %1$s FROM bookings WHERE returned_at IS NOT NULL AND id > :afterId ORDER BY id LIMIT :limit)
+                  UNION ALL
+                  (SELECT %1$s FROM bookings_archive WHERE id > :afterId ORDER BY id LIMIT :limit)) b
+            JOIN users u ON u.id = b.user_id
+            JOIN books bk ON bk.id = b.book_id
+            ORDER BY b.id
+            LIMIT :limit
+            """.formatted(COLUMNS);
+    private static final String COUNT = "SELECT (SELECT COUNT(*) FROM bookings WHERE returned_at IS NOT NULL) " +
+            "+ (SELECT COUNT(*) FROM bookings_archive)";
+    // Sortable report properties; anything else is ignored, id always breaks ties
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "borrowedAt", "borrowed_at",
+            "dueAt", "due_at",
+            "returnedAt", "returned_at");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    ReturnedBookingReportRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        // Same budget as the listing reports in BookingRepository
+        this.jdbcTemplate.getJdbcTemplate().setQueryTimeout(Integer.parseInt(BookingRepository.LISTING_TIMEOUT_MS) / 1000);
+    }
+
+    @Override
+    public Page<BookingReportDto> findReturnedIncludingArchive(Pageable pageable) {
+        List<BookingReportDto> rows;
+        if (pageable.isPaged()) {
+            String sql = RETURNED.formatted(COLUMNS, orderBy(pageable.getSort(), ""), orderBy(pageable.getSort(), "b."));
+            rows = jdbcTemplate.query(sql, Map.of(
+                    "branchLimit", pageable.getOffset() + pageable.getPageSize(),
+                    "limit", pageable.getPageSize(),
+                    "offset", pageable.getOffset()), this::toReportDto);
+        } else {
+            String sql = RETURNED_UNPAGED.formatted(COLUMNS, orderBy(pageable.getSort(), "b."));
+            rows = jdbcTemplate.query(sql, this::toReportDto);
+        }
+        return PageableExecutionUtils.getPage(rows, pageable,
+                () -> jdbcTemplate.getJdbcTemplate().queryForObject(COUNT, Long.class));
+    }
+
+    @Override
+    public List<BookingReportDto> findReturnedIncludingArchiveAfter(long afterId, int limit) {
+        return jdbcTemplate.query(RETURNED_AFTER, Map.of("afterId", afterId, "limit", limit), this::toReportDto);
+    }
+
+    private static String orderBy(Sort sort, String alias) {
+        String columns = sort.stream()
+                .filter(order -> SORT_COLUMNS.containsKey(order.getProperty()))
+                .map(order -> alias + SORT_COLUMNS.get(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"))
+                .collect(Collectors.joining(", "));
+        return (columns.isEmpty() ? "" : columns + ", ") + alias + "id";
+    }
+
+    private BookingReportDto toReportDto(ResultSet rs, int rowNum) throws SQLException {
+        LocalDate dueAt = rs.getObject("due_at", LocalDate.class);
+        LocalDate returnedAt = rs.getObject("returned_at", LocalDate.class);
+        BigDecimal fine = rs.getBigDecimal("fine");
+        return new BookingReportDto(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getString("user_name"),
+                rs.getString("user_email"),
+                rs.getLong("book_id"),
+                rs.getString("book_title"),
+                rs.getObject("borrowed_at", LocalDate.class),
+                dueAt,
+                returnedAt,
+                returnedAt.isAfter(dueAt) ? ChronoUnit.DAYS.between(dueAt, returnedAt) : 0,
+                fine == null ? BigDecimal.ZERO : fine,
+                rs.getBoolean("fine_paid"));
+    }
+}
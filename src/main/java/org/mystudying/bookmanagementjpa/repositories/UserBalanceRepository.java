@@ -0,0 +1,36 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.mystudying.bookmanagementjpa.domain.UserBalance;
+import org.mystudying.bookmanagementjpa.dto.UserBalanceDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+
+    // Projections rather than findById: the balance row is changed by native statements, so a managed
+    // UserBalance could be stale within the same persistence context
+
+    @Query("SELECT b.balance FROM UserBalance b WHERE b.userId = :userId")
+    Optional<BigDecimal> findBalance(@Param("userId") long userId);
+
+    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.UserBalanceDto(b.userId, b.balance, b.updatedAt) " +
+           "FROM UserBalance b WHERE b.userId = :userId")
+    Optional<UserBalanceDto> findAsDto(@Param("userId") long userId);
+
+    /**
+     * Adds {@code amount} in one statement (no read-modify-write), creating the row on the first entry.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_balances (user_id, balance, updated_at) VALUES (:userId, :amount, :now) " +
+                   "ON DUPLICATE KEY UPDATE balance = balance + :amount, updated_at = :now",
+           nativeQuery = true)
+    void add(@Param("userId") long userId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+}
@@ -1,7 +1,10 @@
 package org.mystudying.bookmanagementjpa.repositories;
 
+import jakarta.persistence.LockModeType;
 import org.mystudying.bookmanagementjpa.domain.User;
+import org.mystudying.bookmanagementjpa.dto.UserDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -12,6 +15,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByName(String name);
     Optional<User> findByEmail(String email);
 
+    @Query("SELECT new org.mystudying.bookmanagementjpa.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.name")
+    List<UserDto> findAllAsDto();
+
     /**
      * @deprecated Since introduction of Booking entity.
      * Use BookingRepository instead.
@@ -21,9 +27,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u JOIN u.bookings b WHERE b.returnedAt IS NULL GROUP BY u.id HAVING COUNT(b.id) > :count")
     List<User> findUsersWithMoreThanXBooks(@Param("count") long count);
 
-
-    @Query("""
-            SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.bookings b WHERE u.id = :id
-            """)
-    Optional<User> findUserByIdWithBookings(@Param("id") long id);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findAndLockById(@Param("id") long id);
 }
\ No newline at end of file
@@ -1,13 +1,18 @@
 package org.mystudying.bookmanagementjpa.services;
 
 import org.mystudying.bookmanagementjpa.domain.Author;
+import org.mystudying.bookmanagementjpa.dto.AuthorDto;
 import org.mystudying.bookmanagementjpa.dto.CreateAuthorRequestDto;
 import org.mystudying.bookmanagementjpa.dto.UpdateAuthorRequestDto;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
 import org.mystudying.bookmanagementjpa.exceptions.AuthorHasBooksException;
 import org.mystudying.bookmanagementjpa.exceptions.AuthorNotFoundException;
 import org.mystudying.bookmanagementjpa.repositories.AuthorRepository;
 import org.mystudying.bookmanagementjpa.repositories.BookRepository;
-import org.springframework.data.domain.Sort;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogReadModel;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogSnapshot;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,14 +24,21 @@ import java.util.Optional;
 public class AuthorService {
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
+    private final CatalogReadModel catalog;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AuthorService(AuthorRepository authorRepository, BookRepository bookRepository) {
+    public AuthorService(AuthorRepository authorRepository, BookRepository bookRepository, CatalogReadModel catalog,
+                         ApplicationEventPublisher eventPublisher) {
         this.authorRepository = authorRepository;
         this.bookRepository = bookRepository;
+        this.catalog = catalog;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Author> findAll() {
-        return authorRepository.findAll(Sort.by("name"));
+    public List<AuthorDto> findAll() {
+        return catalog.current()
+                .map(CatalogSnapshot::authors)
+                .orElseGet(authorRepository::findAllAsDto);
     }
 
     public Optional<Author> findById(long id) {
@@ -39,7 +51,9 @@ public class AuthorService {
 
     @Transactional
     public Author save(CreateAuthorRequestDto authorDto) {
-        return  authorRepository.save(new Author(null, authorDto.name(), authorDto.birthdate()));
+        var author = authorRepository.save(new Author(null, authorDto.name(), authorDto.birthdate()));
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.AUTHORS, author.getId()));
+        return author;
     }
 
     @Transactional
@@ -48,6 +62,7 @@ public class AuthorService {
         var author =  authorRepository.findById(id).orElseThrow(() -> new AuthorNotFoundException(id));
         author.setName(authorDto.name());
         author.setBirthdate(authorDto.birthdate());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.AUTHORS, id));
 
         return author;
     }
@@ -59,5 +74,6 @@ public class AuthorService {
             throw new AuthorHasBooksException(id);
         }
         authorRepository.deleteById(author.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.AUTHORS, id));
     }
 }
\ No newline at end of file
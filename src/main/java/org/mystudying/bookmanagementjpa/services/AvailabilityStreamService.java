@@ -0,0 +1,155 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mystudying.bookmanagementjpa.dto.BookAvailabilityDto;
+import org.mystudying.bookmanagementjpa.events.BookAvailabilityChangedEvent;
+import org.mystudying.bookmanagementjpa.exceptions.TooManySubscribersException;
+import org.mystudying.bookmanagementjpa.services.inventory.InventoryStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes {@code (bookId, available)} deltas to Server-Sent Events subscribers.
+ * <p>
+ * Changed books are collected after commit and coalesced: a burst of rents on one title becomes a
+ * single delta. The counts are read again when the deltas are sent, not taken from the events, since
+ * transactions may commit (and their events arrive) in a different order than they counted. Every
+ * flush serializes the deltas once and writes them to all open connections from a small fixed set of
+ * single-threaded lanes; connections are async requests, so no thread is held per client.
+ * <p>
+ * Each connection is pinned to one lane when it subscribes, so everything sent to it is written by the
+ * same thread in the order it was broadcast.
+ */
+@Service
+public class AvailabilityStreamService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityStreamService.class);
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000;
+
+    private final Map<SseEmitter, ExecutorService> emitters = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ObjectMapper objectMapper;
+    private final InventoryStrategy inventory;
+    private final TransactionTemplate transactionTemplate;
+    private final List<ExecutorService> lanes = new ArrayList<>();
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private final int maxSubscribers;
+
+    public AvailabilityStreamService(ObjectMapper objectMapper, InventoryStrategy inventory,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.availability-stream.fan-out-threads:4}") int fanOutThreads,
+                                     @Value("${app.availability-stream.max-subscribers:10000}") int maxSubscribers) {
+        this.objectMapper = objectMapper;
+        this.inventory = inventory;
+        // Read-write, so the counts come from the primary rather than a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < Math.max(fanOutThreads, 1); i++) {
+            lanes.add(Executors.newSingleThreadExecutor());
+        }
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public SseEmitter subscribe() {
+        if (emitters.size() >= maxSubscribers) {
+            throw new TooManySubscribersException(maxSubscribers);
+        }
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        try {
+            // flushes the response headers, so EventSource fires "open" right away; sent before the
+            // emitter is registered, so no broadcast can overtake it
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            return emitter;
+        }
+        emitters.put(emitter, lanes.get(Math.floorMod(nextLane.getAndIncrement(), lanes.size())));
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        pending.add(event.bookId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability-stream.flush-interval-ms:250}")
+    public void flush() {
+        if (emitters.isEmpty()) {
+            pending.clear();
+            return;
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> bookIds = new ArrayList<>(pending);
+        pending.removeAll(bookIds);
+        List<BookAvailabilityDto> deltas;
+        try {
+            deltas = transactionTemplate.execute(status -> inventory.availability(bookIds));
+        } catch (RuntimeException e) {
+            pending.addAll(bookIds);
+            log.warn("Reading availability of {} books failed, retrying: {}", bookIds.size(), e.getMessage());
+            return;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(deltas);
+            broadcast(SseEmitter.event().name("availability").data(json, MediaType.APPLICATION_JSON));
+        } catch (JsonProcessingException e) {
+            log.error("Cannot serialize availability deltas", e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 20_000)
+    public void heartbeat() {
+        if (!emitters.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        var data = event.build();
+        Map<ExecutorService, List<SseEmitter>> targets = new HashMap<>();
+        emitters.forEach((emitter, lane) -> targets.computeIfAbsent(lane, l -> new ArrayList<>()).add(emitter));
+        targets.forEach((lane, laneEmitters) -> lane.execute(() -> {
+            for (SseEmitter emitter : laneEmitters) {
+                try {
+                    emitter.send(data);
+                } catch (IOException | IllegalStateException e) {
+                    emitters.remove(emitter);
+                }
+            }
+        }));
+    }
+
+    @Override
+    public void destroy() {
+        emitters.keySet().forEach(SseEmitter::complete);
+        lanes.forEach(ExecutorService::shutdownNow);
+    }
+}
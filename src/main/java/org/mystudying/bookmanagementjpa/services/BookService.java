@@ -1,60 +1,112 @@
 package org.mystudying.bookmanagementjpa.services;
 
 import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.config.retry.RetryOnOptimisticLock;
 import org.mystudying.bookmanagementjpa.dto.BookDetailDto;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.dto.BookSearchCriteria;
 import org.mystudying.bookmanagementjpa.dto.CreateBookRequestDto;
 import org.mystudying.bookmanagementjpa.dto.UpdateBookRequestDto;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
 import org.mystudying.bookmanagementjpa.exceptions.AuthorNotFoundException;
 import org.mystudying.bookmanagementjpa.exceptions.BookHasBookingsException;
 import org.mystudying.bookmanagementjpa.exceptions.BookNotFoundException;
+import org.mystudying.bookmanagementjpa.exceptions.BookVersionConflictException;
+import org.mystudying.bookmanagementjpa.repositories.ArchivedBookingRepository;
 import org.mystudying.bookmanagementjpa.repositories.AuthorRepository;
 import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.mystudying.bookmanagementjpa.repositories.BookSpecifications;
 import org.mystudying.bookmanagementjpa.repositories.GenreRepository;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogReadModel;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogSnapshot;
+import org.mystudying.bookmanagementjpa.services.coldstorage.ColdStorage;
+import org.mystudying.bookmanagementjpa.services.inventory.InventoryStrategy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional(readOnly = true)
 public class BookService {
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("title", "year", "available");
+
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final GenreRepository genreRepository;
-
-    public BookService(BookRepository bookRepository, AuthorRepository authorRepository, GenreRepository genreRepository) {
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ColdStorage coldStorage;
+    private final HoldService holdService;
+    private final InventoryStrategy inventory;
+    private final CatalogReadModel catalog;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookService(BookRepository bookRepository, AuthorRepository authorRepository, GenreRepository genreRepository,
+                       ArchivedBookingRepository archivedBookingRepository, ColdStorage coldStorage, HoldService holdService,
+                       InventoryStrategy inventory, CatalogReadModel catalog, ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.genreRepository = genreRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.coldStorage = coldStorage;
+        this.holdService = holdService;
+        this.inventory = inventory;
+        this.catalog = catalog;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Book> findAll() {
-        return bookRepository.findAll(Sort.by("title"));
+    public List<BookDto> findAll() {
+        return catalog.current()
+                .map(CatalogSnapshot::allBooks)
+                .orElseGet(bookRepository::findAllAsDto);
     }
 
-    public List<Book> findByYear(int year) {
-        return bookRepository.findByYear(year);
+    /**
+     * All filters in one query, unpaged, ordered by title.
+     */
+    public List<BookDto> search(BookSearchCriteria criteria) {
+        if (criteria.isEmpty()) {
+            return findAll();
+        }
+        Optional<CatalogSnapshot> snapshot = catalog.current().filter(current -> current.supports(criteria));
+        if (snapshot.isPresent()) {
+            return snapshot.get().search(criteria);
+        }
+        return bookRepository.searchDtos(BookSpecifications.matching(criteria), Sort.by("title", "id"));
     }
 
-    public List<Book> findByAuthorName(String authorName) {
-        return bookRepository.findByAuthorName(authorName);
+    /**
+     * All filters in one query, one page at a time. Sorting is limited to {@link #SORTABLE_PROPERTIES}
+     * (anything else falls back to title) and always ends on the id so pages don't overlap.
+     */
+    public Page<BookDto> search(BookSearchCriteria criteria, Pageable pageable) {
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .filter(order -> SORTABLE_PROPERTIES.contains(order.getProperty()))
+                .toList());
+        if (sort.isUnsorted()) {
+            sort = Sort.by("title");
+        }
+        Pageable stablePage = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(Sort.by("id")));
+        return bookRepository.searchDtos(BookSpecifications.matching(criteria), stablePage);
     }
 
-    public List<Book> findByAuthorId(long authorId) {
+    public List<BookDto> findByAuthorId(long authorId) {
+        Optional<CatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().booksByAuthor(authorId).orElseThrow(() -> new AuthorNotFoundException(authorId));
+        }
         authorRepository.findById(authorId).orElseThrow(() -> new AuthorNotFoundException(authorId));
         return bookRepository.findByAuthor_Id(authorId);
     }
 
-    public List<Book> findByGenreId(long genreId) {
-        return bookRepository.findByGenres_Id(genreId);
-    }
-
-    public List<Book> findByAvailability(boolean available) {
-        return bookRepository.findByAvailability(available);
-    }
-
     public Optional<Book> findById(long id) {
         return bookRepository.findById(id);
     }
@@ -71,45 +123,57 @@ public class BookService {
         return bookRepository.findByTitle(title);
     }
 
-    public List<Book> findByTitleContaining(String title) {
-        return bookRepository.findByTitleContainingOrderByTitle(title);
-    }
-
-    public List<Book> findByAuthorNameContaining(String authorName) {
-        return bookRepository.findByAuthorNameContaining(authorName);
-    }
-
     @Transactional
     public Book save(CreateBookRequestDto createBookRequestDto) {
         // Validation of Author existence
         var author = authorRepository.findById(createBookRequestDto.authorId())
                 .orElseThrow(() -> new AuthorNotFoundException(createBookRequestDto.authorId()));
         
-       return bookRepository.save(new Book(null, createBookRequestDto.title(), createBookRequestDto.year(),
+       var book = bookRepository.save(new Book(null, createBookRequestDto.title(), createBookRequestDto.year(),
                author, createBookRequestDto.available()));
+       inventory.adjustStock(book, createBookRequestDto.available());
+       eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.BOOKS, book.getId()));
+       return book;
     }
 
+    /**
+     * Optimistic: a concurrent rent or return makes the commit fail on the book version and the update
+     * is re-run on fresh data. A client sending the version it edited gets a conflict instead when the
+     * book has changed since, so a stale {@code available} value never overwrites a newer one.
+     */
     @Transactional
+    @RetryOnOptimisticLock
     public Book update(long id, UpdateBookRequestDto updateBookRequestDto) {
         var book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+        if (updateBookRequestDto.version() != null && updateBookRequestDto.version() != book.getVersion()) {
+            throw new BookVersionConflictException(id);
+        }
         var author = authorRepository.findById(updateBookRequestDto.authorId()).orElseThrow(() ->
                 new AuthorNotFoundException(updateBookRequestDto.authorId()));
 
         book.setTitle(updateBookRequestDto.title());
         book.setYear(updateBookRequestDto.year());
-        book.setAvailable(updateBookRequestDto.available());
+        inventory.adjustStock(book, updateBookRequestDto.available());
         book.setAuthor(author);
+        // New copies are served to waiting holds before they show up as available
+        holdService.allocateAvailableCopies(book);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.BOOKS, id));
 
         return book;
 
     }
 
+    /**
+     * Refused while bookings refer to the book, including archived and exported ones.
+     */
     @Transactional
     public void deleteById(long id) {
         Book book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
-        if (!book.getBookings().isEmpty()) {
+        if (!book.getBookings().isEmpty() || archivedBookingRepository.existsByBook_Id(id)
+                || coldStorage.hasBookingsOfBook(id)) {
             throw new BookHasBookingsException(id);
         }
         bookRepository.delete(book);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.BOOKS, id));
     }
 }
\ No newline at end of file
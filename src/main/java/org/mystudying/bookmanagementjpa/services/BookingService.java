@@ -1,16 +1,22 @@
 package org.mystudying.bookmanagementjpa.services;
 
+import org.mystudying.bookmanagementjpa.config.ReportingWorkload;
 import org.mystudying.bookmanagementjpa.domain.Booking;
 import org.mystudying.bookmanagementjpa.dto.BookingReportDto;
 import org.mystudying.bookmanagementjpa.dto.BookingReportType;
+import org.mystudying.bookmanagementjpa.exceptions.ArchiveNotSupportedException;
 import org.mystudying.bookmanagementjpa.repositories.BookingRepository;
+import org.mystudying.bookmanagementjpa.services.reports.QueryCancellation;
+import org.mystudying.bookmanagementjpa.services.reports.ReportRunner;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
 
 @Service
@@ -18,12 +24,64 @@ import java.util.Objects;
 public class BookingService {
 
     private final BookingRepository bookingRepository;
+    private final ReportRunner reportRunner;
 
-    public BookingService(BookingRepository bookingRepository) {
+    public BookingService(BookingRepository bookingRepository, ReportRunner reportRunner) {
         this.bookingRepository = bookingRepository;
+        this.reportRunner = reportRunner;
     }
 
-    public Page<BookingReportDto> getBookingReport(BookingReportType type, Integer dueSoonDays, Long minActiveBooks, Pageable pageable) {
+    /**
+     * @param includeArchived {@code RETURNED} only: also list bookings moved to the archive (not those
+     *                        exported from there to cold storage)
+     * @param cancellation    lets {@link ReportRunner} kill the query when the client goes away
+     */
+    @ReportingWorkload
+    public Page<BookingReportDto> getBookingReport(BookingReportType type, Integer dueSoonDays, Long minActiveBooks,
+                                                   boolean includeArchived, Pageable pageable,
+                                                   QueryCancellation cancellation) {
+        requireArchiveSupport(type, includeArchived);
+        reportRunner.bindCurrentConnection(cancellation);
+        try {
+            if (type == BookingReportType.RETURNED && includeArchived) {
+                return bookingRepository.findReturnedIncludingArchive(pageable);
+            }
+            return findBookings(type, dueSoonDays, minActiveBooks, pageable).map(this::toReportDto);
+        } finally {
+            cancellation.finish();
+        }
+    }
+
+    /**
+     * The report in id order, {@code limit} rows with id above {@code afterId}: keyset chunks for
+     * exports, which read every row exactly once without counts or growing offsets.
+     *
+     * @param includeArchived {@code RETURNED} only: also list bookings moved to the archive (not those
+     *                        exported from there to cold storage)
+     */
+    @ReportingWorkload
+    public List<BookingReportDto> getBookingReportAfter(BookingReportType type, Integer dueSoonDays,
+                                                        Long minActiveBooks, boolean includeArchived,
+                                                        long afterId, int limit) {
+        requireArchiveSupport(type, includeArchived);
+        if (type == BookingReportType.RETURNED && includeArchived) {
+            return bookingRepository.findReturnedIncludingArchiveAfter(afterId, limit);
+        }
+        return findBookingsAfter(type, dueSoonDays, minActiveBooks, afterId, PageRequest.ofSize(limit)).stream()
+                .map(this::toReportDto)
+                .toList();
+    }
+
+    /**
+     * @throws ArchiveNotSupportedException for {@code includeArchived} on a type that only reads {@code bookings}
+     */
+    public static void requireArchiveSupport(BookingReportType type, boolean includeArchived) {
+        if (includeArchived && !type.supportsArchive()) {
+            throw new ArchiveNotSupportedException(type);
+        }
+    }
+
+    private Page<Booking> findBookings(BookingReportType type, Integer dueSoonDays, Long minActiveBooks, Pageable pageable) {
         Page<Booking> bookings;
         LocalDate now = LocalDate.now();
 
@@ -53,7 +111,23 @@ public class BookingService {
             default:
                 throw new IllegalArgumentException("Unknown report type: " + type);
         }
-        return bookings.map(this::toReportDto);
+        return bookings;
+    }
+
+    private List<Booking> findBookingsAfter(BookingReportType type, Integer dueSoonDays, Long minActiveBooks,
+                                            long afterId, Pageable limit) {
+        LocalDate now = LocalDate.now();
+        return switch (type) {
+            case ALL -> bookingRepository.findAllWithDetailsAfter(afterId, limit);
+            case ACTIVE -> bookingRepository.findActiveWithDetailsAfter(afterId, limit);
+            case RETURNED -> bookingRepository.findReturnedWithDetailsAfter(afterId, limit);
+            case FINES -> bookingRepository.findWithActualOrPotentialFinesAfter(now, afterId, limit);
+            case UNPAID_FINES -> bookingRepository.findWithUnpaidActualOrPotentialFinesAfter(now, afterId, limit);
+            case DUE_SOON -> bookingRepository.findDueSoonWithDetailsAfter(now,
+                    now.plusDays(Objects.requireNonNullElse(dueSoonDays, 3)), afterId, limit);
+            case HEAVY_USERS -> bookingRepository.findBookingsForHeavyUsersAfter(
+                    Objects.requireNonNullElse(minActiveBooks, 2L), afterId, limit);
+        };
     }
 
     private BookingReportDto toReportDto(Booking booking) {
@@ -0,0 +1,113 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import org.mystudying.bookmanagementjpa.config.ReplicaProperties;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogSnapshotRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory modification counters per catalog aggregate, used as ETag / Last-Modified source
+ * so unchanged reference data can be answered with 304 without touching the database.
+ * Counters are bumped after commit; with a read replica they are bumped once more after
+ * the allowed replica lag, and with the catalog snapshot once more when the snapshot has applied
+ * the change, so a stale replica or snapshot read can never stay cached under a fresh tag.
+ * <p>
+ * Single books are tracked in a fixed number of stripes indexed by book id, so the memory used does not
+ * grow with the catalog; books sharing a stripe only cost each other an occasional extra 200.
+ */
+@Component
+public class CatalogVersions {
+
+    private static final int BOOK_STRIPES = 1 << 14;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<CatalogAggregate, AtomicLong> versions = new EnumMap<>(CatalogAggregate.class);
+    private final Map<CatalogAggregate, AtomicLong> lastModified = new EnumMap<>(CatalogAggregate.class);
+    private final AtomicLongArray bookVersions = new AtomicLongArray(BOOK_STRIPES);
+    private final AtomicLongArray bookLastModified = new AtomicLongArray(BOOK_STRIPES);
+    private final TaskScheduler taskScheduler;
+    private final ReplicaProperties replicaProperties;
+
+    public CatalogVersions(TaskScheduler taskScheduler, ReplicaProperties replicaProperties) {
+        this.taskScheduler = taskScheduler;
+        this.replicaProperties = replicaProperties;
+        long now = System.currentTimeMillis();
+        for (CatalogAggregate aggregate : CatalogAggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+            lastModified.put(aggregate, new AtomicLong(now));
+        }
+        for (int stripe = 0; stripe < BOOK_STRIPES; stripe++) {
+            bookLastModified.set(stripe, now);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        bump(event);
+        if (replicaProperties.isEnabled()) {
+            taskScheduler.schedule(() -> bump(event),
+                    Instant.now().plusSeconds(replicaProperties.getMaxLagSeconds()));
+        }
+    }
+
+    @EventListener
+    public void onSnapshotRefreshed(CatalogSnapshotRefreshedEvent event) {
+        event.aggregates().forEach(this::bump);
+    }
+
+    public CatalogVersion current(CatalogAggregate... aggregates) {
+        StringBuilder etag = new StringBuilder("\"").append(epoch);
+        long modified = 0;
+        for (CatalogAggregate aggregate : aggregates) {
+            etag.append('-').append(aggregate.name().charAt(0)).append(versions.get(aggregate).get());
+            modified = Math.max(modified, lastModified.get(aggregate).get());
+        }
+        return new CatalogVersion(etag.append('"').toString(), modified);
+    }
+
+    /**
+     * Version of one book's details: the book's own counter, which every change event of the book
+     * (stock included) moves on, plus the author and genre counters, as their names are part of the details.
+     * Changes to other books leave it alone.
+     */
+    public CatalogVersion book(long bookId) {
+        int stripe = stripe(bookId);
+        String etag = "\"" + epoch + "-b" + bookId + '.' + bookVersions.get(stripe)
+                + "-A" + versions.get(CatalogAggregate.AUTHORS).get()
+                + "-G" + versions.get(CatalogAggregate.GENRES).get() + '"';
+        long modified = Math.max(bookLastModified.get(stripe),
+                Math.max(lastModified.get(CatalogAggregate.AUTHORS).get(), lastModified.get(CatalogAggregate.GENRES).get()));
+        return new CatalogVersion(etag, modified);
+    }
+
+    private void bump(CatalogChangedEvent event) {
+        if (event.aggregate() == CatalogAggregate.BOOKS) {
+            int stripe = stripe(event.id());
+            bookLastModified.set(stripe, System.currentTimeMillis());
+            bookVersions.incrementAndGet(stripe);
+        }
+        bump(event.aggregate());
+    }
+
+    private void bump(CatalogAggregate aggregate) {
+        lastModified.get(aggregate).set(System.currentTimeMillis());
+        versions.get(aggregate).incrementAndGet();
+    }
+
+    private static int stripe(long bookId) {
+        return (int) (bookId & (BOOK_STRIPES - 1));
+    }
+
+    public record CatalogVersion(String etag, long lastModified) {
+    }
+}
@@ -0,0 +1,89 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.domain.FineEntryType;
+import org.mystudying.bookmanagementjpa.domain.FineLedgerEntry;
+import org.mystudying.bookmanagementjpa.dto.UserBalanceDto;
+import org.mystudying.bookmanagementjpa.exceptions.UserNotFoundException;
+import org.mystudying.bookmanagementjpa.repositories.FineLedgerRepository;
+import org.mystudying.bookmanagementjpa.repositories.UserBalanceRepository;
+import org.mystudying.bookmanagementjpa.repositories.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Writes fine movements to the append-only {@code fine_ledger} and keeps {@code user_balances} in step,
+ * always in the caller's transaction, so a balance never disagrees with the ledger.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FineLedgerService {
+
+    private final FineLedgerRepository fineLedgerRepository;
+    private final UserBalanceRepository userBalanceRepository;
+    private final UserRepository userRepository;
+
+    public FineLedgerService(FineLedgerRepository fineLedgerRepository, UserBalanceRepository userBalanceRepository,
+                             UserRepository userRepository) {
+        this.fineLedgerRepository = fineLedgerRepository;
+        this.userBalanceRepository = userBalanceRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * The fine charged for a returned booking, if any.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accrue(Booking booking) {
+        if (booking.getFine().signum() > 0) {
+            record(booking, FineEntryType.ACCRUAL, booking.getFine());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void pay(Booking booking) {
+        record(booking, FineEntryType.PAYMENT, booking.getFine().negate());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void waive(Booking booking) {
+        record(booking, FineEntryType.WAIVER, booking.getFine().negate());
+    }
+
+    /**
+     * One primary-key read; users without a balance row never had a fine.
+     */
+    public boolean hasUnpaidFines(long userId) {
+        return userBalanceRepository.findBalance(userId)
+                .map(balance -> balance.signum() > 0)
+                .orElse(false);
+    }
+
+    /**
+     * Ledger rows are kept for good, even once the bookings they came from have gone to cold storage.
+     */
+    public boolean hasEntries(long userId) {
+        return fineLedgerRepository.existsByUserId(userId);
+    }
+
+    public UserBalanceDto getBalance(long userId) {
+        return userBalanceRepository.findAsDto(userId)
+                .orElseGet(() -> {
+                    if (!userRepository.existsById(userId)) {
+                        throw new UserNotFoundException(userId);
+                    }
+                    return new UserBalanceDto(userId, BigDecimal.ZERO, null);
+                });
+    }
+
+    private void record(Booking booking, FineEntryType type, BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        long userId = booking.getUser().getId();
+        fineLedgerRepository.save(new FineLedgerEntry(userId, booking.getId(), type, amount, now));
+        userBalanceRepository.add(userId, amount, now);
+    }
+}
@@ -6,13 +6,13 @@ import org.mystudying.bookmanagementjpa.dto.GenreWithBooksDto;
 import org.mystudying.bookmanagementjpa.exceptions.GenreNotFoundException;
 import org.mystudying.bookmanagementjpa.repositories.BookRepository;
 import org.mystudying.bookmanagementjpa.repositories.GenreRepository;
-import org.springframework.data.domain.Sort;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogReadModel;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogSnapshot;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -20,16 +20,18 @@ public class GenreService {
 
     private final GenreRepository genreRepository;
     private final BookRepository bookRepository;
+    private final CatalogReadModel catalog;
 
-    public GenreService(GenreRepository genreRepository, BookRepository bookRepository) {
+    public GenreService(GenreRepository genreRepository, BookRepository bookRepository, CatalogReadModel catalog) {
         this.genreRepository = genreRepository;
         this.bookRepository = bookRepository;
+        this.catalog = catalog;
     }
 
     public List<GenreDto> findAll() {
-        return genreRepository.findAll(Sort.by("name")).stream()
-                .map(genre -> new GenreDto(genre.getId(), genre.getName()))
-                .toList();
+        return catalog.current()
+                .map(CatalogSnapshot::genres)
+                .orElseGet(genreRepository::findAllAsDto);
     }
 
     public Optional<GenreDto> findById(long id) {
@@ -41,15 +43,7 @@ public class GenreService {
         if (!genreRepository.existsByNameIgnoreCase(genreName)) {
             throw new GenreNotFoundException(genreName);
         }
-        return bookRepository.findByGenres_NameIgnoreCase(genreName)
-                .stream()
-                .map(book -> new BookDto(
-                        book.getId(),
-                        book.getTitle(),
-                        book.getYear(),
-                        book.getAvailable()
-                        ))
-                .toList();
+        return bookRepository.findByGenres_NameIgnoreCase(genreName);
     }
 
     public List<GenreWithBooksDto> findAllWithBooks() {
@@ -70,10 +64,12 @@ public class GenreService {
     }
 
     public List<BookDto> findBooksByGenreId(long id) {
+        Optional<CatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().booksByGenre(id).orElseThrow(() -> new GenreNotFoundException(id));
+        }
         genreRepository.findById(id)
                 .orElseThrow(() -> new GenreNotFoundException(id));
-        return bookRepository.findByGenres_Id(id).stream()
-                .map(book -> new BookDto(book.getId(), book.getTitle(), book.getYear(), book.getAvailable()))
-                .collect(Collectors.toList());
+        return bookRepository.findByGenres_Id(id);
     }
 }
@@ -0,0 +1,21 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.holds")
+public class HoldProperties {
+
+    /**
+     * Days a copy stays reserved for the head of the queue before the hold expires
+     * and the copy moves on to the next user.
+     */
+    private int pickupDays = 3;
+
+    public int getPickupDays() {
+        return pickupDays;
+    }
+
+    public void setPickupDays(int pickupDays) {
+        this.pickupDays = pickupDays;
+    }
+}
@@ -0,0 +1,215 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.domain.Hold;
+import org.mystudying.bookmanagementjpa.domain.HoldStatus;
+import org.mystudying.bookmanagementjpa.domain.User;
+import org.mystudying.bookmanagementjpa.dto.HoldDto;
+import org.mystudying.bookmanagementjpa.events.BookAvailabilityChangedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.mystudying.bookmanagementjpa.exceptions.*;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.mystudying.bookmanagementjpa.repositories.BookingRepository;
+import org.mystudying.bookmanagementjpa.repositories.HoldRepository;
+import org.mystudying.bookmanagementjpa.repositories.UserRepository;
+import org.mystudying.bookmanagementjpa.services.inventory.InventoryStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Hold (reservation) queue per book.
+ * <p>
+ * Rent and return do not lock the book up front: they change the stock with one conditional
+ * {@code UPDATE} ({@link BookRepository#takeAvailable} / {@link BookRepository#putBackAvailable} in counter
+ * mode), which holds the book row from that statement to commit. Allocation relies on the same statements:
+ * the queue head is read with a write lock ({@link HoldRepository#findQueueHead}), and its copy is taken
+ * with {@link InventoryStrategy#reserve}, which only succeeds while stock is left. Concurrent allocators
+ * therefore serve the queue one hold at a time, strictly in hold id order, and never hand out the same copy
+ * twice; a reserved copy is out of {@code available}, so walk-in renters cannot get it either.
+ * <p>
+ * Placing a hold locks the book row and increments its version, so in counter mode it waits for a loan or
+ * return in flight and cannot miss the copy that return is about to allocate. Cancelling and expiring lock the book row
+ * ({@link BookRepository#findAndLockById}) and release reservations through the same conditional updates.
+ */
+@Service
+@Transactional(readOnly = true)
+public class HoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldService.class);
+    private static final Set<HoldStatus> ACTIVE = EnumSet.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final HoldRepository holdRepository;
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final BookingRepository bookingRepository;
+    private final InventoryStrategy inventory;
+    private final HoldProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public HoldService(HoldRepository holdRepository, UserRepository userRepository, BookRepository bookRepository,
+                       BookingRepository bookingRepository, InventoryStrategy inventory, HoldProperties properties,
+                       ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.holdRepository = holdRepository;
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.bookingRepository = bookingRepository;
+        this.inventory = inventory;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<HoldDto> findActiveHolds(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        return holdRepository.findByUserAndStatusIn(userId, ACTIVE).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    public HoldDto findHold(long userId, long bookId) {
+        return holdRepository.findByUserAndBookAndStatusIn(userId, bookId, ACTIVE)
+                .map(this::toDto)
+                .orElseThrow(() -> new HoldNotFoundException(userId, bookId));
+    }
+
+    @Transactional
+    public HoldDto placeHold(long userId, long bookId) {
+        User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        Book book = bookRepository.findAndLockWithVersionIncrementById(bookId)
+                .orElseThrow(() -> new BookNotFoundException(bookId));
+
+        if (bookingRepository.findActiveBooking(userId, bookId).isPresent()) {
+            throw new BookAlreadyBorrowedException();
+        }
+        if (holdRepository.findByUserAndBookAndStatusIn(userId, bookId, ACTIVE).isPresent()) {
+            throw new HoldAlreadyExistsException(userId, bookId);
+        }
+        if (inventory.available(book) > 0 && !holdRepository.existsByBook_IdAndStatus(bookId, HoldStatus.WAITING)) {
+            throw new BookAvailableForRentException(bookId);
+        }
+        return toDto(holdRepository.save(new Hold(user, book, LocalDateTime.now())));
+    }
+
+    @Transactional
+    public void cancelHold(long userId, long bookId) {
+        Book book = bookRepository.findAndLockById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
+        Hold hold = holdRepository.findByUserAndBookAndStatusIn(userId, bookId, ACTIVE)
+                .orElseThrow(() -> new HoldNotFoundException(userId, bookId));
+
+        boolean reserved = hold.getStatus() == HoldStatus.READY;
+        hold.cancel();
+        if (reserved) {
+            inventory.releaseReservation(book, hold);
+            allocateAvailableCopies(book);
+            publishAvailability(book);
+        }
+    }
+
+    /**
+     * Cancels the user's active holds ahead of deleting the user, so a copy kept for a READY hold goes
+     * to the next in the queue or back to the shelf instead of staying reserved for nobody.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancelAllHolds(long userId) {
+        for (Hold hold : holdRepository.findByUserAndStatusIn(userId, ACTIVE)) {
+            cancelHold(userId, hold.getBook().getId());
+        }
+    }
+
+    /**
+     * Closes the user's active hold when they rent the book.
+     *
+     * @return the hold if a copy was already reserved for the user, which must be lent instead of a free one
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Hold> fulfilHold(long userId, long bookId) {
+        Optional<Hold> active = holdRepository.findByUserAndBookAndStatusIn(userId, bookId, ACTIVE);
+        if (active.isEmpty()) {
+            return Optional.empty();
+        }
+        Hold hold = active.get();
+        boolean reserved = hold.getStatus() == HoldStatus.READY;
+        hold.fulfil();
+        return reserved ? Optional.of(hold) : Optional.empty();
+    }
+
+    /**
+     * Reserves available copies for the head of the queue, one copy per waiting hold. Needs no book lock:
+     * the head hold is locked while it is served, and each copy is taken with a conditional update.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void allocateAvailableCopies(Book book) {
+        LocalDate today = LocalDate.now();
+        while (true) {
+            List<Hold> head = holdRepository.findQueueHead(book.getId(), Limit.of(1));
+            if (head.isEmpty() || !inventory.reserve(book, head.get(0))) {
+                return;
+            }
+            head.get(0).markReady(today, today.plusDays(properties.getPickupDays()));
+        }
+    }
+
+    /**
+     * Uncollected copies go back to the shelf, or straight to the next user in the queue.
+     * Each book is handled in its own short transaction.
+     */
+    @Scheduled(fixedDelayString = "${app.holds.expiry-interval-ms:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void expireUncollectedHolds() {
+        for (Long bookId : holdRepository.findBookIdsWithExpiredReadyHolds(LocalDate.now())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> expireUncollectedHolds(bookId));
+            } catch (RuntimeException e) {
+                log.warn("Expiring holds for book {} failed, retrying on next run: {}", bookId, e.getMessage());
+            }
+        }
+    }
+
+    private void expireUncollectedHolds(long bookId) {
+        Book book = bookRepository.findAndLockById(bookId).orElse(null);
+        if (book == null) {
+            return;
+        }
+        List<Hold> expired = holdRepository.findExpiredReadyHolds(bookId, LocalDate.now());
+        for (Hold hold : expired) {
+            inventory.releaseReservation(book, hold);
+            hold.expire();
+        }
+        allocateAvailableCopies(book);
+        publishAvailability(book);
+        log.info("Expired {} uncollected hold(s) for book {}", expired.size(), bookId);
+    }
+
+    private void publishAvailability(Book book) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.BOOKS, book.getId()));
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId(), inventory.available(book)));
+    }
+
+    private HoldDto toDto(Hold hold) {
+        long bookId = hold.getBook().getId();
+        Long position = hold.getStatus() == HoldStatus.WAITING
+                ? holdRepository.countWaitingAhead(bookId, hold.getId()) + 1
+                : null;
+        return new HoldDto(hold.getId(), hold.getUser().getId(), bookId, hold.getStatus(), position,
+                hold.getCreatedAt(), hold.getPickupDeadline());
+    }
+}
@@ -1,41 +1,76 @@
 package org.mystudying.bookmanagementjpa.services;
 
+import org.mystudying.bookmanagementjpa.config.retry.RetryOnOptimisticLock;
+import org.mystudying.bookmanagementjpa.domain.ArchivedBooking;
 import org.mystudying.bookmanagementjpa.domain.Book;
 import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.domain.Hold;
+import org.mystudying.bookmanagementjpa.domain.OutboxEventType;
 import org.mystudying.bookmanagementjpa.domain.User;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
 import org.mystudying.bookmanagementjpa.dto.BookingResponseDto;
 import org.mystudying.bookmanagementjpa.dto.CreateUserRequestDto;
 import org.mystudying.bookmanagementjpa.dto.UpdateUserRequestDto;
+import org.mystudying.bookmanagementjpa.dto.UserDto;
+import org.mystudying.bookmanagementjpa.events.BookAvailabilityChangedEvent;
+import org.mystudying.bookmanagementjpa.events.BookRentedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
 import org.mystudying.bookmanagementjpa.exceptions.*;
+import org.mystudying.bookmanagementjpa.repositories.ArchivedBookingRepository;
 import org.mystudying.bookmanagementjpa.repositories.BookRepository;
 import org.mystudying.bookmanagementjpa.repositories.BookingRepository;
 import org.mystudying.bookmanagementjpa.repositories.UserRepository;
+import org.mystudying.bookmanagementjpa.services.coldstorage.ColdBooking;
+import org.mystudying.bookmanagementjpa.services.coldstorage.ColdStorage;
+import org.mystudying.bookmanagementjpa.services.inventory.InventoryStrategy;
+import org.mystudying.bookmanagementjpa.services.outbox.OutboxService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class UserService {
     private final UserRepository userRepository;
-    private final BookRepository bookRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ColdStorage coldStorage;
+    private final BookRepository bookRepository;
+    private final HoldService holdService;
+    private final InventoryStrategy inventory;
+    private final OutboxService outboxService;
+    private final FineLedgerService fineLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, BookRepository bookRepository, BookingRepository bookingRepository) {
+    public UserService(UserRepository userRepository, BookingRepository bookingRepository,
+                       ArchivedBookingRepository archivedBookingRepository, ColdStorage coldStorage, BookRepository bookRepository,
+                       HoldService holdService, InventoryStrategy inventory, OutboxService outboxService,
+                       FineLedgerService fineLedgerService, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
-        this.bookRepository = bookRepository;
         this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.coldStorage = coldStorage;
+        this.bookRepository = bookRepository;
+        this.holdService = holdService;
+        this.inventory = inventory;
+        this.outboxService = outboxService;
+        this.fineLedgerService = fineLedgerService;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<User> findAll() {
-        return userRepository.findAll(Sort.by("name"));
+    public List<UserDto> findAll() {
+        return userRepository.findAllAsDto();
     }
 
     /**
@@ -66,55 +101,123 @@ public class UserService {
      * Kept temporarily to avoid breaking existing tests.
      */
     @Deprecated
-    public List<Book> findActiveBorrowedBooksByUserId(long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        return bookingRepository.findActiveBookingsWithBooksByUserId(userId).stream()
-                .map(Booking::getBook)
-                .collect(Collectors.toList());
+    public List<BookDto> findActiveBorrowedBooksByUserId(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        return bookingRepository.findActiveBooksByUserId(userId);
     }
 
-    public List<BookingResponseDto> findBookingsByUserId(long userId) {
+    /**
+     * Active bookings first, then by borrow date, newest first.
+     *
+     * @param includeArchived also list old bookings moved to the archive, and those exported from there
+     *                        to cold storage
+     */
+    public List<BookingResponseDto> findBookingsByUserId(long userId, boolean includeArchived) {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        return bookingRepository.findAllByUserIdWithBooks(userId).stream()
-                .sorted((b1, b2) -> {
-                    if (b1.getReturnedAt() == null && b2.getReturnedAt() != null) return -1;
-                    if (b1.getReturnedAt() != null && b2.getReturnedAt() == null) return 1;
-                    return b2.getBorrowedAt().compareTo(b1.getBorrowedAt());
-                })
-                .map(b -> {
-                    BigDecimal displayFine = b.getFine();
-                    if (b.getReturnedAt() == null && b.isExpired()) {
-                        displayFine = b.calculateFine();
-                    }
-                    return new BookingResponseDto(
-                            b.getId(),
+        List<BookingResponseDto> bookings = new ArrayList<>();
+        for (Booking b : bookingRepository.findAllByUserIdWithBooks(userId)) {
+            BigDecimal displayFine = b.getFine();
+            if (b.getReturnedAt() == null && b.isExpired()) {
+                displayFine = b.calculateFine();
+            }
+            bookings.add(new BookingResponseDto(
+                    b.getId(),
+                    user.getId(),
+                    user.getName(),
+                    b.getBook().getId(),
+                    b.getBook().getTitle(),
+                    b.getBook().getYear(),
+                    b.getBorrowedAt(),
+                    b.getDueAt(),
+                    b.getReturnedAt(),
+                    displayFine,
+                    b.isFinePaid()
+            ));
+        }
+        if (includeArchived) {
+            for (ArchivedBooking b : archivedBookingRepository.findAllByUserIdWithBooks(userId)) {
+                bookings.add(new BookingResponseDto(
+                        b.getId(),
+                        user.getId(),
+                        user.getName(),
+                        b.getBook().getId(),
+                        b.getBook().getTitle(),
+                        b.getBook().getYear(),
+                        b.getBorrowedAt(),
+                        b.getDueAt(),
+                        b.getReturnedAt(),
+                        b.getFine(),
+                        b.isFinePaid()
+                ));
+            }
+            List<ColdBooking> exported = coldStorage.bookingsOfUser(userId);
+            if (!exported.isEmpty()) {
+                Map<Long, Book> books = bookRepository.findAllById(exported.stream().map(ColdBooking::bookId).distinct().toList())
+                        .stream()
+                        .collect(Collectors.toMap(Book::getId, Function.identity()));
+                for (ColdBooking b : exported) {
+                    Book book = books.get(b.bookId());
+                    bookings.add(new BookingResponseDto(
+                            b.id(),
                             user.getId(),
                             user.getName(),
-                            b.getBook().getId(),
-                            b.getBook().getTitle(),
-                            b.getBook().getYear(),
-                            b.getBorrowedAt(),
-                            b.getDueAt(),
-                            b.getReturnedAt(),
-                            displayFine,
-                            b.isFinePaid()
-                    );
-                })
-                .collect(Collectors.toList());
+                            b.bookId(),
+                            book == null ? null : book.getTitle(),
+                            book == null ? null : book.getYear(),
+                            b.borrowedAt(),
+                            b.dueAt(),
+                            b.returnedAt(),
+                            b.fine(),
+                            b.finePaid()
+                    ));
+                }
+            }
+        }
+        bookings.sort((b1, b2) -> {
+            if (b1.returnedAt() == null && b2.returnedAt() != null) return -1;
+            if (b1.returnedAt() != null && b2.returnedAt() == null) return 1;
+            return b2.borrowedAt().compareTo(b1.borrowedAt());
+        });
+        return bookings;
     }
 
     @Transactional
+    @RetryOnOptimisticLock
     public void payFine(long userId, long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookNotBorrowedException());
+        Booking booking = findUserBooking(userId, bookingId);
         
-        if (booking.getUser().getId() != userId) {
-             throw new UserNotFoundException(userId); // Mismatch
+        if (booking.getFine().compareTo(BigDecimal.ZERO) > 0 && !booking.isFinePaid()) {
+            booking.setFinePaid(true);
+            fineLedgerService.pay(booking);
+            outboxService.record(OutboxEventType.FINE_PAID, booking);
         }
-        
+    }
+
+    /**
+     * Settles the fine without a payment; the booking shows it as paid, the ledger as waived.
+     */
+    @Transactional
+    @RetryOnOptimisticLock
+    public void waiveFine(long userId, long bookingId) {
+        Booking booking = findUserBooking(userId, bookingId);
+
         if (booking.getFine().compareTo(BigDecimal.ZERO) > 0 && !booking.isFinePaid()) {
             booking.setFinePaid(true);
+            fineLedgerService.waive(booking);
+            outboxService.record(OutboxEventType.FINE_WAIVED, booking);
+        }
+    }
+
+    private Booking findUserBooking(long userId, long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookNotBorrowedException());
+
+        if (booking.getUser().getId() != userId) {
+             throw new UserNotFoundException(userId); // Mismatch
         }
+        return booking;
     }
 
     @Transactional
@@ -139,58 +242,77 @@ public class UserService {
         }
     }
 
+    /**
+     * Refused while anything still refers to the user: bookings, archived or exported bookings, or fine
+     * ledger rows.
+     */
     @Transactional
     public void deleteById(long id) {
         User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
-        if (!user.getBookings().isEmpty()) {
+        if (bookingRepository.existsByUser_Id(id) || archivedBookingRepository.existsByUser_Id(id)
+                || coldStorage.hasBookingsOfUser(id) || fineLedgerService.hasEntries(id)) {
             throw new UserHasBookingsException(id);
         }
+        // The holds themselves go with the user (ON DELETE CASCADE), their reserved copies must not
+        holdService.cancelAllHolds(id);
         userRepository.delete(user);
     }
 
     @Transactional
     public void rentBook(long userId, long bookId) {
-        User user = userRepository.findUserByIdWithBookings(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        Book book = bookRepository.findAndLockById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
+        // Serializes the user's own rents (duplicate and overdue checks); the book itself is not locked
+        User user = userRepository.findAndLockById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        Book book = inventory.loadForUpdate(bookId);
 
         if (bookingRepository.findActiveBooking(userId, bookId).isPresent()) {
             throw new BookAlreadyBorrowedException();
         }
 
         // Extra checking before renting
-        boolean hasOverdue = user.getBookings().stream()
-                .anyMatch(Booking::isExpired);
-        if (hasOverdue) {
+        if (bookingRepository.existsOverdueByUserId(userId, LocalDate.now())) {
             throw new UserHasOverdueBooksException(userId);
         }
         
-        boolean hasFines = user.getBookings().stream()
-                .anyMatch(b -> b.getFine().compareTo(BigDecimal.ZERO) > 0 && !b.isFinePaid());
-        if (hasFines) {
+        if (fineLedgerService.hasUnpaidFines(userId)) {
              throw new UserHasUnpaidFinesException(userId);
         }
 
-        book.rentBook();
         Booking booking = new Booking(user, book, LocalDate.now(), LocalDate.now().plusDays(14));
+        // A copy reserved by the user's hold is already taken out of the available count
+        Optional<Hold> readyHold = holdService.fulfilHold(userId, bookId);
+        if (readyHold.isPresent()) {
+            inventory.lendReserved(book, readyHold.get(), booking);
+        } else {
+            inventory.lend(book, booking);
+        }
         user.addBooking(booking);
         bookingRepository.save(booking);
+        outboxService.record(OutboxEventType.BOOK_RENTED, booking);
+        eventPublisher.publishEvent(new BookRentedEvent(bookId));
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.BOOKS, bookId));
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(bookId, inventory.available(book)));
     }
 
     @Transactional
+    @RetryOnOptimisticLock
     public void returnBook(long userId, long bookId) {
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
-        if (!bookRepository.existsById(bookId)) {
-            throw new BookNotFoundException(bookId);
-        }
+        Book book = inventory.loadForUpdate(bookId);
 
         Booking booking = bookingRepository.findActiveBooking(userId, bookId)
                 .orElseThrow(() -> new BookNotBorrowedException());
 
         booking.setReturnedAt(LocalDate.now());
         booking.setFine(booking.calculateFine());
+        fineLedgerService.accrue(booking);
 
-        booking.getBook().returnBook();
+        inventory.giveBack(book, booking);
+        // The returned copy goes to the head of the hold queue first
+        holdService.allocateAvailableCopies(book);
+        outboxService.record(OutboxEventType.BOOK_RETURNED, booking);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.BOOKS, bookId));
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(bookId, inventory.available(book)));
     }
 }
@@ -0,0 +1,61 @@
+package org.mystudying.bookmanagementjpa.services.archive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Period;
+
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    /**
+     * Move old returned bookings to bookings_archive in the background.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Returned bookings stay in the bookings table this long after their return date.
+     */
+    private Period retention = Period.ofMonths(12);
+
+    /**
+     * Bookings moved per transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Upper bound on batches per run, so one run never holds the database for long.
+     */
+    private int maxBatchesPerRun = 20;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Period getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Period retention) {
+        this.retention = retention;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+}
@@ -0,0 +1,104 @@
+package org.mystudying.bookmanagementjpa.services.archive;
+
+import org.mystudying.bookmanagementjpa.dto.ArchiveStatsDto;
+import org.mystudying.bookmanagementjpa.repositories.ArchivedBookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves returned, settled bookings older than the retention period from {@code bookings} to
+ * {@code bookings_archive}, so the table rent / return and the reports work on stays small.
+ * <p>
+ * Each batch is copied and deleted in one transaction, oldest first; rows locked by a running rent or
+ * return are skipped and picked up on a later run. Work per run is bounded like the outbox relay.
+ */
+@Component
+public class BookingArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingArchiver.class);
+
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong archived = new AtomicLong();
+    private volatile long lastRunArchived;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+
+    public BookingArchiver(ArchivedBookingRepository archivedBookingRepository, ArchiveProperties properties,
+                           PlatformTransactionManager transactionManager) {
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}", initialDelay = 60_000)
+    public void archive() {
+        if (properties.isEnabled()) {
+            archiveNow();
+        }
+    }
+
+    /**
+     * @return bookings moved in this run
+     */
+    public long archiveNow() {
+        long start = System.nanoTime();
+        LocalDate cutoff = cutoff();
+        long moved = 0;
+        for (int i = 0; i < properties.getMaxBatchesPerRun(); i++) {
+            Integer batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            moved += batch;
+            if (batch < properties.getBatchSize()) {
+                break;
+            }
+        }
+        archived.addAndGet(moved);
+        lastRunArchived = moved;
+        lastRunMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        lastRunAt = LocalDateTime.now();
+        if (moved > 0) {
+            log.info("Archived {} bookings returned before {} in {} ms", moved, cutoff, lastRunMillis);
+        }
+        return moved;
+    }
+
+    private int archiveBatch(LocalDate cutoff) {
+        List<Long> ids = archivedBookingRepository.lockArchivableIds(cutoff, properties.getBatchSize());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = archivedBookingRepository.copyFromBookings(ids, LocalDateTime.now());
+        if (copied != ids.size()) {
+            throw new IllegalStateException("Copied " + copied + " of " + ids.size() + " bookings to the archive");
+        }
+        archivedBookingRepository.deleteFromBookings(ids);
+        return ids.size();
+    }
+
+    private LocalDate cutoff() {
+        return LocalDate.now().minus(properties.getRetention());
+    }
+
+    public ArchiveStatsDto stats() {
+        return new ArchiveStatsDto(
+                properties.isEnabled(),
+                cutoff(),
+                archived.get(),
+                lastRunArchived,
+                lastRunMillis,
+                lastRunAt
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.services.catalog;
+
+/**
+ * One book as loaded into the {@link CatalogSnapshot}.
+ */
+public record CatalogBookRow(long id, String title, int year, int available, long authorId, long[] genreIds) {
+}
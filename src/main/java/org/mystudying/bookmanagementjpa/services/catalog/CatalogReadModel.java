@@ -0,0 +1,209 @@
+package org.mystudying.bookmanagementjpa.services.catalog;
+
+import org.mystudying.bookmanagementjpa.dto.AuthorDto;
+import org.mystudying.bookmanagementjpa.dto.CatalogSnapshotStatsDto;
+import org.mystudying.bookmanagementjpa.dto.GenreDto;
+import org.mystudying.bookmanagementjpa.events.BookAvailabilityChangedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogSnapshotRefreshedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link CatalogSnapshot} (when {@code app.catalog-snapshot.enabled=true}).
+ * <p>
+ * Readers get the snapshot from a volatile field, without locks. Committed changes are collected
+ * from the catalog and availability events and folded into a new snapshot by {@link #refresh()},
+ * which reloads only the changed rows. While a change has been waiting longer than
+ * {@code max-staleness} (database down, refresh failing) {@link #current()} is empty and callers
+ * read from the database. {@link #fullRefresh()} reloads everything now and then to pick up
+ * writes this instance has not seen (other instances, manual SQL). Each refresh publishes a
+ * {@link CatalogSnapshotRefreshedEvent}, so ETags handed out at commit time move on again once the
+ * snapshot actually serves the change.
+ */
+@Component
+public class CatalogReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogReadModel.class);
+
+    private final CatalogSnapshotLoader loader;
+    private final CatalogSnapshotProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Integer> pendingAvailability = new ConcurrentHashMap<>();
+    private final Set<Long> pendingBooks = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingAuthors = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingGenres = new AtomicBoolean();
+    // System.nanoTime() of the oldest change not yet in the snapshot, 0 when there is none
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+
+    private final AtomicLong snapshotReads = new AtomicLong();
+    private final AtomicLong databaseReads = new AtomicLong();
+    private final AtomicLong incrementalRefreshes = new AtomicLong();
+    private volatile CatalogSnapshot snapshot;
+    private volatile LocalDateTime lastFullRefresh;
+
+    public CatalogReadModel(CatalogSnapshotLoader loader, CatalogSnapshotProperties properties,
+                            ApplicationEventPublisher eventPublisher) {
+        this.loader = loader;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * The snapshot, if enabled, built and within the staleness bound.
+     */
+    public Optional<CatalogSnapshot> current() {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        CatalogSnapshot current = snapshot;
+        long oldestPending = oldestPendingNanos.get();
+        if (current == null
+                || (oldestPending != 0 && System.nanoTime() - oldestPending > properties.getMaxStaleness().toNanos())) {
+            databaseReads.incrementAndGet();
+            return Optional.empty();
+        }
+        snapshotReads.incrementAndGet();
+        return Optional.of(current);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        switch (event.aggregate()) {
+            case BOOKS -> pendingBooks.add(event.id());
+            case AUTHORS -> pendingAuthors.add(event.id());
+            case GENRES -> pendingGenres.set(true);
+        }
+        markPending(System.nanoTime());
+    }
+
+    @TransactionalEventListener
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        pendingAvailability.put(event.bookId(), event.available());
+        markPending(System.nanoTime());
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog-snapshot.refresh-interval-ms:200}")
+    public synchronized void refresh() {
+        if (!properties.isEnabled() || snapshot == null || oldestPendingNanos.get() == 0) {
+            return;
+        }
+        long since = oldestPendingNanos.getAndSet(0);
+        Map<Long, Integer> availability = drain(pendingAvailability);
+        Set<Long> books = drain(pendingBooks);
+        Set<Long> authors = drain(pendingAuthors);
+        boolean genres = pendingGenres.getAndSet(false);
+        try {
+            List<CatalogBookRow> reloadedBooks = books.isEmpty() ? List.of() : loader.loadBooks(books);
+            List<AuthorDto> reloadedAuthors = authors.isEmpty() ? List.of() : loader.loadAuthors(authors);
+            List<GenreDto> reloadedGenres = genres ? loader.loadGenres() : null;
+            snapshot = snapshot.withChanges(availability, books, reloadedBooks, authors, reloadedAuthors, reloadedGenres);
+            incrementalRefreshes.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Put everything back; reads fall back to the database once the changes get too old
+            availability.forEach(pendingAvailability::putIfAbsent);
+            pendingBooks.addAll(books);
+            pendingAuthors.addAll(authors);
+            pendingGenres.compareAndSet(false, genres);
+            markPending(since);
+            log.warn("Catalog snapshot refresh failed: {}", e.getMessage());
+            return;
+        }
+        Set<CatalogAggregate> refreshed = EnumSet.noneOf(CatalogAggregate.class);
+        if (!availability.isEmpty() || !books.isEmpty()) {
+            refreshed.add(CatalogAggregate.BOOKS);
+        }
+        if (!authors.isEmpty()) {
+            refreshed.add(CatalogAggregate.AUTHORS);
+        }
+        if (genres) {
+            refreshed.add(CatalogAggregate.GENRES);
+        }
+        eventPublisher.publishEvent(new CatalogSnapshotRefreshedEvent(refreshed));
+    }
+
+    /**
+     * Runs at startup and then periodically. Changes arriving meanwhile stay pending and are applied
+     * on top by the next {@link #refresh()}.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog-snapshot.full-refresh-interval-ms:600000}")
+    public synchronized void fullRefresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            snapshot = CatalogSnapshot.build(loader.loadBooks(), loader.loadAuthors(), loader.loadGenres());
+            lastFullRefresh = LocalDateTime.now();
+            eventPublisher.publishEvent(new CatalogSnapshotRefreshedEvent(EnumSet.allOf(CatalogAggregate.class)));
+            log.info("Catalog snapshot loaded: {} books, {} authors in {} ms", snapshot.bookCount(),
+                    snapshot.authorCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot load failed: {}", e.getMessage());
+        }
+    }
+
+    public CatalogSnapshotStatsDto stats() {
+        CatalogSnapshot current = snapshot;
+        long oldestPending = oldestPendingNanos.get();
+        return new CatalogSnapshotStatsDto(
+                properties.isEnabled(),
+                current != null ? current.bookCount() : 0,
+                current != null ? current.authorCount() : 0,
+                current != null ? LocalDateTime.ofInstant(current.createdAt(), ZoneId.systemDefault()) : null,
+                lastFullRefresh,
+                oldestPending == 0 ? 0 : (System.nanoTime() - oldestPending) / 1_000_000,
+                incrementalRefreshes.get(),
+                snapshotReads.get(),
+                databaseReads.get());
+    }
+
+    private void markPending(long nanos) {
+        oldestPendingNanos.accumulateAndGet(nanos, (current, candidate) -> current == 0 ? candidate : Math.min(current, candidate));
+    }
+
+    private static <T> Set<T> drain(Set<T> pending) {
+        Set<T> drained = new HashSet<>();
+        for (T value : pending) {
+            pending.remove(value);
+            drained.add(value);
+        }
+        return drained;
+    }
+
+    private static Map<Long, Integer> drain(Map<Long, Integer> pending) {
+        Map<Long, Integer> drained = new HashMap<>();
+        for (Long key : pending.keySet()) {
+            Integer value = pending.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,283 @@
+package org.mystudying.bookmanagementjpa.services.catalog;
+
+import org.mystudying.bookmanagementjpa.dto.AuthorDto;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.dto.BookSearchCriteria;
+import org.mystudying.bookmanagementjpa.dto.GenreDto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Immutable copy of the catalog. Books are kept in title order in parallel arrays; lookups by id,
+ * author and genre go through sorted id arrays and position lists into them, so a read allocates
+ * nothing but its result list. Changes never modify a snapshot, they produce a new one
+ * ({@link #withChanges}).
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<CatalogBookRow> TITLE_ORDER =
+            Comparator.comparing(CatalogBookRow::title, String.CASE_INSENSITIVE_ORDER).thenComparingLong(CatalogBookRow::id);
+    private static final Comparator<AuthorDto> NAME_ORDER =
+            Comparator.comparing(AuthorDto::name, String.CASE_INSENSITIVE_ORDER).thenComparingLong(AuthorDto::id);
+    private static final Comparator<GenreDto> GENRE_ORDER =
+            Comparator.comparing(GenreDto::name, String.CASE_INSENSITIVE_ORDER).thenComparingLong(GenreDto::id);
+
+    // Books, indexed by position in title order
+    private final BookDto[] books;
+    private final long[] authorOf;
+    private final long[][] genresOf;
+    // Book ids ascending, with the position of each
+    private final long[] sortedBookIds;
+    private final int[] positionOfSortedId;
+    private final Map<Long, int[]> positionsByAuthor;
+    private final Map<Long, int[]> positionsByGenre;
+    private final AuthorDto[] authors;
+    private final long[] sortedAuthorIds;
+    private final GenreDto[] genres;
+    private final Instant createdAt;
+
+    private CatalogSnapshot(BookDto[] books, long[] authorOf, long[][] genresOf, long[] sortedBookIds,
+                            int[] positionOfSortedId, Map<Long, int[]> positionsByAuthor,
+                            Map<Long, int[]> positionsByGenre, AuthorDto[] authors, GenreDto[] genres) {
+        this.books = books;
+        this.authorOf = authorOf;
+        this.genresOf = genresOf;
+        this.sortedBookIds = sortedBookIds;
+        this.positionOfSortedId = positionOfSortedId;
+        this.positionsByAuthor = positionsByAuthor;
+        this.positionsByGenre = positionsByGenre;
+        this.authors = authors;
+        this.sortedAuthorIds = Arrays.stream(authors).mapToLong(AuthorDto::id).sorted().toArray();
+        this.genres = genres;
+        this.createdAt = Instant.now();
+    }
+
+    public static CatalogSnapshot build(Collection<CatalogBookRow> bookRows, Collection<AuthorDto> authorRows,
+                                        Collection<GenreDto> genreRows) {
+        CatalogBookRow[] rows = bookRows.toArray(CatalogBookRow[]::new);
+        Arrays.sort(rows, TITLE_ORDER);
+        int size = rows.length;
+        BookDto[] books = new BookDto[size];
+        long[] authorOf = new long[size];
+        long[][] genresOf = new long[size][];
+        Map<Long, List<Integer>> byAuthor = new HashMap<>();
+        Map<Long, List<Integer>> byGenre = new HashMap<>();
+        for (int position = 0; position < size; position++) {
+            CatalogBookRow row = rows[position];
+            books[position] = new BookDto(row.id(), row.title(), row.year(), row.available());
+            authorOf[position] = row.authorId();
+            genresOf[position] = row.genreIds();
+            byAuthor.computeIfAbsent(row.authorId(), id -> new ArrayList<>()).add(position);
+            for (long genreId : row.genreIds()) {
+                byGenre.computeIfAbsent(genreId, id -> new ArrayList<>()).add(position);
+            }
+        }
+
+        Integer[] byId = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byId[i] = i;
+        }
+        Arrays.sort(byId, Comparator.comparingLong(position -> books[position].id()));
+        long[] sortedBookIds = new long[size];
+        int[] positionOfSortedId = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedBookIds[i] = books[byId[i]].id();
+            positionOfSortedId[i] = byId[i];
+        }
+
+        AuthorDto[] authors = authorRows.toArray(AuthorDto[]::new);
+        Arrays.sort(authors, NAME_ORDER);
+        GenreDto[] genres = genreRows.toArray(GenreDto[]::new);
+        Arrays.sort(genres, GENRE_ORDER);
+        return new CatalogSnapshot(books, authorOf, genresOf, sortedBookIds, positionOfSortedId,
+                toPositions(byAuthor), toPositions(byGenre), authors, genres);
+    }
+
+    /**
+     * A new snapshot with the given changes applied.
+     *
+     * @param availability   new {@code available} counts (rent / return)
+     * @param changedBooks   books to reload; ids missing from {@code reloadedBooks} were deleted
+     * @param changedAuthors authors to reload; ids missing from {@code reloadedAuthors} were deleted
+     * @param reloadedGenres all genres, or {@code null} if unchanged
+     */
+    public CatalogSnapshot withChanges(Map<Long, Integer> availability,
+                                       Collection<Long> changedBooks, Collection<CatalogBookRow> reloadedBooks,
+                                       Collection<Long> changedAuthors, Collection<AuthorDto> reloadedAuthors,
+                                       Collection<GenreDto> reloadedGenres) {
+        Map<Long, CatalogBookRow> reloaded = new HashMap<>();
+        reloadedBooks.forEach(row -> reloaded.put(row.id(), row));
+        boolean structural = !changedAuthors.isEmpty() || reloadedGenres != null;
+        for (Long bookId : changedBooks) {
+            int position = positionOf(bookId);
+            CatalogBookRow row = reloaded.get(bookId);
+            if (position < 0 || row == null || !sameExceptAvailability(position, row)) {
+                structural = true;
+                break;
+            }
+        }
+
+        if (structural) {
+            List<CatalogBookRow> rows = new ArrayList<>(books.length + reloaded.size());
+            for (int position = 0; position < books.length; position++) {
+                long bookId = books[position].id();
+                if (!changedBooks.contains(bookId)) {
+                    rows.add(rowAt(position, availability.getOrDefault(bookId, books[position].available())));
+                }
+            }
+            rows.addAll(reloaded.values());
+            List<AuthorDto> authorList = new ArrayList<>(authors.length + reloadedAuthors.size());
+            Stream.of(authors).filter(author -> !changedAuthors.contains(author.id())).forEach(authorList::add);
+            authorList.addAll(reloadedAuthors);
+            return build(rows, authorList, reloadedGenres != null ? reloadedGenres : Arrays.asList(genres));
+        }
+
+        // Only counts changed: same positions and indexes, a patched copy of the book array
+        BookDto[] patched = books.clone();
+        Map<Long, Integer> counts = new HashMap<>(availability);
+        reloaded.values().forEach(row -> counts.put(row.id(), row.available()));
+        counts.forEach((bookId, available) -> {
+            int position = positionOf(bookId);
+            if (position >= 0 && patched[position].available() != available) {
+                BookDto book = patched[position];
+                patched[position] = new BookDto(book.id(), book.title(), book.year(), available);
+            }
+        });
+        return new CatalogSnapshot(patched, authorOf, genresOf, sortedBookIds, positionOfSortedId,
+                positionsByAuthor, positionsByGenre, authors, genres);
+    }
+
+    public List<BookDto> allBooks() {
+        return Collections.unmodifiableList(Arrays.asList(books));
+    }
+
+    /**
+     * Title and author name filters are left to the database, whose collation decides what matches.
+     */
+    public boolean supports(BookSearchCriteria criteria) {
+        return criteria.title() == null && criteria.authorName() == null && criteria.authorNameContains() == null;
+    }
+
+    public List<BookDto> search(BookSearchCriteria criteria) {
+        List<BookDto> result = new ArrayList<>();
+        if (criteria.genreIds() == null || criteria.genreIds().isEmpty()) {
+            for (BookDto book : books) {
+                if (matches(book, criteria)) {
+                    result.add(book);
+                }
+            }
+            return result;
+        }
+        BitSet inGenres = new BitSet(books.length);
+        for (Long genreId : criteria.genreIds()) {
+            for (int position : positionsByGenre.getOrDefault(genreId, new int[0])) {
+                inGenres.set(position);
+            }
+        }
+        for (int position = inGenres.nextSetBit(0); position >= 0; position = inGenres.nextSetBit(position + 1)) {
+            if (matches(books[position], criteria)) {
+                result.add(books[position]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Empty when the author is not in the snapshot.
+     */
+    public Optional<List<BookDto>> booksByAuthor(long authorId) {
+        if (Arrays.binarySearch(sortedAuthorIds, authorId) < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(booksAt(positionsByAuthor.getOrDefault(authorId, new int[0])));
+    }
+
+    /**
+     * Empty when the genre is not in the snapshot.
+     */
+    public Optional<List<BookDto>> booksByGenre(long genreId) {
+        if (Stream.of(genres).noneMatch(genre -> genre.id() == genreId)) {
+            return Optional.empty();
+        }
+        return Optional.of(booksAt(positionsByGenre.getOrDefault(genreId, new int[0])));
+    }
+
+    /**
+     * Empty when the book is not in the snapshot.
+     */
+    public Optional<BookDto> book(long bookId) {
+        int position = positionOf(bookId);
+        return position < 0 ? Optional.empty() : Optional.of(books[position]);
+    }
+
+    public List<AuthorDto> authors() {
+        return Collections.unmodifiableList(Arrays.asList(authors));
+    }
+
+    public List<GenreDto> genres() {
+        return Collections.unmodifiableList(Arrays.asList(genres));
+    }
+
+    public int bookCount() {
+        return books.length;
+    }
+
+    public int authorCount() {
+        return authors.length;
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    private static boolean matches(BookDto book, BookSearchCriteria criteria) {
+        if (criteria.available() != null && criteria.available() != (book.available() > 0)) {
+            return false;
+        }
+        if (criteria.yearFrom() != null && book.year() < criteria.yearFrom()) {
+            return false;
+        }
+        return criteria.yearTo() == null || book.year() <= criteria.yearTo();
+    }
+
+    private List<BookDto> booksAt(int[] positions) {
+        List<BookDto> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(books[position]);
+        }
+        return result;
+    }
+
+    private int positionOf(long bookId) {
+        int index = Arrays.binarySearch(sortedBookIds, bookId);
+        return index < 0 ? -1 : positionOfSortedId[index];
+    }
+
+    private boolean sameExceptAvailability(int position, CatalogBookRow row) {
+        BookDto book = books[position];
+        return book.title().equals(row.title()) && book.year() == row.year()
+                && authorOf[position] == row.authorId() && Arrays.equals(genresOf[position], row.genreIds());
+    }
+
+    private CatalogBookRow rowAt(int position, int available) {
+        BookDto book = books[position];
+        return new CatalogBookRow(book.id(), book.title(), book.year(), available, authorOf[position], genresOf[position]);
+    }
+
+    private static Map<Long, int[]> toPositions(Map<Long, List<Integer>> lists) {
+        Map<Long, int[]> positions = new HashMap<>(lists.size() * 2);
+        lists.forEach((id, list) -> positions.put(id, list.stream().mapToInt(Integer::intValue).toArray()));
+        return positions;
+    }
+}
@@ -0,0 +1,77 @@
+package org.mystudying.bookmanagementjpa.services.catalog;
+
+import org.mystudying.bookmanagementjpa.config.ReportingWorkload;
+import org.mystudying.bookmanagementjpa.dto.AuthorDto;
+import org.mystudying.bookmanagementjpa.dto.GenreDto;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC reads for the catalog snapshot: one grouped row per book, no entities.
+ */
+@Component
+public class CatalogSnapshotLoader {
+
+    private static final String BOOKS = """
+            SELECT b.id, b.title, b.year, b.available, b.author_id, GROUP_CONCAT(bg.genre_id) AS genre_ids
+            FROM books b LEFT JOIN book_genres bg ON bg.book_id = b.id
+            """;
+    private static final String AUTHORS = "SELECT id, name, birthdate FROM authors ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CatalogSnapshotLoader(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @ReportingWorkload
+    public List<CatalogBookRow> loadBooks() {
+        return jdbcTemplate.query(BOOKS + "GROUP BY b.id", this::toBookRow);
+    }
+
+    /**
+     * The given books; deleted ones are missing from the result.
+     */
+    public List<CatalogBookRow> loadBooks(Collection<Long> ids) {
+        return jdbcTemplate.query(BOOKS + "WHERE b.id IN (:ids) GROUP BY b.id", Map.of("ids", ids), this::toBookRow);
+    }
+
+    @ReportingWorkload
+    public List<AuthorDto> loadAuthors() {
+        return jdbcTemplate.query(AUTHORS, this::toAuthor);
+    }
+
+    public List<AuthorDto> loadAuthors(Collection<Long> ids) {
+        return jdbcTemplate.query(AUTHORS + "WHERE id IN (:ids)", Map.of("ids", ids), this::toAuthor);
+    }
+
+    public List<GenreDto> loadGenres() {
+        return jdbcTemplate.query("SELECT id, name FROM genres",
+                (rs, rowNum) -> new GenreDto(rs.getLong("id"), rs.getString("name")));
+    }
+
+    private CatalogBookRow toBookRow(ResultSet rs, int rowNum) throws SQLException {
+        String genreIds = rs.getString("genre_ids");
+        return new CatalogBookRow(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getInt("year"),
+                rs.getInt("available"),
+                rs.getLong("author_id"),
+                genreIds == null ? new long[0] : Arrays.stream(genreIds.split(",")).mapToLong(Long::parseLong).sorted().toArray());
+    }
+
+    private AuthorDto toAuthor(ResultSet rs, int rowNum) throws SQLException {
+        Date birthdate = rs.getDate("birthdate");
+        return new AuthorDto(rs.getLong("id"), rs.getString("name"), birthdate == null ? null : birthdate.toLocalDate());
+    }
+}
@@ -0,0 +1,36 @@
+package org.mystudying.bookmanagementjpa.services.catalog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.catalog-snapshot")
+public class CatalogSnapshotProperties {
+
+    /**
+     * Serve catalog list reads from an in-process snapshot instead of the database.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Longest time a committed change may be missing from the snapshot; beyond that reads go to
+     * the database until the snapshot has caught up.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+}
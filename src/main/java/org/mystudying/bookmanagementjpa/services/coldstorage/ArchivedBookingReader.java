@@ -0,0 +1,54 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import org.mystudying.bookmanagementjpa.config.ReportingWorkload;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Reads the next segment's worth of {@code bookings_archive} for {@link ColdStorageExporter}. A separate
+ * bean so the scan runs on the reporting pool while the exporter's deletes stay on the primary.
+ */
+@Component
+public class ArchivedBookingReader {
+
+    private static final String ARCHIVED = """
+            SELECT id, user_id, book_id, borrowed_at, due_at, returned_at, fine, fine_paid
+            FROM bookings_archive
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ArchivedBookingReader(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * The lowest archived bookings, at most {@code segmentRows}, read in id-ordered chunks.
+     */
+    @ReportingWorkload
+    public ColdSegmentWriter read(int segmentRows, int fetchSize) {
+        ColdSegmentWriter writer = new ColdSegmentWriter();
+        long after = 0;
+        while (writer.rows() < segmentRows) {
+            int limit = Math.min(fetchSize, segmentRows - writer.rows());
+            int before = writer.rows();
+            jdbcTemplate.query(ARCHIVED, Map.of("after", after, "limit", limit), (RowCallbackHandler) rs ->
+                    writer.add(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("book_id"),
+                            rs.getDate("borrowed_at").toLocalDate(), rs.getDate("due_at").toLocalDate(),
+                            rs.getDate("returned_at").toLocalDate(), rs.getBigDecimal("fine"),
+                            rs.getBoolean("fine_paid")));
+            if (writer.rows() - before < limit) {
+                break;
+            }
+            after = writer.lastId();
+        }
+        return writer;
+    }
+}
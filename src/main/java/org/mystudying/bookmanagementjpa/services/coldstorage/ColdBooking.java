@@ -0,0 +1,11 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One booking read back from a {@link ColdSegment}; always returned, so {@code returnedAt} is set.
+ */
+public record ColdBooking(long id, long userId, long bookId, LocalDate borrowedAt, LocalDate dueAt,
+                          LocalDate returnedAt, BigDecimal fine, boolean finePaid) {
+}
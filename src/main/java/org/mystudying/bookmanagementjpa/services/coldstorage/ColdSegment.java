@@ -0,0 +1,232 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One immutable, memory-mapped file of archived bookings, stored column by column (see
+ * {@link ColdSegmentWriter} for the encoding). Scans decode straight from the mapped pages; the
+ * id column is not touched by {@link #scan}, and dictionaries are decoded once on open.
+ * <p>
+ * Layout: header (magic, rows, first / last id, min / max borrow day, dictionary sizes), then each
+ * column as a length-prefixed block, in the order of the column constants below.
+ */
+public class ColdSegment {
+
+    static final int MAGIC = 0x424B4331; // "BKC1"
+
+    static final int ID = 0;
+    static final int BORROWED = 1;
+    static final int DUE = 2;
+    static final int LOAN = 3;
+    static final int USER_DICT = 4;
+    static final int USER_CODES = 5;
+    static final int BOOK_DICT = 6;
+    static final int BOOK_CODES = 7;
+    static final int FINE = 8;
+    static final int FINE_PAID = 9;
+    static final int COLUMNS = 10;
+
+    private final Path file;
+    private final long sizeBytes;
+    private final int rows;
+    private final long firstId;
+    private final long lastId;
+    private final int minBorrowedDay;
+    private final int maxBorrowedDay;
+    private final long[] userIds;
+    private final long[] bookIds;
+    private final ByteBuffer[] columns = new ByteBuffer[COLUMNS];
+
+    private ColdSegment(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.sizeBytes = buffer.capacity();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a booking segment: " + file);
+        }
+        rows = buffer.getInt();
+        firstId = buffer.getLong();
+        lastId = buffer.getLong();
+        minBorrowedDay = buffer.getInt();
+        maxBorrowedDay = buffer.getInt();
+        int userDictSize = buffer.getInt();
+        int bookDictSize = buffer.getInt();
+        for (int column = 0; column < COLUMNS; column++) {
+            int length = buffer.getInt();
+            columns[column] = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        }
+        userIds = readDictionary(column(USER_DICT), userDictSize);
+        bookIds = readDictionary(column(BOOK_DICT), bookDictSize);
+    }
+
+    public static ColdSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ColdSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Visits every row in id order. Safe to call from several threads at once.
+     */
+    public void scan(RowVisitor visitor) {
+        ByteBuffer borrowed = column(BORROWED);
+        ByteBuffer due = column(DUE);
+        ByteBuffer loan = column(LOAN);
+        ByteBuffer users = column(USER_CODES);
+        ByteBuffer books = column(BOOK_CODES);
+        ByteBuffer fines = column(FINE);
+        ByteBuffer paid = column(FINE_PAID);
+        int day = 0;
+        for (int row = 0; row < rows; row++) {
+            day += (int) readZigZag(borrowed);
+            visitor.row(day,
+                    (int) readZigZag(due),
+                    (int) readZigZag(loan),
+                    (int) readVarLong(users),
+                    (int) readVarLong(books),
+                    readVarLong(fines),
+                    (row >> 3) < paid.limit() && (paid.get(row >> 3) & (1 << (row & 7))) != 0);
+        }
+    }
+
+    /**
+     * Booking ids, ascending.
+     */
+    public long[] ids() {
+        ByteBuffer in = column(ID);
+        long[] ids = new long[rows];
+        long id = 0;
+        for (int row = 0; row < rows; row++) {
+            id += readVarLong(in);
+            ids[row] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Bookings of one user, in id order; a segment the user has no booking in is not scanned.
+     */
+    public List<ColdBooking> bookingsOfUser(long userId) {
+        int userCode = Arrays.binarySearch(userIds, userId);
+        if (userCode < 0) {
+            return List.of();
+        }
+        long[] ids = ids();
+        List<ColdBooking> bookings = new ArrayList<>();
+        int[] row = {0};
+        scan((borrowedDay, dueDays, loanDays, code, bookCode, fineCents, finePaid) -> {
+            if (code == userCode) {
+                LocalDate borrowedAt = LocalDate.ofEpochDay(borrowedDay);
+                bookings.add(new ColdBooking(ids[row[0]], userId, bookIds[bookCode], borrowedAt,
+                        borrowedAt.plusDays(dueDays), borrowedAt.plusDays(loanDays),
+                        BigDecimal.valueOf(fineCents, 2), finePaid));
+            }
+            row[0]++;
+        });
+        return bookings;
+    }
+
+    public boolean containsUser(long userId) {
+        return Arrays.binarySearch(userIds, userId) >= 0;
+    }
+
+    public boolean containsBook(long bookId) {
+        return Arrays.binarySearch(bookIds, bookId) >= 0;
+    }
+
+    /**
+     * Whether any booking in this segment was borrowed between {@code from} and {@code to} (inclusive).
+     */
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        return rows > 0 && minBorrowedDay <= to.toEpochDay() && maxBorrowedDay >= from.toEpochDay();
+    }
+
+    /**
+     * User id for a code passed to {@link RowVisitor#row}.
+     */
+    public long userId(int code) {
+        return userIds[code];
+    }
+
+    public long bookId(int code) {
+        return bookIds[code];
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int bookCount() {
+        return bookIds.length;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long sizeBytes() {
+        return sizeBytes;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public long firstId() {
+        return firstId;
+    }
+
+    public long lastId() {
+        return lastId;
+    }
+
+    private ByteBuffer column(int column) {
+        return columns[column].duplicate();
+    }
+
+    private static long[] readDictionary(ByteBuffer in, int size) {
+        long[] ids = new long[size];
+        long id = 0;
+        for (int i = 0; i < size; i++) {
+            id += readVarLong(in);
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long readZigZag(ByteBuffer in) {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * One booking; dates are days since the epoch, or days after {@code borrowedDay}.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void row(int borrowedDay, int dueDays, int loanDays, int userCode, int bookCode, long fineCents, boolean finePaid);
+    }
+}
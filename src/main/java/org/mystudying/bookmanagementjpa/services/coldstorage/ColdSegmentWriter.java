@@ -0,0 +1,152 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.mystudying.bookmanagementjpa.services.coldstorage.ColdSegment.*;
+
+/**
+ * Collects bookings in id order and writes them as a {@link ColdSegment}.
+ * <p>
+ * Encoding: ids as deltas to the previous id; the borrow date as a delta to the previous row's, due and
+ * return dates as days after the borrow date; user and book ids as codes into a sorted, delta-encoded
+ * dictionary; fines in cents; all as variable-length integers (most values fit in one or two bytes).
+ * Whether the fine was paid is a bit set.
+ */
+public class ColdSegmentWriter {
+
+    private int rows;
+    private long[] ids = new long[1024];
+    private long[] userIds = new long[1024];
+    private long[] bookIds = new long[1024];
+    private int[] borrowedDays = new int[1024];
+    private int[] dueDays = new int[1024];
+    private int[] loanDays = new int[1024];
+    private long[] fineCents = new long[1024];
+    private final BitSet finePaid = new BitSet();
+
+    /**
+     * @throws IllegalArgumentException when {@code id} is not above the previous one
+     */
+    public void add(long id, long userId, long bookId, LocalDate borrowedAt, LocalDate dueAt, LocalDate returnedAt,
+                    BigDecimal fine, boolean paid) {
+        if (rows > 0 && id <= ids[rows - 1]) {
+            throw new IllegalArgumentException("Booking " + id + " added after " + ids[rows - 1]);
+        }
+        if (rows == ids.length) {
+            grow();
+        }
+        int borrowed = (int) borrowedAt.toEpochDay();
+        ids[rows] = id;
+        userIds[rows] = userId;
+        bookIds[rows] = bookId;
+        borrowedDays[rows] = borrowed;
+        dueDays[rows] = (int) dueAt.toEpochDay() - borrowed;
+        loanDays[rows] = (int) returnedAt.toEpochDay() - borrowed;
+        fineCents[rows] = fine == null ? 0 : fine.movePointRight(2).longValueExact();
+        finePaid.set(rows, paid);
+        rows++;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Highest id added so far; 0 when empty.
+     */
+    public long lastId() {
+        return rows == 0 ? 0 : ids[rows - 1];
+    }
+
+    public long[] ids() {
+        return Arrays.copyOf(ids, rows);
+    }
+
+    public void write(Path file) throws IOException {
+        long[] users = dictionary(userIds);
+        long[] books = dictionary(bookIds);
+        ByteArrayOutputStream[] columns = new ByteArrayOutputStream[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = new ByteArrayOutputStream();
+        }
+        int minBorrowed = Integer.MAX_VALUE;
+        int maxBorrowed = Integer.MIN_VALUE;
+        long previousId = 0;
+        int previousDay = 0;
+        for (int row = 0; row < rows; row++) {
+            putVarLong(columns[ID], ids[row] - previousId);
+            putZigZag(columns[BORROWED], borrowedDays[row] - previousDay);
+            putZigZag(columns[DUE], dueDays[row]);
+            putZigZag(columns[LOAN], loanDays[row]);
+            putVarLong(columns[USER_CODES], Arrays.binarySearch(users, userIds[row]));
+            putVarLong(columns[BOOK_CODES], Arrays.binarySearch(books, bookIds[row]));
+            putVarLong(columns[FINE], fineCents[row]);
+            previousId = ids[row];
+            previousDay = borrowedDays[row];
+            minBorrowed = Math.min(minBorrowed, borrowedDays[row]);
+            maxBorrowed = Math.max(maxBorrowed, borrowedDays[row]);
+        }
+        putDictionary(columns[USER_DICT], users);
+        putDictionary(columns[BOOK_DICT], books);
+        columns[FINE_PAID].writeBytes(finePaid.toByteArray());
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows);
+            out.writeLong(rows == 0 ? 0 : ids[0]);
+            out.writeLong(rows == 0 ? 0 : ids[rows - 1]);
+            out.writeInt(minBorrowed);
+            out.writeInt(maxBorrowed);
+            out.writeInt(users.length);
+            out.writeInt(books.length);
+            for (ByteArrayOutputStream column : columns) {
+                out.writeInt(column.size());
+                column.writeTo(out);
+            }
+        }
+    }
+
+    private long[] dictionary(long[] values) {
+        return Arrays.stream(values, 0, rows).sorted().distinct().toArray();
+    }
+
+    private void grow() {
+        int size = ids.length * 2;
+        ids = Arrays.copyOf(ids, size);
+        userIds = Arrays.copyOf(userIds, size);
+        bookIds = Arrays.copyOf(bookIds, size);
+        borrowedDays = Arrays.copyOf(borrowedDays, size);
+        dueDays = Arrays.copyOf(dueDays, size);
+        loanDays = Arrays.copyOf(loanDays, size);
+        fineCents = Arrays.copyOf(fineCents, size);
+    }
+
+    private static void putDictionary(ByteArrayOutputStream out, long[] sorted) {
+        long previous = 0;
+        for (long id : sorted) {
+            putVarLong(out, id - previous);
+            previous = id;
+        }
+    }
+
+    private static void putZigZag(ByteArrayOutputStream out, long value) {
+        putVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void putVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,228 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import org.mystudying.bookmanagementjpa.dto.BookLoansDto;
+import org.mystudying.bookmanagementjpa.dto.CirculationStatsDto;
+import org.mystudying.bookmanagementjpa.dto.MonthlyCirculationDto;
+import org.mystudying.bookmanagementjpa.exceptions.ReportCancelledException;
+import org.mystudying.bookmanagementjpa.services.reports.QueryCancellation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * The segment files on disk, and the circulation statistics computed from them without touching
+ * the database. Segments are numbered in the order they were written and never change.
+ */
+@Component
+public class ColdStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdStorage.class);
+    private static final String PREFIX = "bookings-";
+    private static final String SUFFIX = ".col";
+
+    private final Path directory;
+    private final List<ColdSegment> segments = new CopyOnWriteArrayList<>();
+
+    public ColdStorage(ColdStorageProperties properties) {
+        this.directory = properties.getDirectory();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(ColdStorage::isSegment).sorted().toList()) {
+                    segments.add(ColdSegment.open(file));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open cold storage in " + directory.toAbsolutePath(), e);
+            }
+            log.info("Cold storage: {} segments in {}", segments.size(), directory.toAbsolutePath());
+        }
+    }
+
+    public List<ColdSegment> segments() {
+        return List.copyOf(segments);
+    }
+
+    public Optional<ColdSegment> latest() {
+        return segments.isEmpty() ? Optional.empty() : Optional.of(segments.get(segments.size() - 1));
+    }
+
+    /**
+     * Whether any exported booking belongs to the user; answered from the segment dictionaries,
+     * which are in memory.
+     */
+    public boolean hasBookingsOfUser(long userId) {
+        return segments.stream().anyMatch(segment -> segment.containsUser(userId));
+    }
+
+    public boolean hasBookingsOfBook(long bookId) {
+        return segments.stream().anyMatch(segment -> segment.containsBook(bookId));
+    }
+
+    /**
+     * Exported bookings of one user, in id order; only the segments holding any of them are scanned.
+     */
+    public List<ColdBooking> bookingsOfUser(long userId) {
+        List<ColdBooking> bookings = new ArrayList<>();
+        for (ColdSegment segment : segments) {
+            bookings.addAll(segment.bookingsOfUser(userId));
+        }
+        return bookings;
+    }
+
+    /**
+     * Writes the collected bookings as the next segment; the file appears complete or not at all, and
+     * is on disk (file and directory entry synced) when this returns, so the caller may delete the
+     * bookings from the database.
+     */
+    public synchronized ColdSegment add(ColdSegmentWriter writer) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%06d%s", PREFIX, segments.size() + 1, SUFFIX));
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            writer.write(partial);
+            try (FileChannel file = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                file.force(true);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        ColdSegment segment = ColdSegment.open(target);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * @param topBooks number of most borrowed books to list
+     * @param cancellation segments not scanned yet are skipped once the report is abandoned
+     */
+    public CirculationStatsDto circulation(int year, int topBooks, QueryCancellation cancellation) {
+        long started = System.nanoTime();
+        CirculationScan scan = new CirculationScan(year);
+        int scanned = 0;
+        long rows = 0;
+        for (ColdSegment segment : segments) {
+            if (cancellation.isCancelled()) {
+                throw new ReportCancelledException();
+            }
+            if (segment.overlaps(scan.from, scan.to)) {
+                scan.add(segment);
+                scanned++;
+                rows += segment.rows();
+            }
+        }
+        return scan.toDto(topBooks, scanned, rows, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Makes the rename durable. Windows cannot open a directory as a channel; NTFS journals the rename.
+     */
+    private void syncDirectory() throws IOException {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    /**
+     * Totals for one year of borrow dates. Per segment, books and users are counted by dictionary
+     * code in plain arrays and only mapped back to ids once the segment is done.
+     */
+    private static class CirculationScan {
+        private final int year;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final int[] monthStarts = new int[13];
+        private final long[] monthLoans = new long[12];
+        private final long[] monthLateReturns = new long[12];
+        private final Map<Long, Long> bookLoans = new HashMap<>();
+        private final Set<Long> users = new HashSet<>();
+        private long loanDays;
+        private long fineCents;
+
+        CirculationScan(int year) {
+            this.year = year;
+            this.from = LocalDate.of(year, 1, 1);
+            this.to = LocalDate.of(year, 12, 31);
+            for (int month = 0; month <= 12; month++) {
+                monthStarts[month] = (int) from.plusMonths(month).toEpochDay();
+            }
+        }
+
+        void add(ColdSegment segment) {
+            int[] loansPerBook = new int[segment.bookCount()];
+            BitSet borrowers = new BitSet(segment.userCount());
+            segment.scan((borrowedDay, dueDays, days, userCode, bookCode, fine, finePaid) -> {
+                if (borrowedDay < monthStarts[0] || borrowedDay >= monthStarts[12]) {
+                    return;
+                }
+                int month = 0;
+                while (borrowedDay >= monthStarts[month + 1]) {
+                    month++;
+                }
+                monthLoans[month]++;
+                if (days > dueDays) {
+                    monthLateReturns[month]++;
+                }
+                loanDays += days;
+                fineCents += fine;
+                loansPerBook[bookCode]++;
+                borrowers.set(userCode);
+            });
+            for (int code = 0; code < loansPerBook.length; code++) {
+                if (loansPerBook[code] > 0) {
+                    bookLoans.merge(segment.bookId(code), (long) loansPerBook[code], Long::sum);
+                }
+            }
+            borrowers.stream().forEach(code -> users.add(segment.userId(code)));
+        }
+
+        CirculationStatsDto toDto(int topBooks, int segments, long rows, long elapsedMillis) {
+            long loans = 0;
+            long lateReturns = 0;
+            List<MonthlyCirculationDto> byMonth = new ArrayList<>(12);
+            for (int month = 0; month < 12; month++) {
+                loans += monthLoans[month];
+                lateReturns += monthLateReturns[month];
+                byMonth.add(new MonthlyCirculationDto(YearMonth.of(year, month + 1), monthLoans[month],
+                        monthLateReturns[month]));
+            }
+            List<BookLoansDto> top = bookLoans.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(topBooks)
+                    .map(e -> new BookLoansDto(e.getKey(), e.getValue()))
+                    .toList();
+            return new CirculationStatsDto(year, loans, users.size(), bookLoans.size(), lateReturns,
+                    loans == 0 ? 0 : (double) loanDays / loans, BigDecimal.valueOf(fineCents, 2),
+                    byMonth, top, segments, rows, elapsedMillis);
+        }
+    }
+}
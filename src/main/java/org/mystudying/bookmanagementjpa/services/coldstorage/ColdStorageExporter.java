@@ -0,0 +1,121 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import org.mystudying.bookmanagementjpa.dto.ColdStorageStatsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves bookings from {@code bookings_archive} into cold storage: a segment is written, and only then
+ * are its bookings deleted from the archive. A run that dies in between leaves the bookings in both
+ * places; the next run deletes them from the archive before exporting anything else, so nothing is
+ * lost or exported twice.
+ * <p>
+ * Exported bookings still count for the user and book delete guards and are listed in a user's
+ * booking history with {@code includeArchived} (see {@link ColdStorage#bookingsOfUser}); the paged and
+ * exported booking reports read the database only and no longer contain them.
+ */
+@Component
+public class ColdStorageExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdStorageExporter.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ArchivedBookingReader reader;
+    private final ColdStorage coldStorage;
+    private final ColdStorageProperties properties;
+
+    private final AtomicLong exported = new AtomicLong();
+    private volatile long lastExportMillis;
+    private volatile LocalDateTime lastExportAt;
+
+    @Autowired
+    public ColdStorageExporter(DataSource dataSource, ArchivedBookingReader reader, ColdStorage coldStorage,
+                               ColdStorageProperties properties) {
+        this(new NamedParameterJdbcTemplate(dataSource), reader, coldStorage, properties);
+    }
+
+    ColdStorageExporter(NamedParameterJdbcTemplate jdbcTemplate, ArchivedBookingReader reader, ColdStorage coldStorage,
+                        ColdStorageProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reader = reader;
+        this.coldStorage = coldStorage;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cold-storage.interval-ms:86400000}", initialDelay = 120_000)
+    public void export() {
+        if (properties.isEnabled()) {
+            exportNow();
+        }
+    }
+
+    /**
+     * @return bookings moved in this run
+     */
+    public synchronized long exportNow() {
+        long start = System.nanoTime();
+        coldStorage.latest().ifPresent(segment -> deleteFromArchive(segment.ids()));
+        long moved = 0;
+        while (true) {
+            ColdSegmentWriter writer = reader.read(properties.getSegmentRows(), properties.getFetchSize());
+            if (writer.rows() == 0 || writer.rows() < properties.getMinSegmentRows()) {
+                break;
+            }
+            try {
+                ColdSegment segment = coldStorage.add(writer);
+                log.info("Wrote {} bookings ({}..{}) to {}, {} bytes", segment.rows(), segment.firstId(),
+                        segment.lastId(), segment.file().getFileName(), segment.sizeBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write cold storage segment", e);
+            }
+            deleteFromArchive(writer.ids());
+            moved += writer.rows();
+            if (writer.rows() < properties.getSegmentRows()) {
+                break;
+            }
+        }
+        exported.addAndGet(moved);
+        lastExportMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        lastExportAt = LocalDateTime.now();
+        return moved;
+    }
+
+    private void deleteFromArchive(long[] ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.length; from += properties.getFetchSize()) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(ids.length, from + properties.getFetchSize()))
+                    .boxed().toList();
+            deleted += jdbcTemplate.update("DELETE FROM bookings_archive WHERE id IN (:ids)", Map.of("ids", chunk));
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} exported bookings from the archive", deleted);
+        }
+    }
+
+    public ColdStorageStatsDto stats() {
+        List<ColdSegment> segments = coldStorage.segments();
+        return new ColdStorageStatsDto(
+                properties.isEnabled(),
+                segments.size(),
+                segments.stream().mapToLong(ColdSegment::rows).sum(),
+                segments.stream().mapToLong(ColdSegment::sizeBytes).sum(),
+                exported.get(),
+                lastExportMillis,
+                lastExportAt
+        );
+    }
+}
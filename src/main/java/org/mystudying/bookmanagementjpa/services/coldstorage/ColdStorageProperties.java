@@ -0,0 +1,74 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties(prefix = "app.cold-storage")
+public class ColdStorageProperties {
+
+    /**
+     * Move archived bookings out of the database into segment files in the background.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Where segment files are kept. They are the only copy of the bookings they hold: back them up.
+     */
+    private Path directory = Path.of("cold-storage");
+
+    /**
+     * Bookings per segment file.
+     */
+    private int segmentRows = 500_000;
+
+    /**
+     * Fewer archived bookings than this are left in the archive until the next run.
+     */
+    private int minSegmentRows = 10_000;
+
+    /**
+     * Archive rows read (and deleted) per statement.
+     */
+    private int fetchSize = 5_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public int getSegmentRows() {
+        return segmentRows;
+    }
+
+    public void setSegmentRows(int segmentRows) {
+        this.segmentRows = segmentRows;
+    }
+
+    public int getMinSegmentRows() {
+        return minSegmentRows;
+    }
+
+    public void setMinSegmentRows(int minSegmentRows) {
+        this.minSegmentRows = minSegmentRows;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
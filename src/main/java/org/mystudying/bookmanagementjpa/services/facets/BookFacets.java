@@ -0,0 +1,7 @@
+package org.mystudying.bookmanagementjpa.services.facets;
+
+/**
+ * The facet values of one book, as read by {@link FacetIndexLoader}.
+ */
+public record BookFacets(long id, int year, int available, long[] genreIds) {
+}
@@ -0,0 +1,399 @@
+package org.mystudying.bookmanagementjpa.services.facets;
+
+import org.mystudying.bookmanagementjpa.dto.FacetCountDto;
+import org.mystudying.bookmanagementjpa.dto.FacetIndexStatsDto;
+import org.mystudying.bookmanagementjpa.events.BookAvailabilityChangedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory postings for catalog facets: one {@link BitSet} per genre, per decade and for "available now",
+ * indexed by book id. Hits and counts for any combination of selected values are bit operations,
+ * so a query over a million books takes a few milliseconds and never touches the database.
+ * <p>
+ * Writes reach the index after commit through the catalog and availability events; they are coalesced
+ * per book and applied by {@link #flush()}. A periodic {@link #rebuild()} reloads everything, which also
+ * restores the title order of hits for books added or renamed since the last one.
+ * <p>
+ * Flushes and rebuilds take turns on their own lock and do their database reads outside the index lock,
+ * which they only hold to apply or swap; queries never wait behind a load.
+ * <p>
+ * Counts follow the usual multi-select rule: the counts of a facet ignore that facet's own selection,
+ * so picking "Fantasy" still shows how many books the other genres would add.
+ */
+@Component
+public class FacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetIndex.class);
+
+    private final FacetIndexLoader loader;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final Set<Long> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> pendingAvailability = new ConcurrentHashMap<>();
+    private final AtomicBoolean genreNamesChanged = new AtomicBoolean();
+    private final AtomicLong appliedUpdates = new AtomicLong();
+
+    private volatile Postings postings;
+    private volatile LocalDateTime builtAt;
+    private volatile long lastRebuildMillis;
+
+    public FacetIndex(FacetIndexLoader loader) {
+        this.loader = loader;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.aggregate() == CatalogAggregate.BOOKS) {
+            pendingRefresh.add(event.id());
+        } else if (event.aggregate() == CatalogAggregate.GENRES) {
+            genreNamesChanged.set(true);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        pendingAvailability.put(event.bookId(), event.available());
+    }
+
+    /**
+     * Runs at startup and then periodically; a failed build (database down) leaves the previous
+     * postings in place and is retried on first use.
+     */
+    @Scheduled(fixedDelayString = "${app.facets.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        try {
+            build();
+        } catch (RuntimeException e) {
+            log.warn("Facet index rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.facets.flush-interval-ms:250}")
+    public void flush() {
+        updateLock.lock();
+        try {
+            applyPending();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void applyPending() {
+        if (postings == null) {
+            return;
+        }
+        Map<Long, Integer> availability = new HashMap<>();
+        for (Long bookId : pendingAvailability.keySet()) {
+            Integer available = pendingAvailability.remove(bookId);
+            if (available != null) {
+                availability.put(bookId, available);
+            }
+        }
+        Set<Long> refresh = new HashSet<>();
+        for (Long bookId : pendingRefresh) {
+            pendingRefresh.remove(bookId);
+            refresh.add(bookId);
+        }
+        boolean reloadGenreNames = genreNamesChanged.getAndSet(false);
+        Map<Long, String> genreNames;
+        List<BookFacets> refreshed;
+        try {
+            genreNames = reloadGenreNames ? loader.loadGenreNames() : null;
+            refreshed = refresh.isEmpty() ? List.of() : loader.load(refresh);
+        } catch (RuntimeException e) {
+            requeue(availability, refresh, reloadGenreNames);
+            log.warn("Facet index flush failed, retrying: {}", e.getMessage());
+            return;
+        }
+        if (availability.isEmpty() && refresh.isEmpty() && genreNames == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            availability.forEach(postings::setAvailable);
+            for (Long bookId : refresh) {
+                postings.remove(bookId);
+            }
+            refreshed.forEach(postings::put);
+            if (genreNames != null) {
+                postings.genreNames = genreNames;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        appliedUpdates.addAndGet(availability.size() + refresh.size());
+    }
+
+    /**
+     * A count that arrived since the drain is newer than the drained one and is kept.
+     */
+    private void requeue(Map<Long, Integer> availability, Set<Long> refresh, boolean reloadGenreNames) {
+        availability.forEach(pendingAvailability::putIfAbsent);
+        pendingRefresh.addAll(refresh);
+        if (reloadGenreNames) {
+            genreNamesChanged.set(true);
+        }
+    }
+
+    public FacetResult search(FacetQuery query, int page, int size) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return postings.search(query, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FacetIndexStatsDto stats() {
+        lock.readLock().lock();
+        try {
+            return new FacetIndexStatsDto(
+                    postings != null,
+                    postings != null ? postings.live.cardinality() : 0,
+                    postings != null ? postings.genres.size() : 0,
+                    postings != null ? postings.decades.size() : 0,
+                    builtAt,
+                    lastRebuildMillis,
+                    appliedUpdates.get(),
+                    pendingRefresh.size() + pendingAvailability.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (postings != null) {
+            return;
+        }
+        updateLock.lock();
+        try {
+            if (postings == null) {
+                buildAndSwap();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Pending updates are kept: applying them once more on top of the fresh postings is harmless,
+     * and dropping them could lose a write that committed after the load.
+     */
+    private void build() {
+        updateLock.lock();
+        try {
+            buildAndSwap();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void buildAndSwap() {
+        long started = System.nanoTime();
+        List<BookFacets> books = loader.loadAll();
+        Postings fresh = new Postings(loader.loadGenreNames(), books.size());
+        books.forEach(fresh::put);
+
+        lock.writeLock().lock();
+        try {
+            postings = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        builtAt = LocalDateTime.now();
+        lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Facet index built: {} books, {} genres in {} ms", books.size(), fresh.genres.size(), lastRebuildMillis);
+    }
+
+    /**
+     * Not thread-safe; guarded by the index lock.
+     */
+    private static final class Postings {
+
+        private final BitSet live = new BitSet();
+        private final BitSet available = new BitSet();
+        private final Map<Long, BitSet> genres = new HashMap<>();
+        private final Map<Integer, BitSet> decades = new TreeMap<>();
+        private final BitSet ordered = new BitSet();
+        private Map<Long, String> genreNames;
+        // Book ids in title order as of the last rebuild, later additions appended
+        private int[] titleOrder;
+        private int orderSize;
+
+        private Postings(Map<Long, String> genreNames, int expectedBooks) {
+            this.genreNames = genreNames;
+            this.titleOrder = new int[Math.max(16, expectedBooks)];
+        }
+
+        private void put(BookFacets book) {
+            int doc = docOf(book.id());
+            remove(book.id());
+            live.set(doc);
+            available.set(doc, book.available() > 0);
+            decades.computeIfAbsent(decadeOf(book.year()), decade -> new BitSet()).set(doc);
+            for (long genreId : book.genreIds()) {
+                genres.computeIfAbsent(genreId, id -> new BitSet()).set(doc);
+            }
+            if (!ordered.get(doc)) {
+                ordered.set(doc);
+                if (orderSize == titleOrder.length) {
+                    titleOrder = Arrays.copyOf(titleOrder, orderSize * 2);
+                }
+                titleOrder[orderSize++] = doc;
+            }
+        }
+
+        private void remove(long bookId) {
+            int doc = docOf(bookId);
+            live.clear(doc);
+            available.clear(doc);
+            decades.values().forEach(posting -> posting.clear(doc));
+            genres.values().forEach(posting -> posting.clear(doc));
+        }
+
+        private void setAvailable(long bookId, int count) {
+            int doc = docOf(bookId);
+            if (live.get(doc)) {
+                available.set(doc, count > 0);
+            }
+        }
+
+        private FacetResult search(FacetQuery query, int page, int size) {
+            Set<Long> selectedGenres = query.genreIds() == null ? Set.of() : query.genreIds();
+            Set<Integer> selectedDecades = query.decades() == null ? Set.of() : query.decades();
+            BitSet genreFilter = union(genres, selectedGenres);
+            BitSet decadeFilter = union(decades, selectedDecades);
+            BitSet availabilityFilter = null;
+            if (query.available() != null) {
+                availabilityFilter = query.available() ? available : notAvailable();
+            }
+
+            BitSet hits = intersect(genreFilter, decadeFilter, availabilityFilter);
+            BitSet scratch = new BitSet(live.length());
+
+            BitSet genreBase = intersect(decadeFilter, availabilityFilter);
+            List<FacetCountDto> genreCounts = new ArrayList<>();
+            genres.forEach((genreId, posting) -> {
+                long count = countBoth(genreBase, posting, scratch);
+                boolean selected = selectedGenres.contains(genreId);
+                if (count > 0 || selected) {
+                    genreCounts.add(new FacetCountDto(genreId.toString(),
+                            genreNames.getOrDefault(genreId, "#" + genreId), count, selected));
+                }
+            });
+            genreCounts.sort(Comparator.comparingLong(FacetCountDto::count).reversed()
+                    .thenComparing(FacetCountDto::label));
+
+            BitSet decadeBase = intersect(genreFilter, availabilityFilter);
+            List<FacetCountDto> decadeCounts = new ArrayList<>();
+            decades.forEach((decade, posting) -> {
+                long count = countBoth(decadeBase, posting, scratch);
+                boolean selected = selectedDecades.contains(decade);
+                if (count > 0 || selected) {
+                    decadeCounts.add(new FacetCountDto(decade.toString(), decade + "s", count, selected));
+                }
+            });
+
+            BitSet availabilityBase = intersect(genreFilter, decadeFilter);
+            long availableNow = countBoth(availabilityBase, available, scratch);
+            long total = availabilityBase.cardinality();
+            List<FacetCountDto> availabilityCounts = List.of(
+                    new FacetCountDto("true", "Available now", availableNow, Boolean.TRUE.equals(query.available())),
+                    new FacetCountDto("false", "Checked out", total - availableNow, Boolean.FALSE.equals(query.available())));
+
+            return new FacetResult(page(hits, page, size), hits.cardinality(),
+                    genreCounts, decadeCounts, availabilityCounts);
+        }
+
+        private List<Long> page(BitSet hits, int page, int size) {
+            long skip = (long) page * size;
+            List<Long> bookIds = new ArrayList<>(size);
+            for (int i = 0; i < orderSize && bookIds.size() < size; i++) {
+                int doc = titleOrder[i];
+                if (hits.get(doc) && skip-- <= 0) {
+                    bookIds.add((long) doc);
+                }
+            }
+            return bookIds;
+        }
+
+        private BitSet notAvailable() {
+            BitSet result = (BitSet) live.clone();
+            result.andNot(available);
+            return result;
+        }
+
+        /**
+         * Live books matching every non-null filter.
+         */
+        private BitSet intersect(BitSet... filters) {
+            BitSet result = (BitSet) live.clone();
+            for (BitSet filter : filters) {
+                if (filter != null) {
+                    result.and(filter);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * OR of the postings of the selected values, or {@code null} when nothing is selected.
+         */
+        private static <K> BitSet union(Map<K, BitSet> postings, Set<K> selected) {
+            if (selected.isEmpty()) {
+                return null;
+            }
+            BitSet result = new BitSet();
+            for (K value : selected) {
+                BitSet posting = postings.get(value);
+                if (posting != null) {
+                    result.or(posting);
+                }
+            }
+            return result;
+        }
+
+        private static long countBoth(BitSet a, BitSet b, BitSet scratch) {
+            scratch.clear();
+            scratch.or(a);
+            scratch.and(b);
+            return scratch.cardinality();
+        }
+
+        private static int decadeOf(int year) {
+            return Math.floorDiv(year, 10) * 10;
+        }
+
+        /**
+         * Book ids are the bit positions; ids beyond {@code int} range would need a mapping table.
+         */
+        private static int docOf(long bookId) {
+            return Math.toIntExact(bookId);
+        }
+    }
+}
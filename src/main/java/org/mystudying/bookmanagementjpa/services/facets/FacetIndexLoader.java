@@ -0,0 +1,67 @@
+package org.mystudying.bookmanagementjpa.services.facets;
+
+import org.mystudying.bookmanagementjpa.config.ReportingWorkload;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads facet values straight from {@code books} and {@code book_genres}: one grouped row per book,
+ * no entities.
+ */
+@Component
+public class FacetIndexLoader {
+
+    private static final String BOOKS = """
+            SELECT b.id, b.year, b.available, GROUP_CONCAT(bg.genre_id) AS genre_ids
+            FROM books b LEFT JOIN book_genres bg ON bg.book_id = b.id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public FacetIndexLoader(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Every book, in title order.
+     */
+    @ReportingWorkload
+    public List<BookFacets> loadAll() {
+        return jdbcTemplate.query(BOOKS + "GROUP BY b.id ORDER BY b.title, b.id", this::toBookFacets);
+    }
+
+    /**
+     * The given books; ids that no longer exist are simply missing from the result.
+     */
+    @ReportingWorkload
+    public List<BookFacets> load(Collection<Long> bookIds) {
+        return jdbcTemplate.query(BOOKS + "WHERE b.id IN (:ids) GROUP BY b.id",
+                Map.of("ids", bookIds), this::toBookFacets);
+    }
+
+    public Map<Long, String> loadGenreNames() {
+        Map<Long, String> names = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM genres", rs -> {
+            names.put(rs.getLong("id"), rs.getString("name"));
+        });
+        return names;
+    }
+
+    private BookFacets toBookFacets(ResultSet rs, int rowNum) throws SQLException {
+        String genreIds = rs.getString("genre_ids");
+        return new BookFacets(
+                rs.getLong("id"),
+                rs.getInt("year"),
+                rs.getInt("available"),
+                genreIds == null ? new long[0] : Arrays.stream(genreIds.split(",")).mapToLong(Long::parseLong).toArray());
+    }
+}
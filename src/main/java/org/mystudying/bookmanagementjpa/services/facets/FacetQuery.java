@@ -0,0 +1,10 @@
+package org.mystudying.bookmanagementjpa.services.facets;
+
+import java.util.Set;
+
+/**
+ * Selected facet values. Values of one facet are OR-ed, facets are AND-ed; {@code null} or empty
+ * means the facet is not restricted.
+ */
+public record FacetQuery(Set<Long> genreIds, Set<Integer> decades, Boolean available) {
+}
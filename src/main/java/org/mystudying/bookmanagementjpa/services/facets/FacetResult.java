@@ -0,0 +1,17 @@
+package org.mystudying.bookmanagementjpa.services.facets;
+
+import org.mystudying.bookmanagementjpa.dto.FacetCountDto;
+
+import java.util.List;
+
+/**
+ * Ids of the requested page of hits (title order) plus the counts per facet value.
+ */
+public record FacetResult(
+        List<Long> bookIds,
+        long totalHits,
+        List<FacetCountDto> genres,
+        List<FacetCountDto> decades,
+        List<FacetCountDto> availability
+) {
+}
@@ -0,0 +1,42 @@
+package org.mystudying.bookmanagementjpa.services.facets;
+
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.dto.FacetedSearchDto;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Facet counts and hit ids come from the {@link FacetIndex}; only the page of hits is read from the database.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FacetSearchService {
+
+    private final FacetIndex facetIndex;
+    private final BookRepository bookRepository;
+
+    public FacetSearchService(FacetIndex facetIndex, BookRepository bookRepository) {
+        this.facetIndex = facetIndex;
+        this.bookRepository = bookRepository;
+    }
+
+    public FacetedSearchDto search(FacetQuery query, int page, int size) {
+        FacetResult result = facetIndex.search(query, page, size);
+        List<BookDto> hits = List.of();
+        if (!result.bookIds().isEmpty()) {
+            Map<Long, BookDto> books = bookRepository.findDtosByIdIn(result.bookIds()).stream()
+                    .collect(Collectors.toMap(BookDto::id, Function.identity()));
+            // Keep the index order; a book deleted since the last flush is just left out
+            hits = result.bookIds().stream().map(books::get).filter(Objects::nonNull).toList();
+        }
+        return new FacetedSearchDto(hits, result.totalHits(), page, size,
+                result.genres(), result.decades(), result.availability());
+    }
+}
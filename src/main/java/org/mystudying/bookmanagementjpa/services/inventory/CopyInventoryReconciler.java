@@ -0,0 +1,76 @@
+package org.mystudying.bookmanagementjpa.services.inventory;
+
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.domain.BookCopy;
+import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.domain.CopyStatus;
+import org.mystudying.bookmanagementjpa.domain.Hold;
+import org.mystudying.bookmanagementjpa.repositories.BookCopyRepository;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.mystudying.bookmanagementjpa.repositories.BookingRepository;
+import org.mystudying.bookmanagementjpa.repositories.HoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings {@code book_copies} in line with the counter model on startup in copies mode, so the mode can be
+ * switched either way: a copy per active loan and READY hold, copies freed by returns made in counter mode
+ * put back on the shelf, and as many free copies as {@code books.available} says. One transaction per book.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.inventory", name = "mode", havingValue = "copies")
+public class CopyInventoryReconciler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CopyInventoryReconciler.class);
+
+    private final BookRepository bookRepository;
+    private final BookingRepository bookingRepository;
+    private final HoldRepository holdRepository;
+    private final BookCopyRepository copyRepository;
+    private final CopyInventoryStrategy inventory;
+    private final TransactionTemplate transactionTemplate;
+
+    public CopyInventoryReconciler(BookRepository bookRepository, BookingRepository bookingRepository,
+                                   HoldRepository holdRepository, BookCopyRepository copyRepository,
+                                   CopyInventoryStrategy inventory, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.bookingRepository = bookingRepository;
+        this.holdRepository = holdRepository;
+        this.copyRepository = copyRepository;
+        this.inventory = inventory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int books = 0;
+        for (Long bookId : bookRepository.findAllIds()) {
+            transactionTemplate.executeWithoutResult(status -> reconcile(bookId));
+            books++;
+        }
+        log.info("Reconciled copies of {} books", books);
+    }
+
+    private void reconcile(long bookId) {
+        Book book = bookRepository.findAndLockById(bookId).orElse(null);
+        if (book == null) {
+            return;
+        }
+        copyRepository.shelveOrphanedCopies(bookId);
+        for (Booking booking : bookingRepository.findActiveWithoutCopy(bookId)) {
+            booking.setCopy(copyRepository.save(inventory.newCopy(book, CopyStatus.ON_LOAN)));
+        }
+        for (Hold hold : holdRepository.findReadyWithoutCopy(bookId)) {
+            BookCopy copy = inventory.newCopy(book, CopyStatus.RESERVED);
+            copy.reserve(hold);
+            copyRepository.save(copy);
+        }
+        inventory.adjustStock(book, book.getAvailable());
+    }
+}
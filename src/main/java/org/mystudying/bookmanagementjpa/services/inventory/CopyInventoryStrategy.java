@@ -0,0 +1,196 @@
+package org.mystudying.bookmanagementjpa.services.inventory;
+
+import org.mystudying.bookmanagementjpa.domain.*;
+import org.mystudying.bookmanagementjpa.dto.BookAvailabilityDto;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.mystudying.bookmanagementjpa.exceptions.BookNotAvailableException;
+import org.mystudying.bookmanagementjpa.exceptions.BookNotFoundException;
+import org.mystudying.bookmanagementjpa.repositories.BookCopyRepository;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-copy inventory: a loan locks one {@code book_copies} row with {@code FOR UPDATE SKIP LOCKED},
+ * so concurrent renters of the same title claim different copies instead of queueing on the book row.
+ * <p>
+ * {@code books.available} is kept as a cached count for listings and filters: books whose copies changed
+ * are collected after commit and recounted in one statement per flush interval; each recount is announced
+ * as a change of the book, so tags over the cached count move on once it is up to date.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.inventory", name = "mode", havingValue = "copies")
+public class CopyInventoryStrategy implements InventoryStrategy, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CopyInventoryStrategy.class);
+
+    private final BookRepository bookRepository;
+    private final BookCopyRepository copyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Set<Long> staleCounts = ConcurrentHashMap.newKeySet();
+
+    public CopyInventoryStrategy(BookRepository bookRepository, BookCopyRepository copyRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.bookRepository = bookRepository;
+        this.copyRepository = copyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public InventoryProperties.Mode mode() {
+        return InventoryProperties.Mode.COPIES;
+    }
+
+    @Override
+    public Book loadForUpdate(long bookId) {
+        return bookRepository.findById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
+    }
+
+    @Override
+    public int available(Book book) {
+        return (int) copyRepository.countByBook_IdAndStatus(book.getId(), CopyStatus.AVAILABLE);
+    }
+
+    /**
+     * Counted from the copies, not from the cached {@code books.available}.
+     */
+    @Override
+    public List<BookAvailabilityDto> availability(Collection<Long> bookIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        bookIds.forEach(bookId -> counts.put(bookId, 0));
+        copyRepository.countByBookIdsAndStatus(bookIds, CopyStatus.AVAILABLE)
+                .forEach(count -> counts.put(count.bookId(), count.available()));
+        return counts.entrySet().stream()
+                .map(count -> new BookAvailabilityDto(count.getKey(), count.getValue()))
+                .toList();
+    }
+
+    @Override
+    public void lend(Book book, Booking booking) {
+        BookCopy copy = copyRepository.claimAvailable(book.getId())
+                .orElseThrow(() -> new BookNotAvailableException(book.getId()));
+        copy.lend();
+        booking.setCopy(copy);
+        countChanged(book);
+    }
+
+    @Override
+    public void lendReserved(Book book, Hold hold, Booking booking) {
+        BookCopy copy = copyRepository.findByHold_Id(hold.getId()).orElse(null);
+        if (copy == null) {
+            lend(book, booking);
+            return;
+        }
+        copy.lend();
+        booking.setCopy(copy);
+    }
+
+    @Override
+    public void giveBack(Book book, Booking booking) {
+        if (booking.getCopy() != null) {
+            booking.getCopy().shelve();
+        } else {
+            // Lent in counter mode and not reconciled yet
+            copyRepository.save(newCopy(book, CopyStatus.AVAILABLE));
+        }
+        countChanged(book);
+    }
+
+    @Override
+    public boolean reserve(Book book, Hold hold) {
+        return copyRepository.claimAvailable(book.getId())
+                .map(copy -> {
+                    copy.reserve(hold);
+                    countChanged(book);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    @Override
+    public void releaseReservation(Book book, Hold hold) {
+        copyRepository.findByHold_Id(hold.getId()).ifPresent(BookCopy::shelve);
+        countChanged(book);
+    }
+
+    @Override
+    public void adjustStock(Book book, int available) {
+        int current = available(book);
+        for (; current < available; current++) {
+            copyRepository.save(newCopy(book, CopyStatus.AVAILABLE));
+        }
+        for (; current > available; current--) {
+            BookCopy copy = copyRepository.claimAvailable(book.getId()).orElse(null);
+            if (copy == null) {
+                break;
+            }
+            copy.withdraw();
+        }
+        book.setAvailable(current);
+        countChanged(book);
+    }
+
+    BookCopy newCopy(Book book, CopyStatus status) {
+        String barcode = book.getId() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return new BookCopy(book, barcode, status, BookCopy.DEFAULT_BRANCH);
+    }
+
+    private void countChanged(Book book) {
+        long bookId = book.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            staleCounts.add(bookId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                staleCounts.add(bookId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.count-refresh-interval-ms:200}")
+    public void refreshAvailableCounts() {
+        if (staleCounts.isEmpty()) {
+            return;
+        }
+        List<Long> bookIds = new ArrayList<>(staleCounts);
+        staleCounts.removeAll(bookIds);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                copyRepository.refreshAvailableCounts(bookIds);
+                bookIds.forEach(bookId -> eventPublisher.publishEvent(new CatalogChangedEvent(CatalogAggregate.BOOKS, bookId)));
+            });
+        } catch (RuntimeException e) {
+            staleCounts.addAll(bookIds);
+            log.warn("Refreshing available counts of {} books failed, retrying: {}", bookIds.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshAvailableCounts();
+    }
+}
@@ -0,0 +1,100 @@
+package org.mystudying.bookmanagementjpa.services.inventory;
+
+import jakarta.persistence.EntityManager;
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.domain.Hold;
+import org.mystudying.bookmanagementjpa.dto.BookAvailabilityDto;
+import org.mystudying.bookmanagementjpa.exceptions.BookNotAvailableException;
+import org.mystudying.bookmanagementjpa.exceptions.BookNotFoundException;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@code books.available} as the stock. Loans, returns and reservations change it with one conditional
+ * {@code UPDATE} each instead of locking the book row up front, so the row is only locked from that
+ * statement to commit. The loaded book is refreshed afterwards and is never written from memory.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.inventory", name = "mode", havingValue = "counter", matchIfMissing = true)
+public class CounterInventoryStrategy implements InventoryStrategy {
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+
+    public CounterInventoryStrategy(BookRepository bookRepository, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public InventoryProperties.Mode mode() {
+        return InventoryProperties.Mode.COUNTER;
+    }
+
+    @Override
+    public Book loadForUpdate(long bookId) {
+        return bookRepository.findById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
+    }
+
+    @Override
+    public int available(Book book) {
+        return book.getAvailable();
+    }
+
+    @Override
+    public List<BookAvailabilityDto> availability(Collection<Long> bookIds) {
+        return bookRepository.findDtosByIdIn(bookIds).stream()
+                .map(book -> new BookAvailabilityDto(book.id(), book.available()))
+                .toList();
+    }
+
+    @Override
+    public void lend(Book book, Booking booking) {
+        if (!take(book)) {
+            throw new BookNotAvailableException(book.getId());
+        }
+    }
+
+    @Override
+    public void lendReserved(Book book, Hold hold, Booking booking) {
+        // Already taken out of the count when the hold became READY
+    }
+
+    @Override
+    public void giveBack(Book book, Booking booking) {
+        putBack(book);
+    }
+
+    @Override
+    public boolean reserve(Book book, Hold hold) {
+        return take(book);
+    }
+
+    @Override
+    public void releaseReservation(Book book, Hold hold) {
+        putBack(book);
+    }
+
+    @Override
+    public void adjustStock(Book book, int available) {
+        book.setAvailable(available);
+    }
+
+    private boolean take(Book book) {
+        if (bookRepository.takeAvailable(book.getId()) == 0) {
+            return false;
+        }
+        entityManager.refresh(book);
+        return true;
+    }
+
+    private void putBack(Book book) {
+        bookRepository.putBackAvailable(book.getId());
+        entityManager.refresh(book);
+    }
+}
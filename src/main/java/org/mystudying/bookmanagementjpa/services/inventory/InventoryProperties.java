@@ -0,0 +1,30 @@
+package org.mystudying.bookmanagementjpa.services.inventory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.inventory")
+public class InventoryProperties {
+
+    public enum Mode {
+        /**
+         * {@code books.available} is the stock; every loan and return changes it with one conditional
+         * {@code UPDATE} that also bumps the book's version, so the row is only locked from that statement to commit.
+         */
+        COUNTER,
+        /**
+         * One {@code book_copies} row per physical copy; renters claim different rows in parallel
+         * and {@code books.available} is a cached count.
+         */
+        COPIES
+    }
+
+    private Mode mode = Mode.COUNTER;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+}
@@ -0,0 +1,57 @@
+package org.mystudying.bookmanagementjpa.services.inventory;
+
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.domain.Hold;
+import org.mystudying.bookmanagementjpa.dto.BookAvailabilityDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * How copies of a book are taken and put back. All methods run inside the caller's transaction.
+ */
+public interface InventoryStrategy {
+
+    InventoryProperties.Mode mode();
+
+    /**
+     * Loads the book for a loan or a return, without locking it: the stock changes below are atomic.
+     */
+    Book loadForUpdate(long bookId);
+
+    int available(Book book);
+
+    /**
+     * Free copies of each book as committed, read fresh; books that no longer exist are left out.
+     */
+    List<BookAvailabilityDto> availability(Collection<Long> bookIds);
+
+    /**
+     * Takes a free copy for the booking.
+     *
+     * @throws org.mystudying.bookmanagementjpa.exceptions.BookNotAvailableException when there is none
+     */
+    void lend(Book book, Booking booking);
+
+    /**
+     * Lends the copy kept for a READY hold.
+     */
+    void lendReserved(Book book, Hold hold, Booking booking);
+
+    void giveBack(Book book, Booking booking);
+
+    /**
+     * Sets a free copy aside for the hold.
+     *
+     * @return false when no copy is free
+     */
+    boolean reserve(Book book, Hold hold);
+
+    void releaseReservation(Book book, Hold hold);
+
+    /**
+     * Brings the number of free copies to the given value (create, book update).
+     */
+    void adjustStock(Book book, int available);
+}
@@ -0,0 +1,32 @@
+package org.mystudying.bookmanagementjpa.services.outbox;
+
+import org.mystudying.bookmanagementjpa.domain.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes every event to the {@code booking-events} logger; route that logger to its own file
+ * to get an audit log.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.sinks.log", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LoggingOutboxEventSink implements OutboxEventSink {
+
+    private static final Logger auditLog = LoggerFactory.getLogger("booking-events");
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            auditLog.info("{} {}", event.getId(), event.getPayload());
+        }
+    }
+}
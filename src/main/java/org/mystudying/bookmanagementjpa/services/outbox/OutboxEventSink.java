@@ -0,0 +1,16 @@
+package org.mystudying.bookmanagementjpa.services.outbox;
+
+import org.mystudying.bookmanagementjpa.domain.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of outbox events. Delivery is at-least-once: a sink may see a batch again
+ * when a later sink of the same batch fails, so consumers should de-duplicate by event id.
+ */
+public interface OutboxEventSink {
+
+    String name();
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,76 @@
+package org.mystudying.bookmanagementjpa.services.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    /**
+     * Events claimed and delivered per batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Upper bound of batches drained per relay run, so a large backlog is worked off
+     * in bounded steps instead of one long transaction.
+     */
+    private int maxBatchesPerRun = 10;
+
+    /**
+     * How long a claimed batch is reserved for delivery; after that an unpublished batch is claimed
+     * again. Must exceed the slowest sink call.
+     */
+    private Duration lease = Duration.ofMinutes(1);
+
+    /**
+     * Back-off after a failed delivery doubles up to this value.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(1);
+
+    /**
+     * Published events are deleted after this period.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,131 @@
+package org.mystudying.bookmanagementjpa.services.outbox;
+
+import org.mystudying.bookmanagementjpa.domain.OutboxEvent;
+import org.mystudying.bookmanagementjpa.dto.OutboxStatsDto;
+import org.mystudying.bookmanagementjpa.repositories.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in the background, so the rent / return path only pays for one extra insert.
+ * <p>
+ * Back-pressure: work per run is bounded ({@code batch-size} x {@code max-batches-per-run}); a failing
+ * or slow sink stops the run and the relay backs off exponentially, while events keep accumulating
+ * safely in the table. Batches are delivered in id order and a failed batch is retried as a whole.
+ * <p>
+ * A batch is claimed in a short transaction that leases it ({@code lease}), delivered with no
+ * transaction or connection held, and marked published in a second short transaction. A relay that
+ * dies mid-delivery leaves the lease to expire, and the batch is delivered again (at least once).
+ * Without any sink the relay does nothing and events stay pending.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventSink> sinks;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failedDeliveries = new AtomicLong();
+    private volatile long lastBatchSize;
+    private volatile long lastBatchMillis;
+    private volatile Duration backoff = Duration.ZERO;
+    private volatile LocalDateTime backoffUntil;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxEventSink> sinks,
+                       OutboxProperties properties, PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        if (sinks.isEmpty()) {
+            log.warn("No outbox sink is enabled; booking events stay pending until one is configured");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        if (sinks.isEmpty() || backoffUntil != null && LocalDateTime.now().isBefore(backoffUntil)) {
+            return;
+        }
+        for (int i = 0; i < properties.getMaxBatchesPerRun(); i++) {
+            List<OutboxEvent> batch = transactionTemplate.execute(status -> claimNextBatch());
+            if (batch == null || batch.isEmpty() || !deliver(batch) || batch.size() < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private List<OutboxEvent> claimNextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(properties.getBatchSize(), now);
+        LocalDateTime leasedUntil = now.plus(properties.getLease());
+        batch.forEach(event -> event.lease(leasedUntil));
+        return batch;
+    }
+
+    private boolean deliver(List<OutboxEvent> batch) {
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        long start = System.nanoTime();
+        for (OutboxEventSink sink : sinks) {
+            try {
+                sink.deliver(batch);
+            } catch (Exception e) {
+                failedDeliveries.incrementAndGet();
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailedAttempt(ids));
+                backOff();
+                log.warn("Outbox sink '{}' failed for events {}..{}, retrying after {}: {}", sink.name(),
+                        ids.get(0), ids.get(ids.size() - 1), backoff, e.getMessage());
+                return false;
+            }
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.markPublished(ids, LocalDateTime.now()));
+        published.addAndGet(batch.size());
+        lastBatchSize = batch.size();
+        lastBatchMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        backoff = Duration.ZERO;
+        backoffUntil = null;
+        return true;
+    }
+
+    private void backOff() {
+        Duration next = backoff.isZero() ? INITIAL_BACKOFF : backoff.multipliedBy(2);
+        backoff = next.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : next;
+        backoffUntil = LocalDateTime.now().plus(backoff);
+    }
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    public void purgePublished() {
+        int deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(properties.getRetention())));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+
+    public OutboxStatsDto stats() {
+        return new OutboxStatsDto(
+                outboxEventRepository.countByPublishedAtIsNull(),
+                outboxEventRepository.findOldestUnpublishedCreatedAt().orElse(null),
+                published.get(),
+                failedDeliveries.get(),
+                lastBatchSize,
+                lastBatchMillis,
+                backoffUntil
+        );
+    }
+}
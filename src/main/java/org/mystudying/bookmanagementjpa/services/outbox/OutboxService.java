@@ -0,0 +1,51 @@
+package org.mystudying.bookmanagementjpa.services.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.domain.OutboxEvent;
+import org.mystudying.bookmanagementjpa.domain.OutboxEventType;
+import org.mystudying.bookmanagementjpa.dto.BookingEventDto;
+import org.mystudying.bookmanagementjpa.repositories.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stores the event in the caller's transaction: it is published if and only if the booking change commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEventType type, Booking booking) {
+        LocalDateTime now = LocalDateTime.now();
+        var payload = new BookingEventDto(
+                type,
+                booking.getId(),
+                booking.getUser().getId(),
+                booking.getBook().getId(),
+                booking.getBorrowedAt(),
+                booking.getDueAt(),
+                booking.getReturnedAt(),
+                booking.getFine(),
+                booking.isFinePaid(),
+                now
+        );
+        try {
+            outboxEventRepository.save(new OutboxEvent(type, booking.getId(), objectMapper.writeValueAsString(payload), now));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize booking event " + type + " of booking " + booking.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.mystudying.bookmanagementjpa.services.outbox;
+
+import org.mystudying.bookmanagementjpa.domain.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * POSTs each batch as a JSON array of {@code {"id": ..., "event": {...}}} to {@code app.outbox.sinks.webhook.url}.
+ * Any non-2xx answer fails the batch, which is then retried with back-off.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.sinks.webhook", name = "url")
+public class WebhookOutboxEventSink implements OutboxEventSink {
+
+    private final RestClient restClient;
+
+    public WebhookOutboxEventSink(RestClient.Builder builder, @Value("${app.outbox.sinks.webhook.url}") String url) {
+        var requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(2_000);
+        requestFactory.setReadTimeout(5_000);
+        this.restClient = builder.baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        String body = events.stream()
+                .map(event -> "{\"id\":" + event.getId() + ",\"event\":" + event.getPayload() + "}")
+                .collect(Collectors.joining(",", "[", "]"));
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,133 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.mystudying.bookmanagementjpa.dto.BookingAggregatesDto;
+import org.mystudying.bookmanagementjpa.dto.OverdueDayDto;
+import org.mystudying.bookmanagementjpa.exceptions.ReportCancelledException;
+import org.mystudying.bookmanagementjpa.services.reports.BookingRangeQueries.IdRange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Whole-table booking aggregates, computed in parallel: the id space is cut into ranges, each range is
+ * aggregated on its own reporting connection and the partial results are merged.
+ * <p>
+ * Parallelism defaults to the reporting pool size, so one aggregate can use every reporting connection
+ * but never competes with rent and return. There are a few ranges per thread, so a range that happens
+ * to be dense (ids are not spread evenly) does not leave the other threads idle at the end.
+ */
+@Service
+public class BookingAggregateService implements DisposableBean {
+
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final BookingRangeQueries rangeQueries;
+    private final int parallelism;
+    private final long minRangeSize;
+    private final ExecutorService executor;
+
+    @Autowired
+    public BookingAggregateService(BookingRangeQueries rangeQueries,
+                                   @Qualifier("reportingDataSource") ObjectProvider<HikariDataSource> reportingDataSource,
+                                   @Value("${app.reports.aggregate-parallelism:0}") int parallelism,
+                                   @Value("${app.reports.min-range-size:10000}") long minRangeSize) {
+        this(rangeQueries, parallelism > 0 ? parallelism : poolSize(reportingDataSource.getIfAvailable()), minRangeSize);
+    }
+
+    BookingAggregateService(BookingRangeQueries rangeQueries, int parallelism, long minRangeSize) {
+        this.rangeQueries = rangeQueries;
+        this.parallelism = parallelism;
+        this.minRangeSize = minRangeSize;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * @param cancellation ranges not started yet are skipped once the report is abandoned, running ones
+     *                     are killed
+     */
+    public BookingAggregatesDto aggregate(QueryCancellation cancellation) {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        List<IdRange> ranges = rangeQueries.idBounds()
+                .map(bounds -> split(bounds, Math.max(1, parallelism * RANGES_PER_THREAD), minRangeSize))
+                .orElse(List.of());
+
+        List<Future<BookingTotals>> partials = new ArrayList<>(ranges.size());
+        for (IdRange range : ranges) {
+            partials.add(executor.submit(() -> {
+                if (cancellation.isCancelled()) {
+                    throw new ReportCancelledException();
+                }
+                return rangeQueries.totals(range, today, cancellation);
+            }));
+        }
+        BookingTotals totals = BookingTotals.EMPTY;
+        try {
+            for (Future<BookingTotals> partial : partials) {
+                totals = totals.merge(partial.get());
+            }
+        } catch (ExecutionException e) {
+            partials.forEach(partial -> partial.cancel(false));
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            partials.forEach(partial -> partial.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new ReportCancelledException();
+        }
+        return toDto(totals, today, ranges.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Cuts {@code bounds} into at most {@code maxRanges} ranges of about equal id span, none smaller than
+     * {@code minRangeSize} ids (except the only one).
+     */
+    static List<IdRange> split(IdRange bounds, int maxRanges, long minRangeSize) {
+        long span = bounds.to() - bounds.from() + 1;
+        int count = (int) Math.max(1, Math.min(maxRanges, span / Math.max(1, minRangeSize)));
+        long size = (span + count - 1) / count;
+        List<IdRange> ranges = new ArrayList<>(count);
+        for (long from = bounds.from(); from <= bounds.to(); from += size) {
+            ranges.add(new IdRange(from, Math.min(bounds.to(), from + size - 1)));
+        }
+        return ranges;
+    }
+
+    private BookingAggregatesDto toDto(BookingTotals totals, LocalDate today, int ranges, long elapsedMillis) {
+        List<OverdueDayDto> overdue = new ArrayList<>(totals.overdueByDueDate().size());
+        BigDecimal accruingFines = BigDecimal.ZERO;
+        for (var day : totals.overdueByDueDate().entrySet()) {
+            overdue.add(new OverdueDayDto(day.getKey(), day.getValue()));
+            // $1 per overdue day, as Booking.calculateFine()
+            accruingFines = accruingFines.add(
+                    BigDecimal.valueOf(ChronoUnit.DAYS.between(day.getKey(), today) * day.getValue()));
+        }
+        return new BookingAggregatesDto(today, totals.bookings(), totals.activeBookings(), totals.overdueBookings(),
+                totals.fines(), totals.unpaidFines(), accruingFines, overdue, ranges, parallelism, elapsedMillis);
+    }
+
+    /**
+     * Without a reporting pool the aggregate runs on the primary pool, one range at a time.
+     */
+    private static int poolSize(HikariDataSource reportingDataSource) {
+        return reportingDataSource != null ? reportingDataSource.getMaximumPoolSize() : 1;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
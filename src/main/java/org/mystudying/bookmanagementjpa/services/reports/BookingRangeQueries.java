@@ -0,0 +1,88 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import org.mystudying.bookmanagementjpa.config.ReportingWorkload;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Aggregate queries over a slice of the {@code bookings} id space. Each call runs on its own
+ * reporting connection, so slices of one report can be evaluated side by side.
+ */
+@Component
+public class BookingRangeQueries {
+
+    private static final String TOTALS = """
+            SELECT COUNT(*) AS bookings,
+                   COALESCE(SUM(returned_at IS NULL), 0) AS active_bookings,
+                   COALESCE(SUM(fine), 0) AS fines,
+                   COALESCE(SUM(CASE WHEN fine_paid THEN 0 ELSE fine END), 0) AS unpaid_fines
+            FROM bookings
+            WHERE id BETWEEN :from AND :to
+            """;
+    private static final String OVERDUE_BY_DUE_DATE = """
+            SELECT due_at, COUNT(*) AS bookings
+            FROM bookings
+            WHERE id BETWEEN :from AND :to AND returned_at IS NULL AND due_at < :today
+            GROUP BY due_at
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BookingRangeQueries(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        // Same budget as the aggregate reports in BookingRepository, per range
+        this.jdbcTemplate.getJdbcTemplate().setQueryTimeout(30);
+    }
+
+    /**
+     * Lowest and highest booking id; empty when there are no bookings.
+     */
+    @ReportingWorkload
+    public Optional<IdRange> idBounds() {
+        return jdbcTemplate.query("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM bookings", rs -> {
+            rs.next();
+            long min = rs.getLong("min_id");
+            return rs.wasNull() ? Optional.<IdRange>empty() : Optional.of(new IdRange(min, rs.getLong("max_id")));
+        });
+    }
+
+    /**
+     * @param cancellation the range's connection is bound while its queries run, so abandoning the
+     *                     report kills them
+     */
+    @ReportingWorkload
+    @Transactional(readOnly = true)
+    public BookingTotals totals(IdRange range, LocalDate today, QueryCancellation cancellation) {
+        long connectionId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT CONNECTION_ID()", Long.class);
+        cancellation.bind(connectionId);
+        try {
+            Map<String, Object> params = Map.of("from", range.from(), "to", range.to(), "today", today);
+            TreeMap<LocalDate, Long> overdue = new TreeMap<>();
+            jdbcTemplate.query(OVERDUE_BY_DUE_DATE, params, (RowCallbackHandler) rs ->
+                    overdue.put(rs.getDate("due_at").toLocalDate(), rs.getLong("bookings")));
+            return jdbcTemplate.queryForObject(TOTALS, params, (rs, rowNum) -> new BookingTotals(
+                    rs.getLong("bookings"),
+                    rs.getLong("active_bookings"),
+                    rs.getBigDecimal("fines"),
+                    rs.getBigDecimal("unpaid_fines"),
+                    Collections.unmodifiableSortedMap(overdue)));
+        } finally {
+            cancellation.release(connectionId);
+        }
+    }
+
+    /**
+     * Booking ids {@code from} to {@code to}, both included.
+     */
+    public record IdRange(long from, long to) {
+    }
+}
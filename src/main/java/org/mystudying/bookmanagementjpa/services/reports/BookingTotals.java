@@ -0,0 +1,39 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Booking aggregates over one id range; ranges are combined with {@link #merge}.
+ *
+ * @param overdueByDueDate not yet returned bookings past their due date, counted per due date
+ */
+public record BookingTotals(
+        long bookings,
+        long activeBookings,
+        BigDecimal fines,
+        BigDecimal unpaidFines,
+        SortedMap<LocalDate, Long> overdueByDueDate
+) {
+
+    public static final BookingTotals EMPTY =
+            new BookingTotals(0, 0, BigDecimal.ZERO, BigDecimal.ZERO, Collections.emptySortedMap());
+
+    public BookingTotals merge(BookingTotals other) {
+        SortedMap<LocalDate, Long> overdue = new TreeMap<>(overdueByDueDate);
+        other.overdueByDueDate.forEach((dueAt, count) -> overdue.merge(dueAt, count, Long::sum));
+        return new BookingTotals(
+                bookings + other.bookings,
+                activeBookings + other.activeBookings,
+                fines.add(other.fines),
+                unpaidFines.add(other.unpaidFines),
+                Collections.unmodifiableSortedMap(overdue));
+    }
+
+    public long overdueBookings() {
+        return overdueByDueDate.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,52 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import org.mystudying.bookmanagementjpa.exceptions.ReportCancelledException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Lets another thread stop the statement a report is running. The report binds the MySQL connection id
+ * it runs on and calls {@link #finish()} before giving the connection back; {@link #cancel} only kills
+ * while the report still owns the connection, so it can never hit a query of whoever gets it next.
+ * A report running on several connections at once binds each and {@link #release releases} each before
+ * giving it back.
+ */
+public final class QueryCancellation {
+
+    private final Set<Long> connectionIds = new HashSet<>();
+    private boolean cancelled;
+    private boolean finished;
+
+    public synchronized void bind(long connectionId) {
+        if (cancelled) {
+            throw new ReportCancelledException();
+        }
+        connectionIds.add(connectionId);
+    }
+
+    public synchronized void release(long connectionId) {
+        connectionIds.remove(connectionId);
+    }
+
+    public synchronized void finish() {
+        finished = true;
+        connectionIds.clear();
+    }
+
+    /**
+     * @param killQuery kills the statement running on the given connection id; called for every bound one
+     */
+    public synchronized void cancel(LongConsumer killQuery) {
+        if (cancelled || finished) {
+            return;
+        }
+        cancelled = true;
+        connectionIds.forEach(killQuery::accept);
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
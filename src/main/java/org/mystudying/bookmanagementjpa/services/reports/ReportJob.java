@@ -0,0 +1,73 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import org.mystudying.bookmanagementjpa.dto.ReportJobDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobRequestDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * State of one report job; written by the worker, read by pollers.
+ */
+final class ReportJob {
+
+    private final String id;
+    private final ReportJobRequestDto request;
+    private final LocalDateTime createdAt;
+    private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+    private volatile long rows;
+    private volatile LocalDateTime finishedAt;
+    private volatile LocalDateTime expiresAt;
+    private volatile String error;
+
+    ReportJob(String id, ReportJobRequestDto request, LocalDateTime createdAt) {
+        this.id = id;
+        this.request = request;
+        this.createdAt = createdAt;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ReportJobRequestDto request() {
+        return request;
+    }
+
+    ReportJobStatus status() {
+        return status;
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        LocalDateTime expiry = expiresAt;
+        return expiry != null && !now.isBefore(expiry);
+    }
+
+    void running() {
+        status = ReportJobStatus.RUNNING;
+    }
+
+    void done(long rows, LocalDateTime now, Duration ttl) {
+        this.rows = rows;
+        finish(ReportJobStatus.DONE, now, ttl);
+    }
+
+    void failed(String error, LocalDateTime now, Duration ttl) {
+        this.error = error;
+        finish(ReportJobStatus.FAILED, now, ttl);
+    }
+
+    private void finish(ReportJobStatus status, LocalDateTime now, Duration ttl) {
+        this.finishedAt = now;
+        this.expiresAt = now.plus(ttl);
+        this.status = status;
+    }
+
+    ReportJobDto toDto() {
+        ReportJobStatus current = status;
+        return new ReportJobDto(id, request.type(), request.days(), request.minActiveBooks(), request.includeArchived(),
+                current, rows, createdAt, finishedAt, expiresAt,
+                current == ReportJobStatus.DONE ? "/api/reports/jobs/" + id + "/result" : null, error);
+    }
+}
@@ -0,0 +1,75 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.report-jobs")
+public class ReportJobProperties {
+
+    /**
+     * Reports computed at the same time.
+     */
+    private int threads = 2;
+
+    /**
+     * Jobs waiting for a thread; beyond that new jobs are refused.
+     */
+    private int queueCapacity = 10;
+
+    /**
+     * Where finished reports are written (gzip-compressed JSON).
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "booksmarket-reports");
+
+    /**
+     * How long a finished report is kept and handed out again for the same parameters.
+     */
+    private Duration ttl = Duration.ofHours(1);
+
+    /**
+     * Rows fetched per query while writing a report.
+     */
+    private int pageSize = 1000;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
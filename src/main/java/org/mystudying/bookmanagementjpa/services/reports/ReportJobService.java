@@ -0,0 +1,203 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mystudying.bookmanagementjpa.dto.BookingReportDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobRequestDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobStatus;
+import org.mystudying.bookmanagementjpa.exceptions.ArchiveNotSupportedException;
+import org.mystudying.bookmanagementjpa.exceptions.ReportJobNotFoundException;
+import org.mystudying.bookmanagementjpa.exceptions.ReportJobNotReadyException;
+import org.mystudying.bookmanagementjpa.exceptions.TooManyReportJobsException;
+import org.mystudying.bookmanagementjpa.services.BookingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full booking reports computed in the background and written to disk as gzip-compressed JSON.
+ * <p>
+ * A job is identified by its parameters: while one is queued or running, and for {@code ttl} after it
+ * finished, asking for the same report returns that job instead of computing it again. Jobs beyond
+ * the queue capacity are refused rather than piling up. Expired results are deleted by {@link #expire()}.
+ */
+@Service
+public class ReportJobService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final ReportJobProperties properties;
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ReportJob> jobsById = new ConcurrentHashMap<>();
+    private final Map<ReportJobRequestDto, ReportJob> jobsByRequest = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReportJobService(BookingService bookingService, ObjectMapper objectMapper, ReportJobProperties properties) {
+        this(bookingService, objectMapper, properties, Clock.systemDefaultZone());
+    }
+
+    ReportJobService(BookingService bookingService, ObjectMapper objectMapper, ReportJobProperties properties,
+                     Clock clock) {
+        this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.clock = clock;
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()));
+    }
+
+    /**
+     * The job computing this report: an existing one for the same parameters, or a new one.
+     *
+     * @throws ArchiveNotSupportedException for {@code includeArchived} on a type without archive
+     */
+    public ReportJobDto submit(ReportJobRequestDto request) {
+        BookingService.requireArchiveSupport(request.type(), request.includeArchived());
+        ReportJob[] created = new ReportJob[1];
+        ReportJob job = jobsByRequest.compute(request, (key, existing) -> {
+            if (existing != null && existing.status() != ReportJobStatus.FAILED && !existing.isExpired(now())) {
+                return existing;
+            }
+            created[0] = new ReportJob(UUID.randomUUID().toString(), key, now());
+            return created[0];
+        });
+        if (created[0] != null) {
+            jobsById.put(job.id(), job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobsById.remove(job.id());
+                jobsByRequest.remove(request, job);
+                throw new TooManyReportJobsException(properties.getQueueCapacity());
+            }
+        }
+        return job.toDto();
+    }
+
+    public ReportJobDto find(String id) {
+        return job(id).toDto();
+    }
+
+    /**
+     * The gzip-compressed result of a finished job.
+     */
+    public Path result(String id) {
+        ReportJob job = job(id);
+        if (job.status() != ReportJobStatus.DONE) {
+            throw new ReportJobNotReadyException(id);
+        }
+        return file(job);
+    }
+
+    @Scheduled(fixedDelayString = "${app.report-jobs.expire-interval-ms:60000}")
+    public void expire() {
+        LocalDateTime now = now();
+        for (ReportJob job : jobsById.values()) {
+            if (job.isExpired(now)) {
+                jobsById.remove(job.id());
+                jobsByRequest.remove(job.request(), job);
+                delete(file(job));
+            }
+        }
+    }
+
+    private void run(ReportJob job) {
+        job.running();
+        Path target = file(job);
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            Files.createDirectories(properties.getDirectory());
+            long rows;
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                rows = write(job.request(), out);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.done(rows, now(), properties.getTtl());
+            log.info("Report job {} ({}) done: {} rows", job.id(), job.request().type(), rows);
+        } catch (IOException | RuntimeException e) {
+            delete(partial);
+            job.failed(e.getMessage(), now(), properties.getTtl());
+            log.warn("Report job {} ({}) failed: {}", job.id(), job.request().type(), e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the report as one JSON array in keyset chunks of {@code page-size} rows; rows are never all
+     * in memory, and a booking added or removed meanwhile cannot shift the chunks.
+     */
+    private long write(ReportJobRequestDto request, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartArray();
+            long afterId = 0;
+            List<BookingReportDto> chunk;
+            do {
+                chunk = bookingService.getBookingReportAfter(request.type(), request.days(), request.minActiveBooks(),
+                        request.includeArchived(), afterId, properties.getPageSize());
+                for (BookingReportDto row : chunk) {
+                    json.writeObject(row);
+                    rows++;
+                }
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).bookingId();
+                }
+            } while (chunk.size() == properties.getPageSize());
+            json.writeEndArray();
+        }
+        return rows;
+    }
+
+    private ReportJob job(String id) {
+        ReportJob job = jobsById.get(id);
+        if (job == null || job.isExpired(now())) {
+            throw new ReportJobNotFoundException(id);
+        }
+        return job;
+    }
+
+    private Path file(ReportJob job) {
+        return properties.getDirectory().resolve(job.id() + ".json.gz");
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
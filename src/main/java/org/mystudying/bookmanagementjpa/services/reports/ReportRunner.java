@@ -0,0 +1,131 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.mystudying.bookmanagementjpa.exceptions.TooManyReportsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Runs reports off the request thread and stops them when nobody waits for the answer any more.
+ * The servlet container reports a client that disconnects during async processing as an error on the
+ * {@link DeferredResult}; that, or the result timing out, kills the running statement with
+ * {@code KILL QUERY}, so MySQL stops working and the connection goes back to the pool.
+ * <p>
+ * Reports run on the reporting pool, so the kill is sent to the reporting server (the primary when the
+ * reporting pool is disabled): a connection id only means something on the server that issued it. The
+ * kill uses a connection of its own rather than a pooled one, as the reports being killed may well hold
+ * all of them. Reports beyond the queue capacity are refused rather than piling up.
+ */
+@Service
+public class ReportRunner implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportRunner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate killJdbcTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final AtomicLong killedQueries = new AtomicLong();
+
+    @Autowired
+    public ReportRunner(DataSource dataSource,
+                        @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                        @Qualifier("reportingDataSource") ObjectProvider<HikariDataSource> reportingDataSource,
+                        @Value("${app.reports.threads:3}") int threads,
+                        @Value("${app.reports.queue-capacity:20}") int queueCapacity,
+                        @Value("${app.reports.timeout-ms:60000}") long timeoutMillis) {
+        this(dataSource, killDataSource(reportingDataSource.getIfAvailable(() -> primaryDataSource)),
+                threads, queueCapacity, timeoutMillis);
+    }
+
+    ReportRunner(DataSource dataSource, DataSource killDataSource, int threads, int queueCapacity, long timeoutMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.killJdbcTemplate = new JdbcTemplate(killDataSource);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @throws TooManyReportsException when the queue is full
+     */
+    public <T> DeferredResult<T> submit(Function<QueryCancellation, T> report) {
+        QueryCancellation cancellation = new QueryCancellation();
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.setResult(report.apply(cancellation));
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new TooManyReportsException(queueCapacity);
+        }
+        Runnable abandon = () -> {
+            // Still queued: never starts; running: its statement is killed
+            task.cancel(false);
+            cancellation.cancel(this::killQuery);
+        };
+        result.onTimeout(abandon);
+        result.onError(error -> abandon.run());
+        return result;
+    }
+
+    /**
+     * Binds the connection of the current transaction to the cancellation; call first thing in the
+     * transactional report method (the JPA transaction exposes its connection to JDBC templates).
+     * The method must be a {@code @ReportingWorkload}, so the id is one of the reporting server's.
+     */
+    public void bindCurrentConnection(QueryCancellation cancellation) {
+        cancellation.bind(jdbcTemplate.queryForObject("SELECT CONNECTION_ID()", Long.class));
+    }
+
+    public long killedQueries() {
+        return killedQueries.get();
+    }
+
+    void killQuery(long connectionId) {
+        killedQueries.incrementAndGet();
+        try {
+            killJdbcTemplate.execute("KILL QUERY " + connectionId);
+            log.info("Report abandoned, killed query on connection {}", connectionId);
+        } catch (RuntimeException e) {
+            log.warn("Could not kill query on connection {}: {}", connectionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Same server and account as the given pool, one plain connection per kill.
+     */
+    private static DataSource killDataSource(HikariDataSource pool) {
+        return new DriverManagerDataSource(pool.getJdbcUrl(), pool.getUsername(), pool.getPassword());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
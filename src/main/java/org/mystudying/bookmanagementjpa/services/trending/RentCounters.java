@@ -0,0 +1,153 @@
+package org.mystudying.bookmanagementjpa.services.trending;
+
+import org.mystudying.bookmanagementjpa.dto.TrendingWindow;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Rents per book in 5-minute buckets over the last week, with a running total per book for each
+ * {@link TrendingWindow}. A rent is added to its bucket and to every window; as time moves on,
+ * {@link #advance} subtracts the buckets that slid out of a window, so totals are never summed again
+ * from the buckets. Top-K is a bounded heap over a window's totals.
+ */
+class RentCounters {
+
+    static final Duration BUCKET = Duration.ofMinutes(5);
+    private static final long WEEK_BUCKETS = buckets(TrendingWindow.WEEK);
+    private static final Comparator<Map.Entry<Long, Long>> RANKING =
+            Map.Entry.<Long, Long>comparingByValue().thenComparing(Map.Entry.<Long, Long>comparingByKey().reversed());
+
+    private final Clock clock;
+    private final TreeMap<Long, Map<Long, Long>> buckets = new TreeMap<>();
+    private final Map<Long, Map<Long, Long>> unflushed = new HashMap<>();
+    private final Map<TrendingWindow, Map<Long, Long>> totals = new EnumMap<>(TrendingWindow.class);
+    private long current;
+
+    RentCounters(Clock clock) {
+        this.clock = clock;
+        this.current = bucketOf(clock.instant());
+        for (TrendingWindow window : TrendingWindow.values()) {
+            totals.put(window, new HashMap<>());
+        }
+    }
+
+    synchronized void record(long bookId) {
+        advance();
+        add(buckets, current, bookId, 1);
+        add(unflushed, current, bookId, 1);
+        for (Map<Long, Long> windowTotals : totals.values()) {
+            windowTotals.merge(bookId, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Adds counts restored at startup; buckets outside the last week are ignored.
+     */
+    synchronized void load(long bucket, long bookId, long rents) {
+        advance();
+        if (bucket > current || bucket <= current - WEEK_BUCKETS) {
+            return;
+        }
+        add(buckets, bucket, bookId, rents);
+        for (TrendingWindow window : TrendingWindow.values()) {
+            if (bucket > current - buckets(window)) {
+                totals.get(window).merge(bookId, rents, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Moves to the current bucket, dropping what fell out of each window.
+     */
+    synchronized void advance() {
+        long now = bucketOf(clock.instant());
+        if (now <= current) {
+            return;
+        }
+        for (TrendingWindow window : TrendingWindow.values()) {
+            long size = buckets(window);
+            Map<Long, Long> windowTotals = totals.get(window);
+            for (Map<Long, Long> expired : buckets.subMap(current - size + 1, true, now - size, true).values()) {
+                expired.forEach((bookId, rents) ->
+                        windowTotals.computeIfPresent(bookId, (id, total) -> total - rents == 0 ? null : total - rents));
+            }
+        }
+        buckets.headMap(now - WEEK_BUCKETS, true).clear();
+        current = now;
+    }
+
+    /**
+     * The {@code k} most rented books of the window, most rented first (lower id first on a tie).
+     */
+    synchronized List<RentCount> top(TrendingWindow window, int k) {
+        PriorityQueue<Map.Entry<Long, Long>> heap = new PriorityQueue<>(k + 1, RANKING);
+        for (Map.Entry<Long, Long> entry : totals.get(window).entrySet()) {
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (RANKING.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<RentCount> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Map.Entry<Long, Long> entry = heap.poll();
+            top.add(0, new RentCount(entry.getKey(), entry.getValue()));
+        }
+        return top;
+    }
+
+    /**
+     * Rents recorded since the last call, per bucket; put them back with {@link #restore} if they
+     * could not be stored.
+     */
+    synchronized Map<Long, Map<Long, Long>> drainUnflushed() {
+        Map<Long, Map<Long, Long>> drained = new HashMap<>(unflushed);
+        unflushed.clear();
+        return drained;
+    }
+
+    synchronized void restore(Map<Long, Map<Long, Long>> drained) {
+        drained.forEach((bucket, rents) -> rents.forEach((bookId, count) -> add(unflushed, bucket, bookId, count)));
+    }
+
+    synchronized long currentBucket() {
+        return current;
+    }
+
+    /**
+     * First bucket of the window.
+     */
+    synchronized long windowStart(TrendingWindow window) {
+        return current - buckets(window) + 1;
+    }
+
+    static long bucketOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), BUCKET.toSeconds());
+    }
+
+    static Instant startOf(long bucket) {
+        return Instant.ofEpochSecond(bucket * BUCKET.toSeconds());
+    }
+
+    static long buckets(TrendingWindow window) {
+        return window.length().dividedBy(BUCKET);
+    }
+
+    private static void add(Map<Long, Map<Long, Long>> buckets, long bucket, long bookId, long rents) {
+        buckets.computeIfAbsent(bucket, b -> new HashMap<>()).merge(bookId, rents, Long::sum);
+    }
+
+    record RentCount(long bookId, long rents) {
+    }
+}
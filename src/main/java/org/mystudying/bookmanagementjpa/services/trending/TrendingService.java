@@ -0,0 +1,203 @@
+package org.mystudying.bookmanagementjpa.services.trending;
+
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.dto.TrendingBookDto;
+import org.mystudying.bookmanagementjpa.dto.TrendingBooksDto;
+import org.mystudying.bookmanagementjpa.dto.TrendingWindow;
+import org.mystudying.bookmanagementjpa.events.BookRentedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogReadModel;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogSnapshot;
+import org.mystudying.bookmanagementjpa.services.trending.RentCounters.RentCount;
+import org.mystudying.bookmanagementjpa.services.trending.TrendingStore.DailyRents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Most rented books over the last hour, day and week, without a {@code GROUP BY} over bookings.
+ * <p>
+ * Committed rents go into {@link RentCounters}; once a second the top books of each window are ranked
+ * and kept as ready-made answers, so a request only reads a reference. Counts are added to
+ * {@code book_rent_counts} every minute and the last week is reloaded from there on startup. Days from
+ * before anything was stored are counted from {@code bookings} once and stored as well; those only carry
+ * a date, so they land in the first bucket of their day. Titles come from the catalog snapshot, or else
+ * from one query for the ranked books not seen before.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    private final RentCounters counters;
+    private final TrendingStore store;
+    private final CatalogReadModel catalog;
+    private final BookRepository bookRepository;
+    private final Map<Long, String> titles = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final int topK;
+
+    private volatile boolean loaded;
+    private volatile Map<TrendingWindow, TrendingBooksDto> ranked = Map.of();
+
+    @Autowired
+    public TrendingService(TrendingStore store, CatalogReadModel catalog, BookRepository bookRepository,
+                           @Value("${app.trending.top-k:50}") int topK) {
+        this(store, catalog, bookRepository, topK, Clock.systemDefaultZone());
+    }
+
+    TrendingService(TrendingStore store, CatalogReadModel catalog, BookRepository bookRepository, int topK, Clock clock) {
+        this.counters = new RentCounters(clock);
+        this.store = store;
+        this.catalog = catalog;
+        this.bookRepository = bookRepository;
+        this.clock = clock;
+        this.topK = topK;
+    }
+
+    @TransactionalEventListener
+    public void onBookRented(BookRentedEvent event) {
+        counters.record(event.bookId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.aggregate() == CatalogAggregate.BOOKS) {
+            titles.remove(event.id());
+        }
+    }
+
+    /**
+     * @param limit at most {@code app.trending.top-k}
+     */
+    public TrendingBooksDto trending(TrendingWindow window, int limit) {
+        TrendingBooksDto books = ranked.get(window);
+        if (books == null) {
+            return new TrendingBooksDto(window, since(window), null, List.of());
+        }
+        if (books.books().size() <= limit) {
+            return books;
+        }
+        return new TrendingBooksDto(window, books.since(), books.refreshedAt(), books.books().subList(0, limit));
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:1000}")
+    public void refresh() {
+        counters.advance();
+        Map<TrendingWindow, List<RentCount>> top = new EnumMap<>(TrendingWindow.class);
+        for (TrendingWindow window : TrendingWindow.values()) {
+            top.put(window, counters.top(window, topK));
+        }
+        Function<Long, String> titleOf = titleLookup(top.values().stream()
+                .flatMap(List::stream)
+                .map(RentCount::bookId)
+                .collect(Collectors.toSet()));
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<TrendingWindow, TrendingBooksDto> refreshed = new EnumMap<>(TrendingWindow.class);
+        top.forEach((window, counts) -> refreshed.put(window, new TrendingBooksDto(window, since(window), now,
+                counts.stream()
+                        .map(count -> new TrendingBookDto(count.bookId(), titleOf.apply(count.bookId()), count.rents()))
+                        .toList())));
+        ranked = refreshed;
+    }
+
+    /**
+     * Titles from the snapshot when there is one; otherwise from the cache, filled by one query for
+     * the books it misses. A failed query leaves those titles empty until the next refresh.
+     */
+    private Function<Long, String> titleLookup(Set<Long> bookIds) {
+        Optional<CatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            return bookId -> snapshot.get().book(bookId).map(BookDto::title).orElse(null);
+        }
+        Set<Long> missing = bookIds.stream().filter(bookId -> !titles.containsKey(bookId)).collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            try {
+                bookRepository.findDtosByIdIn(missing).forEach(book -> titles.put(book.id(), book.title()));
+            } catch (RuntimeException e) {
+                log.warn("Loading titles of trending books failed: {}", e.getMessage());
+            }
+        }
+        return titles::get;
+    }
+
+    /**
+     * Runs at startup and then every minute; until the counts are loaded (database down) nothing is
+     * stored, so the load does not count those rents twice.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.flush-interval-ms:60000}")
+    public void flush() {
+        if (!loaded) {
+            try {
+                load();
+                loaded = true;
+            } catch (RuntimeException e) {
+                log.warn("Loading trending counts failed: {}", e.getMessage());
+                return;
+            }
+        }
+        Map<Long, Map<Long, Long>> rents = counters.drainUnflushed();
+        try {
+            if (!rents.isEmpty()) {
+                store.add(rents);
+            }
+            store.deleteBefore(counters.windowStart(TrendingWindow.WEEK));
+        } catch (RuntimeException e) {
+            counters.restore(rents);
+            log.warn("Storing trending counts failed, retrying: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads everything before applying anything, so a failed load can simply be retried.
+     */
+    private void load() {
+        long from = counters.windowStart(TrendingWindow.WEEK);
+        Map<Long, Map<Long, Long>> stored = store.loadBuckets(from);
+
+        LocalDate fromDate = LocalDate.ofInstant(RentCounters.startOf(from), clock.getZone());
+        LocalDate untilDate = stored.keySet().stream().min(Long::compare)
+                .map(first -> LocalDate.ofInstant(RentCounters.startOf(first), clock.getZone()))
+                .orElse(LocalDate.now(clock).plusDays(1));
+        List<DailyRents> daily = fromDate.isBefore(untilDate) ? store.loadFromBookings(fromDate, untilDate) : List.of();
+        Map<Long, Map<Long, Long>> rebuilt = new HashMap<>();
+        for (DailyRents rents : daily) {
+            long bucket = RentCounters.bucketOf(rents.borrowedAt().atStartOfDay(clock.getZone()).toInstant());
+            rebuilt.computeIfAbsent(Math.max(bucket, from), key -> new HashMap<>())
+                    .merge(rents.bookId(), rents.rents(), Long::sum);
+        }
+        // Stored, so the next startup finds these days in book_rent_counts instead of rebuilding them
+        if (!rebuilt.isEmpty()) {
+            store.add(rebuilt);
+        }
+
+        stored.forEach((bucket, rents) -> rents.forEach((bookId, count) -> counters.load(bucket, bookId, count)));
+        rebuilt.forEach((bucket, rents) -> rents.forEach((bookId, count) -> counters.load(bucket, bookId, count)));
+        log.info("Trending counts loaded: {} stored buckets, {} book-days from bookings", stored.size(), daily.size());
+        refresh();
+    }
+
+    private LocalDateTime since(TrendingWindow window) {
+        return LocalDateTime.ofInstant(RentCounters.startOf(counters.windowStart(window)), clock.getZone());
+    }
+
+}
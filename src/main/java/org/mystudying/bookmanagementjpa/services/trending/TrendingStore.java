@@ -0,0 +1,90 @@
+package org.mystudying.bookmanagementjpa.services.trending;
+
+import org.mystudying.bookmanagementjpa.config.ReportingWorkload;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC for the persisted rent buckets, and the fallback count from {@code bookings}.
+ * Buckets are passed around as indexes (see {@link RentCounters#bucketOf}).
+ */
+@Component
+public class TrendingStore {
+
+    private static final String UPSERT = """
+            INSERT INTO book_rent_counts (bucket_start, book_id, rents) VALUES (:bucketStart, :bookId, :rents)
+            ON DUPLICATE KEY UPDATE rents = rents + VALUES(rents)
+            """;
+    private static final String RENTS_PER_DAY = """
+            SELECT borrowed_at, book_id, COUNT(*) AS rents
+            FROM bookings
+            WHERE borrowed_at >= :from AND borrowed_at < :until
+            GROUP BY borrowed_at, book_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TrendingStore(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Rents per book for every stored bucket from {@code fromBucket} on.
+     */
+    public Map<Long, Map<Long, Long>> loadBuckets(long fromBucket) {
+        Map<Long, Map<Long, Long>> buckets = new HashMap<>();
+        jdbcTemplate.query("SELECT bucket_start, book_id, rents FROM book_rent_counts WHERE bucket_start >= :from",
+                Map.of("from", toDateTime(fromBucket)), (RowCallbackHandler) rs ->
+                        buckets.computeIfAbsent(toBucket(rs.getTimestamp("bucket_start").toLocalDateTime()),
+                                bucket -> new HashMap<>()).put(rs.getLong("book_id"), rs.getLong("rents")));
+        return buckets;
+    }
+
+    /**
+     * Rents per book and borrow date, from {@code from} up to (not including) {@code until}.
+     */
+    @ReportingWorkload
+    public List<DailyRents> loadFromBookings(LocalDate from, LocalDate until) {
+        return jdbcTemplate.query(RENTS_PER_DAY, Map.of("from", from, "until", until), (rs, rowNum) ->
+                new DailyRents(rs.getDate("borrowed_at").toLocalDate(), rs.getLong("book_id"), rs.getLong("rents")));
+    }
+
+    @Transactional
+    public void add(Map<Long, Map<Long, Long>> rentsPerBucket) {
+        List<SqlParameterSource> rows = new ArrayList<>();
+        rentsPerBucket.forEach((bucket, rents) -> rents.forEach((bookId, count) -> rows.add(new MapSqlParameterSource()
+                .addValue("bucketStart", toDateTime(bucket))
+                .addValue("bookId", bookId)
+                .addValue("rents", count))));
+        jdbcTemplate.batchUpdate(UPSERT, rows.toArray(SqlParameterSource[]::new));
+    }
+
+    public int deleteBefore(long bucket) {
+        return jdbcTemplate.update("DELETE FROM book_rent_counts WHERE bucket_start < :before",
+                Map.of("before", toDateTime(bucket)));
+    }
+
+    private static LocalDateTime toDateTime(long bucket) {
+        return LocalDateTime.ofInstant(RentCounters.startOf(bucket), ZoneOffset.UTC);
+    }
+
+    private static long toBucket(LocalDateTime bucketStart) {
+        return RentCounters.bucketOf(bucketStart.toInstant(ZoneOffset.UTC));
+    }
+
+    public record DailyRents(LocalDate borrowedAt, long bookId, long rents) {
+    }
+}
@@ -28,6 +28,22 @@ WHERE user_id IN (
         )
 );
 
+DELETE FROM fine_ledger
+WHERE user_id IN (
+    SELECT id FROM users
+    WHERE email IN (
+                    'alice@example.com',
+                    'bob@example.com',
+                    'charlie@example.com',
+                    'diana@example.com',
+                    'ethan@example.com',
+                    'fiona@example.com',
+                    'george@example.com',
+                    'hannah@example.com',
+                    'ian@example.com'
+        )
+);
+
 -- ============================================================
 -- ACTIVE (NOT OVERDUE) BOOKINGS
 -- ============================================================
@@ -192,4 +208,61 @@ VALUES
         NULL,
         3,
         FALSE
-    );
\ No newline at end of file
+    );
+
+-- ============================================================
+-- FINE LEDGER AND BALANCES FOR THE DEMO FINES
+-- ============================================================
+
+INSERT INTO fine_ledger (user_id, booking_id, entry_type, amount, created_at)
+SELECT user_id, id, 'ACCRUAL', fine, COALESCE(returned_at, borrowed_at)
+FROM bookings
+WHERE fine > 0 AND user_id IN (
+    SELECT id FROM users
+    WHERE email IN (
+                    'alice@example.com',
+                    'bob@example.com',
+                    'charlie@example.com',
+                    'diana@example.com',
+                    'ethan@example.com',
+                    'fiona@example.com',
+                    'george@example.com',
+                    'hannah@example.com',
+                    'ian@example.com'
+        )
+);
+
+INSERT INTO fine_ledger (user_id, booking_id, entry_type, amount, created_at)
+SELECT user_id, id, 'PAYMENT', -fine, COALESCE(returned_at, borrowed_at)
+FROM bookings
+WHERE fine > 0 AND fine_paid AND user_id IN (
+    SELECT id FROM users
+    WHERE email IN (
+                    'alice@example.com',
+                    'bob@example.com',
+                    'charlie@example.com',
+                    'diana@example.com',
+                    'ethan@example.com',
+                    'fiona@example.com',
+                    'george@example.com',
+                    'hannah@example.com',
+                    'ian@example.com'
+        )
+);
+
+INSERT INTO user_balances (user_id, balance, updated_at)
+SELECT u.id, COALESCE(SUM(l.amount), 0), NOW(6)
+FROM users u LEFT JOIN fine_ledger l ON l.user_id = u.id
+WHERE u.email IN (
+                    'alice@example.com',
+                    'bob@example.com',
+                    'charlie@example.com',
+                    'diana@example.com',
+                    'ethan@example.com',
+                    'fiona@example.com',
+                    'george@example.com',
+                    'hannah@example.com',
+                    'ian@example.com'
+    )
+GROUP BY u.id
+ON DUPLICATE KEY UPDATE balance = VALUES(balance), updated_at = VALUES(updated_at);
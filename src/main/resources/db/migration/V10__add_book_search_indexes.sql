@@ -0,0 +1,7 @@
+-- Indexes for the combined book search (/api/books/search).
+-- Title ordering drives pagination; year ranges and exact author names filter on their own index.
+-- book_genres(genre_id) is already covered by the index behind fk_book_genres_genre.
+
+CREATE INDEX idx_books_title ON books (title, id);
+CREATE INDEX idx_books_year ON books (year, title);
+CREATE INDEX idx_authors_name ON authors (name);
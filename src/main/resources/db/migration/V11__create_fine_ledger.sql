@@ -0,0 +1,41 @@
+-- Fine ledger: one append-only row per accrual (positive amount), payment or waiver (negative amount).
+-- user_balances holds the running sum per user and is updated in the same transaction as each entry,
+-- so "what does this user owe" is a primary-key read instead of a scan of their bookings.
+-- bookings.fine / fine_paid stay as the per-booking view.
+
+CREATE TABLE fine_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    booking_id BIGINT,
+    entry_type VARCHAR(20) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+
+    CONSTRAINT fk_fine_ledger_user FOREIGN KEY (user_id) REFERENCES users(id),
+    INDEX idx_fine_ledger_user (user_id, id),
+    INDEX idx_fine_ledger_booking (booking_id)
+);
+
+CREATE TABLE user_balances (
+    user_id BIGINT PRIMARY KEY,
+    balance DECIMAL(12,2) NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NOT NULL,
+
+    CONSTRAINT fk_user_balances_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Existing fines: an accrual on return, a payment for those already paid
+INSERT INTO fine_ledger (user_id, booking_id, entry_type, amount, created_at)
+SELECT user_id, id, 'ACCRUAL', fine, COALESCE(returned_at, borrowed_at)
+FROM bookings
+WHERE fine > 0;
+
+INSERT INTO fine_ledger (user_id, booking_id, entry_type, amount, created_at)
+SELECT user_id, id, 'PAYMENT', -fine, COALESCE(returned_at, borrowed_at)
+FROM bookings
+WHERE fine > 0 AND fine_paid;
+
+INSERT INTO user_balances (user_id, balance, updated_at)
+SELECT u.id, COALESCE(SUM(l.amount), 0), NOW(6)
+FROM users u LEFT JOIN fine_ledger l ON l.user_id = u.id
+GROUP BY u.id;
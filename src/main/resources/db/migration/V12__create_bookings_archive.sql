@@ -0,0 +1,26 @@
+-- Archive for returned, settled bookings past the retention period (moved by BookingArchiver in batches),
+-- so bookings only holds active loans and recent history. Same columns, keyed by the original id;
+-- reads include it only when asked (includeArchived).
+
+CREATE TABLE bookings_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    copy_id BIGINT,
+
+    borrowed_at DATE NOT NULL,
+    due_at DATE NOT NULL,
+    returned_at DATE NOT NULL,
+
+    fine DECIMAL(10,2) DEFAULT 0,
+    fine_paid BOOLEAN DEFAULT FALSE,
+    archived_at DATETIME(6) NOT NULL,
+
+    CONSTRAINT fk_bookings_archive_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT fk_bookings_archive_book FOREIGN KEY (book_id) REFERENCES books(id),
+    INDEX idx_bookings_archive_user (user_id, borrowed_at),
+    INDEX idx_bookings_archive_returned (returned_at, id)
+);
+
+-- Finds archival candidates without scanning the active loans
+CREATE INDEX idx_bookings_returned_at ON bookings (returned_at, id);
@@ -0,0 +1,11 @@
+-- Rents per book per 5-minute bucket (bucket_start in UTC) for the trending books view.
+-- The in-memory counters add to it every minute and reload the last week on startup;
+-- older buckets are deleted as they fall out of the week.
+
+CREATE TABLE book_rent_counts (
+    bucket_start DATETIME NOT NULL,
+    book_id BIGINT NOT NULL,
+    rents INT NOT NULL,
+
+    PRIMARY KEY (bucket_start, book_id)
+);
@@ -0,0 +1,5 @@
+-- OutboxRelay claims a batch by leasing it in a short transaction and delivers it after commit,
+-- so no row lock or connection is held during sink calls. Unpublished rows whose lease has
+-- expired (relay crashed mid-delivery) are claimed again.
+
+ALTER TABLE outbox_events ADD COLUMN leased_until DATETIME(6);
@@ -0,0 +1,4 @@
+-- Rebuilding trending counts from bookings groups one week of borrow dates by book;
+-- covers that range scan instead of reading the whole table.
+
+CREATE INDEX idx_bookings_borrowed_at ON bookings (borrowed_at, book_id);
@@ -0,0 +1,14 @@
+-- Transactional outbox for booking events (rent, return, fine payment).
+-- Rows are written in the same transaction as the booking change and drained by OutboxRelay.
+
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,
+    booking_id BIGINT NOT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    published_at DATETIME(6),
+    attempts INT NOT NULL DEFAULT 0,
+
+    INDEX idx_outbox_events_unpublished (published_at, id)
+);
@@ -0,0 +1,17 @@
+-- Hold (reservation) queue per book. WAITING holds are served in id order when a copy is returned;
+-- the copy is then reserved (READY) until the pickup deadline.
+
+CREATE TABLE holds (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    ready_at DATE,
+    pickup_deadline DATE,
+
+    CONSTRAINT fk_holds_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_holds_book FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE,
+    INDEX idx_holds_queue (book_id, status, id),
+    INDEX idx_holds_ready (status, pickup_deadline)
+);
@@ -0,0 +1,13 @@
+-- Responses of retried POSTs (Idempotency-Key header), used when app.idempotency.store=jdbc.
+-- A row without response_status is a request still in progress.
+
+CREATE TABLE idempotency_keys (
+    idem_key CHAR(64) PRIMARY KEY,
+    fingerprint CHAR(64) NOT NULL,
+    response_status SMALLINT,
+    content_type VARCHAR(100),
+    response_body BLOB,
+    expires_at DATETIME(6) NOT NULL,
+
+    INDEX idx_idempotency_keys_expires (expires_at)
+);
@@ -0,0 +1,4 @@
+-- Optimistic locking: JPA @Version counters on the rows updated concurrently.
+
+ALTER TABLE books ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
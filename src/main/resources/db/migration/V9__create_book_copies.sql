@@ -0,0 +1,21 @@
+-- Physical copies, used when app.inventory.mode=copies: renting claims a single AVAILABLE row
+-- (FOR UPDATE SKIP LOCKED) instead of decrementing books.available, which then becomes a cached count.
+-- Rows are created and reconciled from books.available on startup in copies mode.
+
+CREATE TABLE book_copies (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_id BIGINT NOT NULL,
+    barcode VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    branch VARCHAR(100) NOT NULL DEFAULT 'MAIN',
+    hold_id BIGINT,
+
+    CONSTRAINT uq_book_copies_barcode UNIQUE (barcode),
+    CONSTRAINT fk_book_copies_book FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE,
+    CONSTRAINT fk_book_copies_hold FOREIGN KEY (hold_id) REFERENCES holds(id) ON DELETE SET NULL,
+    INDEX idx_book_copies_claim (book_id, status, id)
+);
+
+ALTER TABLE bookings
+    ADD COLUMN copy_id BIGINT NULL,
+    ADD CONSTRAINT fk_bookings_copy FOREIGN KEY (copy_id) REFERENCES book_copies(id) ON DELETE SET NULL;
@@ -1,4 +1,4 @@
-import { byId, show, hide, setText, showModal } from "./util.js";
+import { byId, show, hide, setText, showModal, subscribeToAvailability } from "./util.js";
 
 // --- DOM Elements ---
 const staticDetailsDiv = byId("static-details");
@@ -102,6 +102,12 @@ if (!bookId) {
     });
 } else {
     await fetchBookDetails();
+    subscribeToAvailability((changedBookId, available) => {
+        if (changedBookId === Number(bookId)) {
+            currentBookData.available = available;
+            displayAvailability();
+        }
+    });
 }
 
 // --- API Call Functions ---
@@ -136,10 +142,7 @@ async function fetchBookDetails() {
                 genresSpan.innerText = "None";
             }
 
-            setText("available", Number(currentBookData.available) > 0 ? "Yes" : "No");
-
-            rentButton.disabled = !currentBookData.available;
-            rentButton.classList.toggle("disabled-button", !currentBookData.available);
+            displayAvailability();
 
             showStaticDetails();
         } else {
@@ -154,6 +157,13 @@ async function fetchBookDetails() {
     }
 }
 
+function displayAvailability() {
+    setText("available", Number(currentBookData.available) > 0 ? "Yes" : "No");
+
+    rentButton.disabled = !currentBookData.available;
+    rentButton.classList.toggle("disabled-button", !currentBookData.available);
+}
+
 async function updateBook() {
     // 1 - Frontend validation on click
     if (editTitleInput.value.trim() === '') {
@@ -182,7 +192,8 @@ async function updateBook() {
         title: editTitleInput.value,
         year: year,
         authorId: authorId,
-        available: available
+        available: available,
+        version: currentBookData.version
     };
 
     try {
@@ -199,6 +210,9 @@ async function updateBook() {
         } else {
             const errorData = await response.json();
             await showModal("Error", `Update failed: ${errorData.message}`);
+            if (response.status === 409) {
+                await fetchBookDetails();
+            }
         }
     } catch (error) {
         await showModal("Error", "A network error occurred while updating the book.");
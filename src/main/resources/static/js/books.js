@@ -1,4 +1,4 @@
-import { byId, show, hide, setText, showModal } from "./util.js";
+import { byId, show, hide, setText, showModal, subscribeToAvailability } from "./util.js";
 
 // --- DOM Elements ---
 const actionForms = byId("action-forms");
@@ -26,6 +26,8 @@ const cancelSearchBookButton = byId("cancel-search-book");
 
 // Sidebar Buttons/Dropdown
 const showAllBooksButton = byId("show-all");
+const showBrowseButton = byId("show-browse");
+const facetsPanel = byId("facets");
 const showAvailableBooksButton = byId("show-available");
 const showByYearButton = byId("show-by-year");
 const showByAuthorButton = byId("show-by-author");
@@ -40,6 +42,7 @@ const findBooksDropdownContainer = document.querySelector(".dropdown");
 
 // --- Event Listeners for Sidebar ---
 showAllBooksButton.addEventListener("click", async () => { showBooksList(); await fetchAndDisplayBooks("/api/books"); });
+showBrowseButton.addEventListener("click", async () => { showBooksList(); await browse({ genreId: [], decade: [], available: null }); });
 showAvailableBooksButton.addEventListener("click", async () => { showBooksList(); await fetchAndDisplayBooks("/api/books?available=true"); });
 showByYearButton.addEventListener("click", () => showFindBookFormView("Year"));
 showByAuthorButton.addEventListener("click", () => showFindBookFormView("Author Name"));
@@ -70,16 +73,16 @@ findBookFormStatic.addEventListener("submit", async event => {
         return;
     }
 
-    let url = "/api/books?";
+    let url = "/api/books/search?size=100&";
     if (filterType === "Year") {
         const year = parseInt(value);
         if (isNaN(year) || year <= 0 || year > new Date().getFullYear()) { // Basic validation for year search
             await showModal("Error", `Year must be a positive number and not from future.`);
             return;
         }
-        url += `year=${encodeURIComponent(year)}`;
+        url += `yearFrom=${encodeURIComponent(year)}&yearTo=${encodeURIComponent(year)}`;
     } else if (filterType === "Author Name") {
-        url += `authorPartName=${encodeURIComponent(value)}`;
+        url += `author=${encodeURIComponent(value)}`;
     } else if (filterType === "Genre Name") {
 
         await searchByGenreName(value);
@@ -104,6 +107,7 @@ cancelSearchBookButton.addEventListener("click", showBooksList);
 function clearAllForms() {
     hide(createBookFormStatic.id);
     hide(findBookFormStatic.id);
+    hide(facetsPanel.id);
 }
 
 /* Clears the book list */
@@ -122,6 +126,8 @@ async function displayBooks(books) {
 
     for (const book of books) {
         const li = document.createElement("li");
+        li.dataset.bookId = book.id;
+        li.classList.toggle("unavailable", book.available === 0);
         const a = document.createElement("a");
         a.href = "book.html";
         a.innerText = book.title;
@@ -200,7 +206,15 @@ setText("results-separator", "");
         const response = await fetch(url);
         if (response.ok) {
             const data = await response.json();
-            await displayBooks(Array.isArray(data) ? data : [data]);
+            if (Array.isArray(data.content)) {
+                // Paged search result
+                await displayBooks(data.content);
+                if (data.totalElements > data.content.length) {
+                    setText("results-separator", `Showing ${data.content.length} of ${data.totalElements} books`);
+                }
+            } else {
+                await displayBooks(Array.isArray(data) ? data : [data]);
+            }
         } else {
             clearResults();
             const errorData = await response.json();
@@ -267,6 +281,69 @@ async function createBook() {
     }
 }
 
+/**
+ * Faceted browsing: hits plus counts per genre, decade and availability from one call.
+ * Clicking a value toggles it; values of one facet are OR-ed, facets are AND-ed.
+ */
+async function browse(selection) {
+    const params = new URLSearchParams({ size: "100" });
+    selection.genreId.forEach(id => params.append("genreId", id));
+    selection.decade.forEach(decade => params.append("decade", decade));
+    if (selection.available !== null) params.append("available", selection.available);
+    try {
+        const response = await fetch(`/api/books/facets?${params}`);
+        if (!response.ok) {
+            await showModal("Error", "Failed to load facets.");
+            return;
+        }
+        const result = await response.json();
+        displayFacets(result, selection);
+        clearResults();
+        for (const book of result.hits) {
+            const li = document.createElement("li");
+            li.dataset.bookId = book.id;
+            li.classList.toggle("unavailable", book.available === 0);
+            const a = document.createElement("a");
+            a.href = "book.html";
+            a.innerText = book.title;
+            a.onclick = () => sessionStorage.setItem("bookData", JSON.stringify({ id: book.id }));
+            li.append(a);
+            booksList.append(li);
+        }
+        setText("results-separator", `Showing ${result.hits.length} of ${result.totalHits} books`);
+        show(resultsSeparator.id);
+    } catch (error) {
+        await showModal("Error", "A network error occurred.");
+    }
+}
+
+function displayFacets(result, selection) {
+    const toggle = (list, value) => list.includes(value) ? list.filter(v => v !== value) : [...list, value];
+    const group = (title, counts, onClick) => {
+        const div = document.createElement("div");
+        div.className = "facet-group";
+        const h4 = document.createElement("h4");
+        h4.innerText = title;
+        div.append(h4);
+        counts.forEach(facet => {
+            const a = document.createElement("a");
+            a.href = "#";
+            a.innerText = `${facet.label} (${facet.count.toLocaleString()})`;
+            a.classList.toggle("selected", facet.selected);
+            a.onclick = async e => { e.preventDefault(); await browse(onClick(facet)); };
+            div.append(a);
+        });
+        return div;
+    };
+    facetsPanel.innerHTML = "";
+    facetsPanel.append(
+        group("Genre", result.genres, f => ({ ...selection, genreId: toggle(selection.genreId, f.value) })),
+        group("Decade", result.decades, f => ({ ...selection, decade: toggle(selection.decade, f.value) })),
+        group("Availability", result.availability,
+            f => ({ ...selection, available: selection.available === f.value ? null : f.value })));
+    show(facetsPanel.id);
+}
+
 async function fetchAndDisplayGenres() {
     try {
         const response = await fetch("/api/genres");
@@ -373,6 +450,12 @@ function displayGroupedBooks(genresWithBooks) {
     });
 }
 
+// Live availability: grey out listed books as soon as their last copy is rented
+subscribeToAvailability((bookId, available) => {
+    booksList.querySelectorAll(`li[data-book-id="${bookId}"]`)
+        .forEach(li => li.classList.toggle("unavailable", available === 0));
+});
+
 // Initial check for genre filter from other pages
 window.addEventListener("DOMContentLoaded", async () => {
     const filter = sessionStorage.getItem("booksFilter");
@@ -133,7 +133,13 @@ function setupReport(type, title, hideFilter = true) {
     fetchAndDisplayReport();
 }
 
+// Only the latest report request matters; aborting the previous one also stops its query on the server
+let reportRequest = null;
+
 async function fetchAndDisplayReport() {
+    reportRequest?.abort();
+    const request = new AbortController();
+    reportRequest = request;
     reportContent.classList.add("loading");
 
     const params = new URLSearchParams({
@@ -146,7 +152,7 @@ async function fetchAndDisplayReport() {
     const url = `/api/reports/bookings?${params.toString()}`;
 
     try {
-        const response = await fetch(url);
+        const response = await fetch(url, {signal: request.signal});
         if (response.ok) {
             const pageData = await response.json();
             updatePagination(pageData); // Update pagination first
@@ -158,11 +164,16 @@ async function fetchAndDisplayReport() {
             await showModal("Error", `Error loading report: ${error.message}`);
         }
     } catch (e) {
+        if (e.name === "AbortError") {
+            return;
+        }
         reportContent.innerHTML = `<p class="fout">A network error occurred.</p>`;
         hide(paginationControlsDiv.id);
         await showModal("Error", "A network error occurred while loading report.");
     } finally {
-        reportContent.classList.remove("loading");
+        if (reportRequest === request) {
+            reportContent.classList.remove("loading");
+        }
     }
 }
 
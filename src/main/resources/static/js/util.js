@@ -81,3 +81,17 @@ export function showModal(title, message, buttons = []) {
         show('modal-overlay');
     });
 }
+
+/**
+ * Subscribes to live availability changes of books (Server-Sent Events).
+ * The browser reconnects on its own when the connection drops.
+ * @param {function(number, number): void} onChange - Called with (bookId, available) for every change.
+ * @returns {EventSource} The event source; call close() to unsubscribe.
+ */
+export function subscribeToAvailability(onChange) {
+    const source = new EventSource("/api/books/availability/stream");
+    source.addEventListener("availability", event => {
+        JSON.parse(event.data).forEach(change => onChange(change.bookId, change.available));
+    });
+    return source;
+}
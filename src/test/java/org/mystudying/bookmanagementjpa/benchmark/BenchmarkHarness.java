@@ -0,0 +1,42 @@
+package org.mystudying.bookmanagementjpa.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Warm-up and measuring loop shared by the on-demand benchmarks: the work is run a few times unmeasured,
+ * so JIT compilation, pools and caches are settled, then measured over a number of rounds.
+ */
+final class BenchmarkHarness {
+
+    /**
+     * Wall-clock nanoseconds.
+     */
+    static final LongSupplier NANOS = System::nanoTime;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Bytes allocated by the calling thread; the work must run on that thread.
+     */
+    static final LongSupplier ALLOCATED_BYTES = () -> THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+    private BenchmarkHarness() {
+    }
+
+    /**
+     * @param counter a monotonic counter, read before and after the measured rounds
+     * @return the growth of {@code counter} per measured round
+     */
+    static double perRound(int warmUpRounds, int rounds, LongSupplier counter, Runnable work) {
+        for (int i = 0; i < warmUpRounds; i++) {
+            work.run();
+        }
+        long before = counter.getAsLong();
+        for (int i = 0; i < rounds; i++) {
+            work.run();
+        }
+        return (counter.getAsLong() - before) / (double) rounds;
+    }
+}
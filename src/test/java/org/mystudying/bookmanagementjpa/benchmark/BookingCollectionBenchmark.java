@@ -0,0 +1,85 @@
+package org.mystudying.bookmanagementjpa.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mystudying.bookmanagementjpa.domain.Author;
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.domain.Booking;
+import org.mystudying.bookmanagementjpa.domain.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time to attach n new bookings to a user and a book and scan them, for growing n. Entities hash to a
+ * constant until they are persisted, so the old {@code HashSet} association made every add a scan of the
+ * whole bucket; the lists must stay linear. Timing based, so it only runs on demand:
+ * {@code mvn test -Dbenchmark=true -Dtest=BookingCollectionBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingCollectionBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingCollectionBenchmark.class);
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int ROUNDS = 20;
+    private static final int SMALL = 5_000;
+    private static final int LARGE = 4 * SMALL;
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void addingAndScanningBookingsScalesLinearly() {
+        double small = nanosFor(SMALL);
+        double large = nanosFor(LARGE);
+        // For comparison only, and quadratic: one round each, the large one warmed up by the small one
+        double hashSetSmall = BenchmarkHarness.perRound(WARM_UP_ROUNDS, 1, BenchmarkHarness.NANOS,
+                () -> addToHashSets(SMALL));
+        double hashSetLarge = BenchmarkHarness.perRound(0, 1, BenchmarkHarness.NANOS, () -> addToHashSets(LARGE));
+
+        log.info("{} -> {} bookings: lists {} -> {} ms (x{}), hash set {} -> {} ms (x{})", SMALL, LARGE,
+                "%.1f".formatted(small / 1e6), "%.1f".formatted(large / 1e6), "%.1f".formatted(large / small),
+                "%.1f".formatted(hashSetSmall / 1e6), "%.1f".formatted(hashSetLarge / 1e6),
+                "%.1f".formatted(hashSetLarge / hashSetSmall));
+        // 4x the bookings: about 4x the time when linear, 16x when quadratic
+        assertThat(large / small).isLessThan(8);
+    }
+
+    private static double nanosFor(int bookings) {
+        return BenchmarkHarness.perRound(WARM_UP_ROUNDS, ROUNDS, BenchmarkHarness.NANOS, () -> addToLists(bookings));
+    }
+
+    private static void addToLists(int bookings) {
+        User user = new User(1L, "Heavy Reader", "heavy@example.com");
+        Book book = new Book(1L, "Bestseller", 2020, new Author(1L, "Author", TODAY), bookings);
+        for (int i = 0; i < bookings; i++) {
+            Booking booking = new Booking(user, book, TODAY, TODAY.plusDays(14));
+            user.addBooking(booking);
+            book.addBooking(booking);
+        }
+        assertThat(activeCount(user.getBookings()) + activeCount(book.getBookings())).isEqualTo(2L * bookings);
+    }
+
+    /**
+     * The association as it used to be mapped.
+     */
+    private static void addToHashSets(int bookings) {
+        User user = new User(1L, "Heavy Reader", "heavy@example.com");
+        Book book = new Book(1L, "Bestseller", 2020, new Author(1L, "Author", TODAY), bookings);
+        Collection<Booking> userBookings = new HashSet<>();
+        Collection<Booking> bookBookings = new HashSet<>();
+        for (int i = 0; i < bookings; i++) {
+            Booking booking = new Booking(user, book, TODAY, TODAY.plusDays(14));
+            userBookings.add(booking);
+            bookBookings.add(booking);
+        }
+        assertThat(activeCount(userBookings) + activeCount(bookBookings)).isEqualTo(2L * bookings);
+    }
+
+    private static long activeCount(Collection<Booking> bookings) {
+        return bookings.stream().filter(booking -> booking.getReturnedAt() == null).count();
+    }
+}
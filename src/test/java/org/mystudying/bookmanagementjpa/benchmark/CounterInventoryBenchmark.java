@@ -0,0 +1,19 @@
+package org.mystudying.bookmanagementjpa.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mystudying.bookmanagementjpa.services.AuthorService;
+import org.mystudying.bookmanagementjpa.services.BookService;
+import org.mystudying.bookmanagementjpa.services.UserService;
+import org.mystudying.bookmanagementjpa.services.inventory.InventoryStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = "app.inventory.mode=counter")
+class CounterInventoryBenchmark extends InventoryContentionBenchmark {
+
+    CounterInventoryBenchmark(UserService userService, BookService bookService, AuthorService authorService,
+                              InventoryStrategy inventory, JdbcClient jdbcClient) {
+        super(userService, bookService, authorService, inventory, jdbcClient);
+    }
+}
@@ -0,0 +1,118 @@
+package org.mystudying.bookmanagementjpa.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.dto.CreateAuthorRequestDto;
+import org.mystudying.bookmanagementjpa.dto.CreateBookRequestDto;
+import org.mystudying.bookmanagementjpa.dto.CreateUserRequestDto;
+import org.mystudying.bookmanagementjpa.services.AuthorService;
+import org.mystudying.bookmanagementjpa.services.BookService;
+import org.mystudying.bookmanagementjpa.services.UserService;
+import org.mystudying.bookmanagementjpa.services.inventory.InventoryStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rent/return throughput on a single bestseller with many concurrent users, once per inventory model
+ * (see the subclasses). Needs the real database, so it only runs on demand:
+ * {@code mvn test -Dbenchmark=true -Dtest='*InventoryBenchmark'}.
+ */
+abstract class InventoryContentionBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryContentionBenchmark.class);
+    private static final int THREADS = 16;
+    private static final int WARM_UP_ROUNDS = 1;
+    private static final int ROUNDS = 3;
+    private static final int LOANS_PER_THREAD = 50;
+    private static final String PREFIX = "inventory-benchmark";
+
+    private final UserService userService;
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final InventoryStrategy inventory;
+    private final JdbcClient jdbcClient;
+
+    private long bookId;
+    private final List<Long> userIds = new ArrayList<>();
+
+    InventoryContentionBenchmark(UserService userService, BookService bookService, AuthorService authorService,
+                                 InventoryStrategy inventory, JdbcClient jdbcClient) {
+        this.userService = userService;
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.inventory = inventory;
+        this.jdbcClient = jdbcClient;
+    }
+
+    @BeforeEach
+    void createBestseller() {
+        long authorId = authorService.save(new CreateAuthorRequestDto(PREFIX + " author", LocalDate.of(1970, 1, 1))).getId();
+        bookId = bookService.save(new CreateBookRequestDto(PREFIX + " book", 2020, authorId, THREADS * 2)).getId();
+        for (int i = 0; i < THREADS; i++) {
+            userIds.add(userService.save(new CreateUserRequestDto(PREFIX + " user " + i, PREFIX + i + "@example.com")).getId());
+        }
+    }
+
+    @Test
+    void concurrentRentAndReturnOfOneTitle() {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        double seconds;
+        try {
+            seconds = BenchmarkHarness.perRound(WARM_UP_ROUNDS, ROUNDS, BenchmarkHarness.NANOS,
+                    () -> rentAndReturnConcurrently(executor)) / 1e9;
+        } finally {
+            executor.shutdown();
+        }
+
+        int loans = THREADS * LOANS_PER_THREAD;
+        log.info("{} inventory: {} rent+return pairs by {} users in {} s = {} pairs/s", inventory.mode(), loans,
+                THREADS, "%.2f".formatted(seconds), "%.0f".formatted(loans / seconds));
+        assertThat(jdbcClient.sql("SELECT COUNT(*) FROM bookings WHERE book_id = ?").param(bookId)
+                .query(Long.class).single()).isEqualTo((long) loans * (WARM_UP_ROUNDS + ROUNDS));
+    }
+
+    private void rentAndReturnConcurrently(ExecutorService executor) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (long userId : userIds) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < LOANS_PER_THREAD; i++) {
+                    userService.rentBook(userId, bookId);
+                    userService.returnBook(userId, bookId);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> worker : workers) {
+                worker.get(5, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcClient.sql("DELETE FROM outbox_events WHERE booking_id IN (SELECT id FROM bookings WHERE book_id = ?)")
+                .param(bookId).update();
+        jdbcClient.sql("DELETE FROM bookings WHERE book_id = ?").param(bookId).update();
+        jdbcClient.sql("DELETE FROM books WHERE id = ?").param(bookId).update();
+        jdbcClient.sql("DELETE FROM users WHERE email LIKE ?").param(PREFIX + "%").update();
+        jdbcClient.sql("DELETE FROM authors WHERE name = ?").param(PREFIX + " author").update();
+    }
+}
@@ -0,0 +1,95 @@
+package org.mystudying.bookmanagementjpa.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes allocated to build a 10k-row book list from managed entities versus a constructor projection.
+ * Needs the real database, so it only runs on demand:
+ * {@code mvn test -Dbenchmark=true -Dtest=ProjectionAllocationBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+class ProjectionAllocationBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionAllocationBenchmark.class);
+    private static final int ROWS = 10_000;
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int ROUNDS = 20;
+    private static final String PREFIX = "projection-benchmark";
+
+    private final BookRepository bookRepository;
+    private final JdbcClient jdbcClient;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private long authorId;
+
+    ProjectionAllocationBenchmark(BookRepository bookRepository, JdbcClient jdbcClient,
+                                  PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.jdbcClient = jdbcClient;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @BeforeEach
+    void createBooks() {
+        jdbcClient.sql("INSERT INTO authors (name) VALUES (?)").param(PREFIX).update();
+        authorId = jdbcClient.sql("SELECT id FROM authors WHERE name = ?").param(PREFIX).query(Long.class).single();
+        // Cross join of two digit tables: 10 * 10 * 10 * 10 rows in one statement
+        jdbcClient.sql("""
+                INSERT INTO books (title, year, author_id, available)
+                SELECT CONCAT(?, ' ', a.n * 1000 + b.n * 100 + c.n * 10 + d.n), 2000, ?, 1
+                FROM (SELECT 0 n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) a,
+                     (SELECT 0 n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) b,
+                     (SELECT 0 n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) c,
+                     (SELECT 0 n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d
+                """).params(PREFIX, authorId).update();
+    }
+
+    @Test
+    void projectionAllocatesLessThanEntities() {
+        double entities = allocatedPerRound(() -> bookRepository.findAll(Sort.by("title")).stream()
+                .map(book -> new BookDto(book.getId(), book.getTitle(), book.getYear(), book.getAvailable()))
+                .toList());
+        double projection = allocatedPerRound(bookRepository::findAllAsDto);
+
+        log.info("Book list with >= {} rows: entities {} MB, projection {} MB per request ({}% less)", ROWS,
+                "%.1f".formatted(entities / 1e6), "%.1f".formatted(projection / 1e6),
+                "%.0f".formatted(100 * (entities - projection) / entities));
+        assertThat(projection).isLessThan(entities);
+    }
+
+    private double allocatedPerRound(Supplier<List<BookDto>> query) {
+        return BenchmarkHarness.perRound(WARM_UP_ROUNDS, ROUNDS, BenchmarkHarness.ALLOCATED_BYTES, () -> {
+            List<BookDto> books = readOnlyTransaction.execute(status -> query.get());
+            assertThat(books).hasSizeGreaterThanOrEqualTo(ROWS);
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcClient.sql("DELETE FROM books WHERE author_id = ?").param(authorId).update();
+        jdbcClient.sql("DELETE FROM authors WHERE id = ?").param(authorId).update();
+    }
+}
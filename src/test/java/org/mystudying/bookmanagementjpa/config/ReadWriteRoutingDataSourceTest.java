@@ -0,0 +1,108 @@
+package org.mystudying.bookmanagementjpa.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+    private ReadAfterWriteTracker tracker;
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ReplicaProperties();
+        properties.setStickyWindow(Duration.ofMinutes(1));
+        tracker = new ReadAfterWriteTracker(properties);
+        dataSource = new ReadWriteRoutingDataSource(new SimpleDriverDataSource(), new SimpleDriverDataSource(),
+                new SimpleDriverDataSource(), lagMonitor, tracker);
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        tracker.clear();
+    }
+
+    @Test
+    void writeTransactionGoesToPrimary() {
+        assertThat(dataSource.currentRoute()).isEqualTo(DataSourceRoute.PRIMARY);
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.currentRoute()).isEqualTo(DataSourceRoute.REPLICA);
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() {
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.currentRoute()).isEqualTo(DataSourceRoute.PRIMARY);
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimary() {
+        tracker.recordWrite(7L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        tracker.bindUser(7L);
+        assertThat(dataSource.currentRoute()).isEqualTo(DataSourceRoute.PRIMARY);
+
+        tracker.bindUser(8L);
+        assertThat(dataSource.currentRoute()).isEqualTo(DataSourceRoute.REPLICA);
+    }
+
+    @Test
+    void withoutReplicaEverythingGoesToPrimary() {
+        var primaryOnly = new ReadWriteRoutingDataSource(new SimpleDriverDataSource(), null, null, null, tracker);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(primaryOnly.currentRoute()).isEqualTo(DataSourceRoute.PRIMARY);
+    }
+
+    @Test
+    void reportingWorkloadGoesToReportingPool() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(reportingProxy(dataSource).route()).isEqualTo(DataSourceRoute.REPORTING);
+        assertThat(dataSource.currentRoute()).isEqualTo(DataSourceRoute.REPLICA);
+    }
+
+    @Test
+    void withoutReportingPoolReportsGoToPrimary() {
+        var primaryOnly = new ReadWriteRoutingDataSource(new SimpleDriverDataSource(), null, null, null, tracker);
+        assertThat(reportingProxy(primaryOnly).route()).isEqualTo(DataSourceRoute.PRIMARY);
+    }
+
+    private static Report reportingProxy(ReadWriteRoutingDataSource dataSource) {
+        var factory = new AspectJProxyFactory(new Report(dataSource));
+        factory.addAspect(new ReportingWorkloadAspect());
+        return factory.getProxy();
+    }
+
+    static class Report {
+
+        private final ReadWriteRoutingDataSource dataSource;
+
+        Report(ReadWriteRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @ReportingWorkload
+        public DataSourceRoute route() {
+            return dataSource.currentRoute();
+        }
+    }
+}
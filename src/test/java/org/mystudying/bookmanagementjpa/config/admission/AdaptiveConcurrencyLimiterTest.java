@@ -0,0 +1,103 @@
+package org.mystudying.bookmanagementjpa.config.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mystudying.bookmanagementjpa.config.admission.AdaptiveConcurrencyLimiter.Outcome.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+
+    AdaptiveConcurrencyLimiterTest() {
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxQueue(2);
+        properties.setMaxWait(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void excessRequestsAreShedOnceQueueIsFull() throws Exception {
+        var limiter = new AdaptiveConcurrencyLimiter(properties);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThat(limiter.acquire(AdmissionPriority.NORMAL)).isEqualTo(ADMITTED);
+            executor.submit(() -> limiter.acquire(AdmissionPriority.NORMAL));
+            executor.submit(() -> limiter.acquire(AdmissionPriority.NORMAL));
+            awaitQueueDepth(limiter, 2);
+
+            assertThat(limiter.acquire(AdmissionPriority.HIGH)).isEqualTo(SHED);
+            assertThat(limiter.stats().shed()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void highPriorityIsAdmittedBeforeEarlierLowPriority() throws Exception {
+        properties.setMaxQueue(10);
+        properties.setMaxLimit(1);
+        var limiter = new AdaptiveConcurrencyLimiter(properties);
+        List<AdmissionPriority> order = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThat(limiter.acquire(AdmissionPriority.NORMAL)).isEqualTo(ADMITTED);
+            Future<?> low = executor.submit(() -> admitAndRelease(limiter, AdmissionPriority.LOW, order));
+            awaitQueueDepth(limiter, 1);
+            Future<?> high = executor.submit(() -> admitAndRelease(limiter, AdmissionPriority.HIGH, order));
+            awaitQueueDepth(limiter, 2);
+
+            limiter.release(Duration.ZERO, false);
+            low.get(5, TimeUnit.SECONDS);
+            high.get(5, TimeUnit.SECONDS);
+
+            assertThat(order).containsExactly(AdmissionPriority.HIGH, AdmissionPriority.LOW);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void slowCompletionsShrinkAndFastOnesGrowTheLimit() throws Exception {
+        properties.setInitialLimit(10);
+        var limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        limiter.acquire(AdmissionPriority.NORMAL);
+        limiter.release(Duration.ofSeconds(1), false);
+        assertThat(limiter.stats().limit()).isEqualTo(9);
+
+        for (int round = 0; round < 30; round++) {
+            for (int i = 0; i < 9; i++) {
+                limiter.acquire(AdmissionPriority.NORMAL);
+            }
+            for (int i = 0; i < 9; i++) {
+                limiter.release(Duration.ofMillis(1), false);
+            }
+        }
+        assertThat(limiter.stats().limit()).isGreaterThan(9);
+    }
+
+    private Void admitAndRelease(AdaptiveConcurrencyLimiter limiter, AdmissionPriority priority,
+                                 List<AdmissionPriority> order) throws InterruptedException {
+        assertThat(limiter.acquire(priority)).isEqualTo(ADMITTED);
+        order.add(priority);
+        limiter.release(Duration.ZERO, false);
+        return null;
+    }
+
+    private void awaitQueueDepth(AdaptiveConcurrencyLimiter limiter, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.stats().queueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(limiter.stats().queueDepth()).isEqualTo(depth);
+    }
+}
@@ -0,0 +1,64 @@
+package org.mystudying.bookmanagementjpa.config.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+    private final AdmissionControlFilter filter;
+
+    AdmissionControlFilterTest() {
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(1);
+        properties.setMaxWait(Duration.ofMillis(10));
+        properties.setLatencyTarget(Duration.ofMillis(50));
+        filter = new AdmissionControlFilter(properties, new ObjectMapper());
+    }
+
+    @Test
+    void longAsyncReportFreesItsSlotWhenTheHandlerReturns() throws Exception {
+        var report = new MockHttpServletRequest("GET", "/api/reports/bookings");
+        report.setAsyncSupported(true);
+        filter.doFilter(report, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        assertThat(filter.stats().inFlight()).isZero();
+        var rent = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/users/1/rent"), rent, (request, response) -> {
+        });
+        assertThat(rent.getStatus()).isEqualTo(200);
+
+        // The report finishing long after the latency target does not count against the limit
+        Thread.sleep(100);
+        report.getAsyncContext().complete();
+        assertThat(filter.stats().limit()).isEqualTo(1);
+        assertThat(filter.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void slowSynchronousRequestHoldsItsSlot() throws Exception {
+        properties.setMaxLimit(10);
+        properties.setInitialLimit(2);
+        var filter = new AdmissionControlFilter(properties, new ObjectMapper());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    assertThat(filter.stats().inFlight()).isEqualTo(1);
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+
+        assertThat(filter.stats().inFlight()).isZero();
+        assertThat(filter.stats().limit()).isEqualTo(1);
+    }
+}
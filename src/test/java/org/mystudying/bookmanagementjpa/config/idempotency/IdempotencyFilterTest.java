@@ -0,0 +1,115 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100);
+    private final IdempotencyFilter filter = new IdempotencyFilter(store, properties,
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void retryWithSameKeyReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = perform("key-1", "{\"bookId\": 1}", HttpServletResponse.SC_NO_CONTENT);
+        MockHttpServletResponse retry = perform("key-1", "{\"bookId\": 1}", HttpServletResponse.SC_CONFLICT);
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(204);
+        assertThat(retry.getStatus()).isEqualTo(204);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(filter.stats().replays()).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedWithDifferentBodyIsRejected() throws Exception {
+        perform("key-2", "{\"bookId\": 1}", HttpServletResponse.SC_NO_CONTENT);
+        MockHttpServletResponse reused = perform("key-2", "{\"bookId\": 2}", HttpServletResponse.SC_NO_CONTENT);
+
+        assertThat(executions).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void serverErrorFreesKeyForRetry() throws Exception {
+        perform("key-3", "{\"bookId\": 1}", HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        MockHttpServletResponse retry = perform("key-3", "{\"bookId\": 1}", HttpServletResponse.SC_NO_CONTENT);
+
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(204);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void requestsWithoutKeyAreNotStored() throws Exception {
+        perform(null, "{\"bookId\": 1}", HttpServletResponse.SC_NO_CONTENT);
+        perform(null, "{\"bookId\": 1}", HttpServletResponse.SC_NO_CONTENT);
+
+        assertThat(executions).hasValue(2);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void cachedBodyCanBeReadWithReadListener() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/api/users/1/rent");
+        request.setContent("{\"bookId\": 1}".getBytes());
+        request.addHeader(IdempotencyFilter.HEADER, "key-4");
+        var read = new ByteArrayOutputStream();
+        var allDataRead = new AtomicBoolean();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            ServletInputStream input = req.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        read.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+        });
+
+        assertThat(read.toString()).isEqualTo("{\"bookId\": 1}");
+        assertThat(allDataRead).isTrue();
+    }
+
+    private MockHttpServletResponse perform(String key, String body, int status) throws Exception {
+        var request = new MockHttpServletRequest("POST", "/api/users/1/rent");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes());
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(status);
+        });
+        return response;
+    }
+}
@@ -0,0 +1,38 @@
+package org.mystudying.bookmanagementjpa.config.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryIdempotencyStoreTest {
+
+    private static final Instant LATER = Instant.now().plus(Duration.ofHours(1));
+
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2);
+
+    @Test
+    void pendingClaimsAreNeverEvicted() {
+        store.claim("a", IdempotencyRecord.pending("fa", LATER));
+        store.claim("b", IdempotencyRecord.pending("fb", LATER));
+        store.claim("c", IdempotencyRecord.pending("fc", LATER));
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.claim("a", IdempotencyRecord.pending("fa", LATER)))
+                .hasValueSatisfying(record -> assertThat(record.isPending()).isTrue());
+    }
+
+    @Test
+    void completedResponsesAreEvictedLeastRecentlyUsedFirst() {
+        store.claim("a", IdempotencyRecord.pending("fa", LATER));
+        store.complete("a", new IdempotencyRecord("fa", 204, null, new byte[0], LATER));
+        store.claim("b", IdempotencyRecord.pending("fb", LATER));
+        store.complete("b", new IdempotencyRecord("fb", 204, null, new byte[0], LATER));
+        store.claim("c", IdempotencyRecord.pending("fc", LATER));
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.claim("a", IdempotencyRecord.pending("fa", LATER))).isEmpty();
+    }
+}
@@ -0,0 +1,89 @@
+package org.mystudying.bookmanagementjpa.config.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter;
+
+    RateLimitFilterTest() {
+        var perUser = new RateLimitProperties.Limit();
+        perUser.setCapacity(2);
+        perUser.setRefillPerSecond(0.01);
+        var rule = new RateLimitProperties.Rule();
+        rule.setName("bookings");
+        rule.setPaths(List.of("/api/users/{userId}/rent"));
+        rule.setPerUser(perUser);
+        var properties = new RateLimitProperties();
+        properties.setRules(List.of(rule));
+        filter = new RateLimitFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void userOverLimitGets429WithRetryAfterWhileOthersPass() throws Exception {
+        assertThat(rent(1).getStatus()).isEqualTo(200);
+        assertThat(rent(1).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = rent(1);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isPositive();
+
+        assertThat(rent(2).getStatus()).isEqualTo(200);
+        assertThat(filter.stats().rejected()).containsEntry("bookings.user", 1L);
+    }
+
+    @Test
+    void requestRejectedByALaterScopeDoesNotUseUpEarlierOnes() throws Exception {
+        var perUser = new RateLimitProperties.Limit();
+        perUser.setCapacity(2);
+        perUser.setRefillPerSecond(0.01);
+        var global = new RateLimitProperties.Limit();
+        global.setCapacity(1);
+        global.setRefillPerSecond(0.01);
+        var rule = new RateLimitProperties.Rule();
+        rule.setName("bookings");
+        rule.setPaths(List.of("/api/users/{userId}/rent"));
+        rule.setPerUser(perUser);
+        rule.setGlobal(global);
+        var properties = new RateLimitProperties();
+        properties.setRules(List.of(rule));
+        var limited = new RateLimitFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        assertThat(rent(limited, 2).getStatus()).isEqualTo(200);
+        // Turned away by the global bucket, each time after taking one of user 1's tokens
+        assertThat(rent(limited, 1).getStatus()).isEqualTo(429);
+        assertThat(rent(limited, 1).getStatus()).isEqualTo(429);
+        assertThat(rent(limited, 1).getStatus()).isEqualTo(429);
+
+        assertThat(limited.stats().rejected()).containsEntry("bookings.global", 3L).doesNotContainKey("bookings.user");
+    }
+
+    @Test
+    void unmatchedRequestsAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            var response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1/rent"), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+        assertThat(filter.stats().trackedBuckets()).isZero();
+    }
+
+    private MockHttpServletResponse rent(long userId) throws Exception {
+        return rent(filter, userId);
+    }
+
+    private static MockHttpServletResponse rent(RateLimitFilter filter, long userId) throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/users/" + userId + "/rent"), response, new MockFilterChain());
+        return response;
+    }
+}
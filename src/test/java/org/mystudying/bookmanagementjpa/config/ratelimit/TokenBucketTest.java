@@ -0,0 +1,69 @@
+package org.mystudying.bookmanagementjpa.config.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void burstIsLimitedByCapacityAndRefilledOverTime() {
+        var bucket = new TokenBucket(2, 1, clock::get);
+
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isZero();
+        long wait = bucket.tryConsume();
+        assertThat(wait).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+        clock.addAndGet(wait);
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.isIdle()).isFalse();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(bucket.isIdle()).isTrue();
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isPositive();
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedCapacity() throws InterruptedException {
+        var bucket = new TokenBucket(1000, 0.000001, clock::get);
+        var granted = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    if (bucket.tryConsume() == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(granted).hasValue(1000);
+    }
+
+    @Test
+    void refundedTokenCanBeTakenAgain() {
+        var bucket = new TokenBucket(1, 1, clock::get);
+
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isPositive();
+        bucket.refund();
+        assertThat(bucket.tryConsume()).isZero();
+
+        bucket.refund();
+        bucket.refund();
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isPositive();
+    }
+}
@@ -0,0 +1,56 @@
+package org.mystudying.bookmanagementjpa.config.retry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticLockRetryAspectTest {
+
+    private final OptimisticLockMetrics metrics = new OptimisticLockMetrics();
+
+    @Test
+    void conflictingCallIsRetriedUntilItSucceeds() {
+        var target = new ConflictingService(2);
+
+        assertThat(proxy(target).update()).isEqualTo("updated");
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(metrics.stats().conflicts()).isEqualTo(2);
+        assertThat(metrics.stats().recovered()).isEqualTo(1);
+    }
+
+    @Test
+    void conflictIsRethrownAfterLastAttempt() {
+        var target = new ConflictingService(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> proxy(target).update()).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(metrics.stats().exhausted()).isEqualTo(1);
+    }
+
+    private ConflictingService proxy(ConflictingService target) {
+        var factory = new AspectJProxyFactory(target);
+        factory.addAspect(new OptimisticLockRetryAspect(metrics));
+        return factory.getProxy();
+    }
+
+    static class ConflictingService {
+
+        private final int conflicts;
+        private int calls;
+
+        ConflictingService(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        @RetryOnOptimisticLock(backoffMillis = 1)
+        public String update() {
+            if (calls++ < conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "updated";
+        }
+    }
+}
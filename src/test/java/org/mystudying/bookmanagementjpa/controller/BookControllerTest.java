@@ -162,6 +162,34 @@ public class BookControllerTest {
         assertThat(titles).contains("Test Book 1", "Rentable Book");
     }
 
+    @Test
+    void getAllBooksCombinesFilters() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .queryParam("authorName", "Test Author 1")
+                        .queryParam("year", "2023"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Rentable Book"));
+    }
+
+    @Test
+    void searchBooksReturnsOnePageOfBooksInAnyGivenGenre() throws Exception {
+        long genre1 = jdbcClient.sql("SELECT id FROM genres WHERE name = 'Test Genre 1'").query(Long.class).single();
+        long genre2 = jdbcClient.sql("SELECT id FROM genres WHERE name = 'Test Genre 2'").query(Long.class).single();
+
+        // Test Book 1 is in both genres and must be counted once
+        mockMvc.perform(get("/api/books/search")
+                        .queryParam("genreId", String.valueOf(genre1), String.valueOf(genre2))
+                        .queryParam("available", "true")
+                        .queryParam("yearFrom", "2001")
+                        .queryParam("page", "1")
+                        .queryParam("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Rentable Book"));
+    }
+
     @Test
     void getBookByIdReturnsCorrectBook() throws Exception {
         long id = idOfTestBook1();
@@ -254,6 +282,22 @@ public class BookControllerTest {
         assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcClient, BOOKS_TABLE, "id = " + id + " AND title = 'Updated Book Title'")).isEqualTo(1);
     }
 
+    @Test
+    void updateBookReturnsConflictForStaleVersion() throws Exception {
+        long id = idOfTestBook1();
+        long authorId = idOfTestAuthor1();
+        String staleBookJson = String.format(
+                "{\"title\": \"Stale Title\", \"year\": 2010, \"authorId\": %d, \"available\": 5, \"version\": 99}", authorId);
+
+        mockMvc.perform(put("/api/books/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(staleBookJson))
+                .andExpect(status().isConflict());
+
+        entityManager.flush();
+        assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcClient, BOOKS_TABLE, "title = 'Stale Title'")).isZero();
+    }
+
     @Test
     void updateBookReturnsNotFoundForUnknownId() throws Exception {
         String updatedBookJson = readJsonFile("updatedBook.json");
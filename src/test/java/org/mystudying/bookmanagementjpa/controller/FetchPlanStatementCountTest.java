@@ -0,0 +1,151 @@
+package org.mystudying.bookmanagementjpa.controller;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.dto.BookingReportType;
+import org.mystudying.bookmanagementjpa.services.BookingService;
+import org.mystudying.bookmanagementjpa.services.reports.QueryCancellation;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Each read endpoint runs a fixed number of SQL statements, however many rows it returns.
+ * Statements are counted per thread, so scheduled jobs running meanwhile do not interfere.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.mystudying.bookmanagementjpa.controller.FetchPlanStatementCountTest$StatementCounter")
+@AutoConfigureMockMvc
+@Transactional
+@Sql("/insertTestRecords.sql")
+class FetchPlanStatementCountTest {
+
+    private final MockMvc mockMvc;
+    private final JdbcClient jdbcClient;
+    private final EntityManager entityManager;
+    private final BookingService bookingService;
+
+    FetchPlanStatementCountTest(MockMvc mockMvc, JdbcClient jdbcClient, EntityManager entityManager,
+                                BookingService bookingService) {
+        this.mockMvc = mockMvc;
+        this.jdbcClient = jdbcClient;
+        this.entityManager = entityManager;
+        this.bookingService = bookingService;
+    }
+
+    private long idOfTestUser1() {
+        return jdbcClient.sql("select id from users where email = 'test1@example.com'")
+                .query(Long.class)
+                .single();
+    }
+
+    private long idOfTestBook1() {
+        return jdbcClient.sql("select id from books where title = 'Test Book 1'")
+                .query(Long.class)
+                .single();
+    }
+
+    /**
+     * Adds returned bookings of every test book, for both test users.
+     */
+    @BeforeEach
+    void addBookings() {
+        jdbcClient.sql("""
+                INSERT INTO bookings (user_id, book_id, borrowed_at, due_at, returned_at)
+                SELECT u.id, b.id, '2023-01-01', '2023-01-15', '2023-01-10'
+                FROM users u CROSS JOIN books b
+                WHERE u.email IN ('test1@example.com', 'test2@example.com')
+                """).update();
+    }
+
+    @Test
+    void bookListTakesOneStatement() throws Exception {
+        assertThat(statementsFor(get("/api/books"))).isEqualTo(1);
+    }
+
+    @Test
+    void bookDetailTakesTwoStatements() throws Exception {
+        assertThat(statementsFor(get("/api/books/{id}/details", idOfTestBook1()))).isEqualTo(2);
+    }
+
+    @Test
+    void userBookingsTakeTwoStatements() throws Exception {
+        assertThat(statementsFor(get("/api/users/{id}/bookings", idOfTestUser1()))).isEqualTo(2);
+    }
+
+    @Test
+    void reportPageTakesThreeStatements() {
+        entityManager.flush();
+        entityManager.clear();
+        StatementCounter.reset();
+
+        // Reports run on a worker thread, so the service is called directly
+        var page = bookingService.getBookingReport(BookingReportType.ALL, null, null, false, PageRequest.of(0, 3),
+                new QueryCancellation());
+
+        assertThat(page.getContent()).hasSize(3);
+        // Connection id (for cancellation), rows, count
+        assertThat(StatementCounter.count()).isEqualTo(3);
+    }
+
+    @Test
+    void genresWithBooksTakeOneStatement() throws Exception {
+        assertThat(statementsFor(get("/api/genres/with-books"))).isEqualTo(1);
+    }
+
+    @Test
+    void lazyAuthorsOutsideAFetchPlanAreLoadedInOneBatch() {
+        entityManager.clear();
+        StatementCounter.reset();
+
+        var authors = entityManager.createQuery("SELECT b FROM Book b", Book.class).getResultList().stream()
+                .map(book -> book.getAuthor().getName())
+                .distinct()
+                .toList();
+
+        assertThat(authors).hasSizeGreaterThan(1);
+        assertThat(StatementCounter.count()).isEqualTo(2);
+    }
+
+    private int statementsFor(RequestBuilder request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        StatementCounter.reset();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").exists());
+        return StatementCounter.count();
+    }
+
+    public static class StatementCounter implements StatementInspector {
+
+        private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+        static void reset() {
+            COUNT.set(0);
+        }
+
+        static int count() {
+            return COUNT.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.set(COUNT.get() + 1);
+            return sql;
+        }
+    }
+}
@@ -100,6 +100,88 @@ public class UserRentLogicTest {
                 .isEqualTo(activeBookings + 1);
     }
 
+    @Test
+    void rentAndReturnWriteOutboxEventsInSameTransaction() throws Exception {
+        long userId = idOfUser("clean@logic.test");
+        long bookId = idOfBook("Logic Book B");
+        String requestJson = String.format("{\"bookId\": %d}", bookId);
+
+        mockMvc.perform(post("/api/users/{userId}/rent", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/users/{userId}/return", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isNoContent());
+
+        entityManager.flush();
+        long bookingId = jdbcClient.sql("SELECT id FROM bookings WHERE user_id = ? AND book_id = ?")
+                .param(userId).param(bookId).query(Long.class).single();
+        List<String> eventTypes = jdbcClient.sql("SELECT event_type FROM outbox_events WHERE booking_id = ? ORDER BY id")
+                .param(bookingId).query(String.class).list();
+        assertThat(eventTypes).containsExactly("BOOK_RENTED", "BOOK_RETURNED");
+    }
+
+    @Test
+    void returnedCopyIsReservedForFirstHoldInQueue() throws Exception {
+        long cleanUserId = idOfUser("clean@logic.test");
+        long fineUserId = idOfUser("fine@logic.test");
+        long overdueUserId = idOfUser("overdue@logic.test");
+        long bookId = idOfBook("Overdue Book");
+        String requestJson = String.format("{\"bookId\": %d}", bookId);
+
+        mockMvc.perform(post("/api/users/{userId}/holds", cleanUserId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andExpect(jsonPath("$.queuePosition").value(1));
+        mockMvc.perform(post("/api/users/{userId}/holds", fineUserId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.queuePosition").value(2));
+
+        mockMvc.perform(post("/api/users/{userId}/return", overdueUserId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isNoContent());
+
+        // The copy is reserved, not back on the shelf
+        mockMvc.perform(get("/api/books/{id}", bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(0));
+        mockMvc.perform(get("/api/users/{userId}/holds/{bookId}", cleanUserId, bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("READY"))
+                .andExpect(jsonPath("$.pickupDeadline").isNotEmpty());
+        mockMvc.perform(get("/api/users/{userId}/holds/{bookId}", fineUserId, bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queuePosition").value(1));
+
+        mockMvc.perform(post("/api/users/{userId}/rent", cleanUserId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{userId}/holds/{bookId}", cleanUserId, bookId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/books/{id}", bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(0));
+    }
+
+    @Test
+    void holdIsRejectedWhenBookIsAvailable() throws Exception {
+        long userId = idOfUser("clean@logic.test");
+        long bookId = idOfBook("Logic Book A");
+
+        mockMvc.perform(post("/api/users/{userId}/holds", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"bookId\": %d}", bookId)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void rentBookFailsWhenUserHasOverdueBooks() throws Exception {
         long userId = idOfUser("overdue@logic.test");
@@ -234,4 +316,50 @@ public class UserRentLogicTest {
                 .andExpect(status().isNoContent());
 
     }
+
+    @Test
+    void balanceFollowsAccrualPaymentAndWaiver() throws Exception {
+        long overdueUserId = idOfUser("overdue@logic.test");
+        long fineUserId = idOfUser("fine@logic.test");
+        long bookId = idOfBook("Overdue Book");
+
+        mockMvc.perform(get("/api/users/{id}/balance", overdueUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0));
+
+        mockMvc.perform(post("/api/users/{userId}/return", overdueUserId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"bookId\": %d}", bookId)))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{id}/balance", overdueUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(6.0));
+
+        long bookingId = jdbcClient.sql("SELECT id FROM bookings WHERE user_id = ? AND book_id = ?")
+                .param(overdueUserId).param(bookId).query(Long.class).single();
+        mockMvc.perform(post("/api/users/{userId}/bookings/{bookingId}/pay", overdueUserId, bookingId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{id}/balance", overdueUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0));
+
+        long finedBookingId = jdbcClient.sql("SELECT id FROM bookings WHERE user_id = ?")
+                .param(fineUserId).query(Long.class).single();
+        mockMvc.perform(post("/api/users/{userId}/bookings/{bookingId}/waive", fineUserId, finedBookingId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{id}/balance", fineUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0));
+
+        entityManager.flush();
+        List<String> entries = jdbcClient.sql("SELECT entry_type FROM fine_ledger WHERE user_id IN (?, ?) ORDER BY id")
+                .param(overdueUserId).param(fineUserId).query(String.class).list();
+        assertThat(entries).containsExactly("ACCRUAL", "ACCRUAL", "PAYMENT", "WAIVER");
+    }
+
+    @Test
+    void balanceOfUnknownUserIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/users/{id}/balance", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
 }
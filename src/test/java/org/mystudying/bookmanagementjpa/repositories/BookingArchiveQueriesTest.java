@@ -0,0 +1,90 @@
+package org.mystudying.bookmanagementjpa.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.dto.BookingReportDto;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Sql("/insertArchiveTestRecords.sql")
+class BookingArchiveQueriesTest {
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final JdbcClient jdbcClient;
+
+    BookingArchiveQueriesTest(BookingRepository bookingRepository, ArchivedBookingRepository archivedBookingRepository,
+                              JdbcClient jdbcClient) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.jdbcClient = jdbcClient;
+    }
+
+    /**
+     * The fixture's booking ids are base + 1 .. base + 5.
+     */
+    private long base() {
+        return jdbcClient.sql("SELECT MIN(id) - 1 FROM bookings WHERE user_id = (SELECT id FROM users WHERE email = ?)")
+                .param("user@archive.test").query(Long.class).single();
+    }
+
+    @Test
+    void onlySettledOldReturnsAreArchivable() {
+        long base = base();
+
+        List<Long> ids = archivedBookingRepository.lockArchivableIds(LocalDate.of(2021, 1, 1), 1000);
+
+        assertThat(ids).contains(base + 1).doesNotContain(base + 2, base + 3);
+    }
+
+    @Test
+    void archivingMovesTheRowOutOfBookings() {
+        long base = base();
+        List<Long> ids = List.of(base + 1);
+
+        assertThat(archivedBookingRepository.copyFromBookings(ids, LocalDateTime.now())).isEqualTo(1);
+        assertThat(archivedBookingRepository.deleteFromBookings(ids)).isEqualTo(1);
+
+        assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcClient, "bookings", "id = " + (base + 1))).isZero();
+        assertThat(jdbcClient.sql("SELECT returned_at FROM bookings_archive WHERE id = ?").param(base + 1)
+                .query(LocalDate.class).single()).isEqualTo(LocalDate.of(2020, 1, 10));
+    }
+
+    @Test
+    void returnedReportPagesOverBothTables() {
+        long base = base();
+        var newestFirst = Sort.by(Sort.Direction.DESC, "id");
+
+        var first = bookingRepository.findReturnedIncludingArchive(PageRequest.of(0, 2, newestFirst));
+        var second = bookingRepository.findReturnedIncludingArchive(PageRequest.of(1, 2, newestFirst));
+
+        assertThat(first.getContent()).extracting(BookingReportDto::bookingId).containsExactly(base + 5, base + 4);
+        assertThat(second.getContent()).extracting(BookingReportDto::bookingId).containsExactly(base + 2, base + 1);
+        assertThat(first.getTotalElements()).isGreaterThanOrEqualTo(4);
+        assertThat(first.getContent().get(0).userName()).isEqualTo("Archive User");
+        assertThat(first.getContent().get(0).overdueDays()).isEqualTo(5);
+    }
+
+    @Test
+    void returnedReportChunksOverBothTablesInIdOrder() {
+        long base = base();
+
+        var first = bookingRepository.findReturnedIncludingArchiveAfter(base, 3);
+        var rest = bookingRepository.findReturnedIncludingArchiveAfter(base + 4, 3);
+
+        assertThat(first).extracting(BookingReportDto::bookingId).containsExactly(base + 1, base + 2, base + 4);
+        assertThat(rest).extracting(BookingReportDto::bookingId).containsExactly(base + 5);
+    }
+}
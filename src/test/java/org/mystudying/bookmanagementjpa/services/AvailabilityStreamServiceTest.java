@@ -0,0 +1,94 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mystudying.bookmanagementjpa.dto.BookAvailabilityDto;
+import org.mystudying.bookmanagementjpa.events.BookAvailabilityChangedEvent;
+import org.mystudying.bookmanagementjpa.services.inventory.InventoryStrategy;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class AvailabilityStreamServiceTest {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+    private final InventoryStrategy inventory = mock(InventoryStrategy.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AvailabilityStreamService service;
+
+    AvailabilityStreamServiceTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new AvailabilityStreamService(objectMapper, inventory, transactionManager, 1, 10);
+    }
+
+    @AfterEach
+    void shutDown() {
+        service.destroy();
+    }
+
+    @Test
+    void burstOfChangesIsReadOnceAtFlushTime() throws Exception {
+        when(inventory.availability(anyCollection()))
+                .thenReturn(List.of(new BookAvailabilityDto(1L, 0), new BookAvailabilityDto(2L, 5)));
+        service.subscribe();
+
+        // events arrive out of commit order: the later count 0 is seen before the earlier 1
+        service.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, 0));
+        service.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, 1));
+        service.onAvailabilityChanged(new BookAvailabilityChangedEvent(2L, 5));
+        service.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> bookIds = ArgumentCaptor.forClass(Collection.class);
+        verify(inventory).availability(bookIds.capture());
+        assertThat(bookIds.getValue()).containsExactlyInAnyOrder(1L, 2L);
+        verify(objectMapper).writeValueAsString(
+                List.of(new BookAvailabilityDto(1L, 0), new BookAvailabilityDto(2L, 5)));
+
+        service.flush();
+        verifyNoMoreInteractions(inventory);
+    }
+
+    @Test
+    void changesWithoutSubscribersAreDropped() {
+        service.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, 3));
+        service.flush();
+        service.subscribe();
+        service.flush();
+
+        verifyNoInteractions(inventory);
+    }
+
+    @Test
+    void failedReadKeepsChangesForNextFlush() throws Exception {
+        when(inventory.availability(anyCollection()))
+                .thenThrow(new QueryTimeoutException("slow"))
+                .thenReturn(List.of(new BookAvailabilityDto(1L, 2)));
+        service.subscribe();
+        service.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L, 2));
+
+        service.flush();
+        verify(objectMapper, never()).writeValueAsString(any());
+
+        service.flush();
+        verify(inventory, times(2)).availability(List.of(1L));
+        verify(objectMapper).writeValueAsString(List.of(new BookAvailabilityDto(1L, 2)));
+    }
+}
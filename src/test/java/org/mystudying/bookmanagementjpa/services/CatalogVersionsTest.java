@@ -0,0 +1,61 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.config.ReplicaProperties;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogSnapshotRefreshedEvent;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogVersionsTest {
+
+    private final CatalogVersions catalogVersions = new CatalogVersions(
+            new ConcurrentTaskScheduler(Executors.newSingleThreadScheduledExecutor()), new ReplicaProperties());
+
+    @Test
+    void changeOfOneAggregateOnlyInvalidatesTagsContainingIt() {
+        String genres = catalogVersions.current(CatalogAggregate.GENRES).etag();
+        String genresWithBooks = catalogVersions.current(CatalogAggregate.GENRES, CatalogAggregate.BOOKS).etag();
+
+        catalogVersions.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 1L));
+
+        assertThat(catalogVersions.current(CatalogAggregate.GENRES).etag()).isEqualTo(genres);
+        assertThat(catalogVersions.current(CatalogAggregate.GENRES, CatalogAggregate.BOOKS).etag())
+                .isNotEqualTo(genresWithBooks);
+    }
+
+    @Test
+    void snapshotRefreshMovesTagOnAgain() {
+        catalogVersions.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.AUTHORS, 1L));
+        String atCommit = catalogVersions.current(CatalogAggregate.AUTHORS).etag();
+
+        catalogVersions.onSnapshotRefreshed(new CatalogSnapshotRefreshedEvent(Set.of(CatalogAggregate.AUTHORS)));
+
+        assertThat(catalogVersions.current(CatalogAggregate.AUTHORS).etag()).isNotEqualTo(atCommit);
+    }
+
+    @Test
+    void bookTagChangesWithItsOwnBookAuthorsAndGenresOnly() {
+        String tag = catalogVersions.book(1L).etag();
+
+        catalogVersions.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 2L));
+        assertThat(catalogVersions.book(1L).etag()).isEqualTo(tag);
+
+        catalogVersions.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 1L));
+        String changed = catalogVersions.book(1L).etag();
+        assertThat(changed).isNotEqualTo(tag);
+
+        catalogVersions.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.GENRES, 1L));
+        assertThat(catalogVersions.book(1L).etag()).isNotEqualTo(changed).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void etagIsQuoted() {
+        assertThat(catalogVersions.current(CatalogAggregate.AUTHORS).etag()).startsWith("\"").endsWith("\"");
+    }
+}
@@ -8,6 +8,9 @@ import org.mystudying.bookmanagementjpa.dto.BookDto;
 import org.mystudying.bookmanagementjpa.dto.GenreDto;
 import org.mystudying.bookmanagementjpa.repositories.BookRepository;
 import org.mystudying.bookmanagementjpa.repositories.GenreRepository;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogReadModel;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogSnapshotLoader;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogSnapshotProperties;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
@@ -19,7 +22,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 // Slice test: JPA + one service
 @DataJpaTest
-@Import(GenreService.class)
+@Import({GenreService.class, CatalogReadModel.class, CatalogSnapshotLoader.class, CatalogSnapshotProperties.class})
 class GenreServiceTest {
 
     private final GenreService genreService;
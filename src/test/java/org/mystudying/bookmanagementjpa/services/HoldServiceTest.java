@@ -0,0 +1,105 @@
+package org.mystudying.bookmanagementjpa.services;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.domain.Book;
+import org.mystudying.bookmanagementjpa.domain.Hold;
+import org.mystudying.bookmanagementjpa.domain.HoldStatus;
+import org.mystudying.bookmanagementjpa.domain.User;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.mystudying.bookmanagementjpa.repositories.BookingRepository;
+import org.mystudying.bookmanagementjpa.repositories.HoldRepository;
+import org.mystudying.bookmanagementjpa.repositories.UserRepository;
+import org.mystudying.bookmanagementjpa.services.inventory.CounterInventoryStrategy;
+import org.mockito.stubbing.Answer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HoldServiceTest {
+
+    private final HoldRepository holdRepository = mock(HoldRepository.class);
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final HoldProperties properties = new HoldProperties();
+    private final HoldService holdService = new HoldService(holdRepository, mock(UserRepository.class),
+            bookRepository, mock(BookingRepository.class),
+            new CounterInventoryStrategy(bookRepository, mock(EntityManager.class)), properties,
+            mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class));
+
+    @Test
+    void availableCopiesAreReservedInQueueOrder() {
+        Book book = new Book(1L, "Queued", 2020, null, 2);
+        Hold first = hold(book);
+        Hold second = hold(book);
+        Hold third = hold(book);
+        when(holdRepository.findQueueHead(eq(1L), any())).thenAnswer(queue(List.of(first, second, third)));
+        // Two free copies: the third conditional update finds none
+        when(bookRepository.takeAvailable(1L)).thenReturn(1, 1, 0);
+
+        holdService.allocateAvailableCopies(book);
+
+        verify(bookRepository, times(3)).takeAvailable(1L);
+        assertThat(first.getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(first.getPickupDeadline()).isEqualTo(LocalDate.now().plusDays(properties.getPickupDays()));
+        assertThat(second.getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(third.getStatus()).isEqualTo(HoldStatus.WAITING);
+    }
+
+    @Test
+    void onlyReadyHoldSkipsTakingACopy() {
+        Book book = new Book(1L, "Queued", 2020, null, 0);
+        Hold ready = hold(book);
+        ready.markReady(LocalDate.now(), LocalDate.now().plusDays(3));
+        when(holdRepository.findByUserAndBookAndStatusIn(eq(7L), anyLong(), any()))
+                .thenReturn(Optional.of(ready));
+        when(holdRepository.findByUserAndBookAndStatusIn(eq(8L), anyLong(), any()))
+                .thenReturn(Optional.of(hold(book)));
+
+        assertThat(holdService.fulfilHold(7L, 1L)).contains(ready);
+        assertThat(ready.getStatus()).isEqualTo(HoldStatus.FULFILLED);
+        assertThat(holdService.fulfilHold(8L, 1L)).isEmpty();
+        assertThat(holdService.fulfilHold(9L, 1L)).isEmpty();
+    }
+
+    @Test
+    void cancellingAllHoldsReleasesReservedCopies() {
+        Book book = new Book(1L, "Queued", 2020, null, 0);
+        Hold ready = hold(book);
+        ready.markReady(LocalDate.now(), LocalDate.now().plusDays(3));
+        when(holdRepository.findByUserAndStatusIn(eq(7L), any())).thenReturn(List.of(ready));
+        when(holdRepository.findByUserAndBookAndStatusIn(eq(7L), eq(1L), any())).thenReturn(Optional.of(ready));
+        when(bookRepository.findAndLockById(1L)).thenReturn(Optional.of(book));
+
+        holdService.cancelAllHolds(7L);
+
+        assertThat(ready.getStatus()).isEqualTo(HoldStatus.CANCELLED);
+        verify(bookRepository).putBackAvailable(1L);
+    }
+
+    /**
+     * Hands out the given holds as queue heads one per call, then an empty queue.
+     */
+    private static Answer<List<Hold>> queue(List<Hold> holds) {
+        Queue<Hold> queue = new ArrayDeque<>(holds);
+        return invocation -> queue.isEmpty() ? List.of() : List.of(queue.poll());
+    }
+
+    private Hold hold(Book book) {
+        return new Hold(new User(null, "Reader", "reader@example.com"), book, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,89 @@
+package org.mystudying.bookmanagementjpa.services.archive;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.mystudying.bookmanagementjpa.repositories.ArchivedBookingRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingArchiverTest {
+
+    private final ArchivedBookingRepository repository = mock(ArchivedBookingRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ArchiveProperties properties = new ArchiveProperties();
+    private final BookingArchiver archiver = new BookingArchiver(repository, properties, transactionManager);
+
+    BookingArchiverTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        properties.setEnabled(true);
+        properties.setBatchSize(2);
+        properties.setRetention(Period.ofMonths(6));
+    }
+
+    @Test
+    void movesBatchesUntilNothingIsLeft() {
+        when(repository.lockArchivableIds(eq(LocalDate.now().minusMonths(6)), anyInt()))
+                .thenAnswer(batches(List.of(List.of(1L, 2L), List.of(3L))));
+        when(repository.copyFromBookings(anyList(), any())).thenReturn(2, 1);
+
+        archiver.archive();
+
+        verify(repository).deleteFromBookings(List.of(1L, 2L));
+        verify(repository).deleteFromBookings(List.of(3L));
+        assertThat(archiver.stats().archived()).isEqualTo(3);
+        assertThat(archiver.stats().lastRunArchived()).isEqualTo(3);
+    }
+
+    @Test
+    void runIsBoundedByMaxBatches() {
+        properties.setMaxBatchesPerRun(2);
+        when(repository.lockArchivableIds(any(), anyInt()))
+                .thenAnswer(batches(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L))));
+        when(repository.copyFromBookings(anyList(), any())).thenReturn(2);
+
+        assertThat(archiver.archiveNow()).isEqualTo(4);
+    }
+
+    @Test
+    void incompleteCopyDoesNotDelete() {
+        when(repository.lockArchivableIds(any(), anyInt())).thenReturn(List.of(1L, 2L));
+        when(repository.copyFromBookings(anyList(), any())).thenReturn(1);
+
+        assertThatIllegalStateException().isThrownBy(archiver::archiveNow);
+        verify(repository, never()).deleteFromBookings(anyList());
+    }
+
+    @Test
+    void disabledArchiverDoesNothing() {
+        properties.setEnabled(false);
+
+        archiver.archive();
+
+        verify(repository, never()).lockArchivableIds(any(), anyInt());
+    }
+
+    /**
+     * Hands out the given id batches one per call, then empty ones.
+     */
+    private static Answer<List<Long>> batches(List<List<Long>> batches) {
+        Queue<List<Long>> queue = new ArrayDeque<>(batches);
+        return invocation -> queue.isEmpty() ? List.of() : queue.poll();
+    }
+}
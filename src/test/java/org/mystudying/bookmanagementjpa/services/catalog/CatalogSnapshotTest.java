@@ -0,0 +1,75 @@
+package org.mystudying.bookmanagementjpa.services.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.dto.AuthorDto;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.dto.BookSearchCriteria;
+import org.mystudying.bookmanagementjpa.dto.GenreDto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CatalogSnapshotTest {
+
+    private static final long FANTASY = 1;
+    private static final long MYSTERY = 2;
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.build(
+            List.of(new CatalogBookRow(1, "the hobbit", 1937, 2, 10, new long[]{FANTASY}),
+                    new CatalogBookRow(2, "Dune", 1965, 0, 11, new long[]{FANTASY}),
+                    new CatalogBookRow(3, "Gaudy Night", 1935, 1, 12, new long[]{MYSTERY})),
+            List.of(author(10, "Tolkien"), author(11, "Herbert"), author(12, "Sayers"), author(13, "Austen")),
+            List.of(new GenreDto(FANTASY, "Fantasy"), new GenreDto(MYSTERY, "Mystery")));
+
+    @Test
+    void booksAreListedInTitleOrderIgnoringCase() {
+        assertThat(snapshot.allBooks()).extracting(BookDto::id).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void searchCombinesGenreYearAndAvailability() {
+        var criteria = new BookSearchCriteria(true, 1930, 1940, Set.of(FANTASY, MYSTERY), null, null, null);
+
+        assertThat(snapshot.supports(criteria)).isTrue();
+        assertThat(snapshot.search(criteria)).extracting(BookDto::id).containsExactly(3L, 1L);
+        assertThat(snapshot.supports(new BookSearchCriteria(null, null, null, null, "Dune", null, null))).isFalse();
+    }
+
+    @Test
+    void authorsAndGenresWithoutBooksAreKnownButEmpty() {
+        assertThat(snapshot.booksByAuthor(13)).contains(List.of());
+        assertThat(snapshot.booksByAuthor(99)).isEmpty();
+        assertThat(snapshot.booksByGenre(MYSTERY).orElseThrow()).extracting(BookDto::id).containsExactly(3L);
+        assertThat(snapshot.booksByGenre(99)).isEmpty();
+    }
+
+    @Test
+    void availabilityChangesPatchCountsWithoutTouchingTheOriginal() {
+        CatalogSnapshot next = snapshot.withChanges(Map.of(2L, 1), Set.of(), List.of(), Set.of(), List.of(), null);
+
+        assertThat(next.allBooks()).extracting(BookDto::id, BookDto::available)
+                .containsExactly(tuple(2L, 1), tuple(3L, 1), tuple(1L, 2));
+        assertThat(snapshot.allBooks().get(0).available()).isZero();
+    }
+
+    @Test
+    void renamedAddedAndDeletedBooksAreReindexed() {
+        CatalogSnapshot next = snapshot.withChanges(Map.of(), Set.of(1L, 3L, 4L),
+                List.of(new CatalogBookRow(1, "A Hobbit", 1937, 2, 10, new long[]{FANTASY}),
+                        new CatalogBookRow(4, "Emma", 1815, 1, 13, new long[]{})),
+                Set.of(), List.of(), null);
+
+        assertThat(next.allBooks()).extracting(BookDto::id).containsExactly(1L, 2L, 4L);
+        assertThat(next.booksByAuthor(13).orElseThrow()).extracting(BookDto::id).containsExactly(4L);
+        assertThat(next.booksByGenre(MYSTERY)).contains(List.of());
+    }
+
+    private static AuthorDto author(long id, String name) {
+        return new AuthorDto(id, name, LocalDate.of(1900, 1, 1));
+    }
+}
@@ -0,0 +1,92 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ColdStorageExporterTest {
+
+    private static final String DELETE = "DELETE FROM bookings_archive WHERE id IN (:ids)";
+
+    @TempDir
+    Path directory;
+
+    private final ColdStorageProperties properties = new ColdStorageProperties();
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final ArchivedBookingReader reader = mock(ArchivedBookingReader.class);
+
+    @BeforeEach
+    void configure() {
+        properties.setDirectory(directory);
+        properties.setSegmentRows(10);
+        properties.setMinSegmentRows(1);
+    }
+
+    @Test
+    void segmentIsWrittenBeforeItsBookingsAreDeleted() throws Exception {
+        when(reader.read(anyInt(), anyInt())).thenReturn(archived(1, 2, 3));
+        when(jdbcTemplate.update(anyString(), anyMap())).thenAnswer(invocation -> {
+            assertThat(segmentFiles()).hasSize(1);
+            return 3;
+        });
+
+        long moved = new ColdStorageExporter(jdbcTemplate, reader, new ColdStorage(properties), properties).exportNow();
+
+        assertThat(moved).isEqualTo(3);
+        verify(jdbcTemplate).update(DELETE, Map.of("ids", List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void runAfterACrashFinishesTheDeleteWithoutExportingAgain() throws Exception {
+        when(reader.read(anyInt(), anyInt())).thenReturn(archived(1, 2, 3));
+        when(jdbcTemplate.update(anyString(), anyMap())).thenThrow(new DataAccessResourceFailureException("gone"));
+        assertThatThrownBy(new ColdStorageExporter(jdbcTemplate, reader, new ColdStorage(properties), properties)::exportNow)
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(segmentFiles()).hasSize(1);
+
+        // Restart: the rows are still archived, but already in the latest segment
+        NamedParameterJdbcTemplate restarted = mock(NamedParameterJdbcTemplate.class);
+        when(restarted.update(anyString(), anyMap())).thenReturn(3);
+        when(reader.read(anyInt(), anyInt())).thenReturn(new ColdSegmentWriter());
+
+        long moved = new ColdStorageExporter(restarted, reader, new ColdStorage(properties), properties).exportNow();
+
+        assertThat(moved).isZero();
+        verify(restarted).update(DELETE, Map.of("ids", List.of(1L, 2L, 3L)));
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static ColdSegmentWriter archived(long... ids) {
+        ColdSegmentWriter writer = new ColdSegmentWriter();
+        LocalDate borrowed = LocalDate.of(2020, 1, 1);
+        for (long id : ids) {
+            writer.add(id, 10, 100, borrowed, borrowed.plusDays(14), borrowed.plusDays(7), BigDecimal.ZERO, true);
+        }
+        return writer;
+    }
+}
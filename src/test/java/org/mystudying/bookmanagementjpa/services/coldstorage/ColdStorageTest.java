@@ -0,0 +1,137 @@
+package org.mystudying.bookmanagementjpa.services.coldstorage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mystudying.bookmanagementjpa.dto.BookLoansDto;
+import org.mystudying.bookmanagementjpa.dto.CirculationStatsDto;
+import org.mystudying.bookmanagementjpa.dto.MonthlyCirculationDto;
+import org.mystudying.bookmanagementjpa.exceptions.ReportCancelledException;
+import org.mystudying.bookmanagementjpa.services.reports.QueryCancellation;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColdStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private final ColdStorageProperties properties = new ColdStorageProperties();
+
+    @BeforeEach
+    void useTempDirectory() {
+        properties.setDirectory(directory);
+    }
+
+    @Test
+    void segmentsSurviveARestart() throws Exception {
+        ColdSegmentWriter writer = new ColdSegmentWriter();
+        for (long id = 1; id <= 5000; id++) {
+            LocalDate borrowed = LocalDate.of(2020, 1, 1).plusDays(id / 10);
+            writer.add(id * 3, 1_000 + id % 7, 50_000 + id % 250, borrowed, borrowed.plusDays(14),
+                    borrowed.plusDays(id % 20), id % 20 > 14 ? new BigDecimal("1.50") : BigDecimal.ZERO, true);
+        }
+        new ColdStorage(properties).add(writer);
+
+        ColdSegment segment = new ColdStorage(properties).latest().orElseThrow();
+
+        assertThat(segment.rows()).isEqualTo(5000);
+        assertThat(segment.firstId()).isEqualTo(3);
+        assertThat(segment.lastId()).isEqualTo(15_000);
+        assertThat(segment.ids()).isEqualTo(writer.ids());
+        assertThat(segment.userCount()).isEqualTo(7);
+        assertThat(segment.bookCount()).isEqualTo(250);
+        // Deltas, codes and day offsets fit in one or two bytes per value
+        assertThat(segment.sizeBytes()).isLessThan(5000 * 10);
+    }
+
+    @Test
+    void circulationCountsOneYearOfBorrowDates() throws Exception {
+        ColdStorage storage = new ColdStorage(properties);
+        ColdSegmentWriter older = new ColdSegmentWriter();
+        older.add(1, 10, 100, LocalDate.of(2022, 12, 31), LocalDate.of(2023, 1, 14), LocalDate.of(2023, 1, 2),
+                null, false);
+        storage.add(older);
+        ColdSegmentWriter writer = new ColdSegmentWriter();
+        writer.add(2, 10, 100, LocalDate.of(2023, 1, 5), LocalDate.of(2023, 1, 19), LocalDate.of(2023, 1, 25),
+                new BigDecimal("6.00"), true);
+        writer.add(3, 11, 100, LocalDate.of(2023, 1, 20), LocalDate.of(2023, 2, 3), LocalDate.of(2023, 2, 1),
+                BigDecimal.ZERO, false);
+        writer.add(4, 12, 200, LocalDate.of(2023, 3, 31), LocalDate.of(2023, 4, 14), LocalDate.of(2023, 4, 10),
+                BigDecimal.ZERO, false);
+        writer.add(5, 12, 300, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 3),
+                BigDecimal.ZERO, false);
+        storage.add(writer);
+
+        CirculationStatsDto stats = storage.circulation(2023, 1, new QueryCancellation());
+
+        assertThat(stats.loans()).isEqualTo(3);
+        assertThat(stats.distinctUsers()).isEqualTo(3);
+        assertThat(stats.distinctBooks()).isEqualTo(2);
+        assertThat(stats.lateReturns()).isEqualTo(1);
+        assertThat(stats.averageLoanDays()).isEqualTo((20 + 12 + 10) / 3.0);
+        assertThat(stats.fines()).isEqualByComparingTo("6.00");
+        assertThat(stats.byMonth()).hasSize(12).startsWith(
+                new MonthlyCirculationDto(YearMonth.of(2023, 1), 2, 1),
+                new MonthlyCirculationDto(YearMonth.of(2023, 2), 0, 0),
+                new MonthlyCirculationDto(YearMonth.of(2023, 3), 1, 0));
+        assertThat(stats.topBooks()).containsExactly(new BookLoansDto(100, 2));
+        // The 2022 segment is skipped on its date range alone
+        assertThat(stats.segmentsScanned()).isEqualTo(1);
+        assertThat(storage.circulation(2021, 1, new QueryCancellation()).segmentsScanned()).isZero();
+    }
+
+    @Test
+    void exportedBookingsOfAUserAreFoundAgain() throws Exception {
+        ColdStorage storage = new ColdStorage(properties);
+        ColdSegmentWriter writer = new ColdSegmentWriter();
+        writer.add(7, 10, 100, LocalDate.of(2023, 1, 5), LocalDate.of(2023, 1, 19), LocalDate.of(2023, 1, 25),
+                new BigDecimal("6.00"), true);
+        writer.add(8, 11, 200, LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 15), LocalDate.of(2023, 2, 3),
+                null, false);
+        writer.add(9, 10, 300, LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 15), LocalDate.of(2023, 3, 10),
+                null, false);
+        storage.add(writer);
+
+        assertThat(storage.bookingsOfUser(10)).containsExactly(
+                new ColdBooking(7, 10, 100, LocalDate.of(2023, 1, 5), LocalDate.of(2023, 1, 19),
+                        LocalDate.of(2023, 1, 25), new BigDecimal("6.00"), true),
+                new ColdBooking(9, 10, 300, LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 15),
+                        LocalDate.of(2023, 3, 10), new BigDecimal("0.00"), false));
+        assertThat(storage.bookingsOfUser(12)).isEmpty();
+        assertThat(storage.hasBookingsOfUser(11)).isTrue();
+        assertThat(storage.hasBookingsOfUser(12)).isFalse();
+        assertThat(storage.hasBookingsOfBook(200)).isTrue();
+        assertThat(storage.hasBookingsOfBook(400)).isFalse();
+    }
+
+    @Test
+    void abandonedScanStops() throws Exception {
+        ColdStorage storage = new ColdStorage(properties);
+        ColdSegmentWriter writer = new ColdSegmentWriter();
+        writer.add(1, 10, 100, LocalDate.of(2023, 1, 5), LocalDate.of(2023, 1, 19), LocalDate.of(2023, 1, 10),
+                null, false);
+        storage.add(writer);
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel(connectionId -> { });
+
+        assertThatThrownBy(() -> storage.circulation(2023, 10, cancellation)).isInstanceOf(ReportCancelledException.class);
+    }
+
+    @Test
+    void bookingsMustBeAddedInIdOrder() {
+        ColdSegmentWriter writer = new ColdSegmentWriter();
+        writer.add(2, 10, 100, LocalDate.of(2023, 1, 5), LocalDate.of(2023, 1, 19), LocalDate.of(2023, 1, 10),
+                null, false);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> writer.add(1, 10, 100, LocalDate.of(2023, 1, 5),
+                LocalDate.of(2023, 1, 19), LocalDate.of(2023, 1, 10), null, false));
+    }
+}
@@ -0,0 +1,124 @@
+package org.mystudying.bookmanagementjpa.services.facets;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.dto.FacetCountDto;
+import org.mystudying.bookmanagementjpa.events.BookAvailabilityChangedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FacetIndexTest {
+
+    private static final long FANTASY = 1;
+    private static final long MYSTERY = 2;
+
+    private final FacetIndexLoader loader = mock(FacetIndexLoader.class);
+    private final FacetIndex index = new FacetIndex(loader);
+
+    FacetIndexTest() {
+        when(loader.loadGenreNames()).thenReturn(Map.of(FANTASY, "Fantasy", MYSTERY, "Mystery"));
+        // Title order: 3, 1, 2, 4
+        when(loader.loadAll()).thenReturn(List.of(
+                new BookFacets(3, 1997, 0, new long[]{FANTASY}),
+                new BookFacets(1, 1996, 2, new long[]{FANTASY, MYSTERY}),
+                new BookFacets(2, 2005, 1, new long[]{MYSTERY}),
+                new BookFacets(4, 2008, 1, new long[]{FANTASY})));
+    }
+
+    @Test
+    void countsOfAFacetIgnoreItsOwnSelection() {
+        FacetResult result = index.search(new FacetQuery(Set.of(FANTASY), null, true), 0, 10);
+
+        assertThat(result.bookIds()).containsExactly(1L, 4L);
+        assertThat(result.totalHits()).isEqualTo(2);
+        // Genres counted over available books only
+        assertThat(result.genres()).extracting(FacetCountDto::label, FacetCountDto::count, FacetCountDto::selected)
+                .containsExactly(tuple("Fantasy", 2L, true),
+                        tuple("Mystery", 2L, false));
+        // Availability counted over fantasy books only
+        assertThat(result.availability()).extracting(FacetCountDto::count).containsExactly(2L, 1L);
+        assertThat(result.decades()).extracting(FacetCountDto::value, FacetCountDto::count)
+                .containsExactly(tuple("1990", 1L),
+                        tuple("2000", 1L));
+    }
+
+    @Test
+    void hitsArePagedInTitleOrder() {
+        FacetResult result = index.search(new FacetQuery(null, null, null), 1, 2);
+
+        assertThat(result.bookIds()).containsExactly(2L, 4L);
+        assertThat(result.totalHits()).isEqualTo(4);
+    }
+
+    @Test
+    void flushAppliesCommittedWrites() {
+        index.rebuild();
+        when(loader.load(any())).thenReturn(List.of(new BookFacets(5, 2011, 3, new long[]{MYSTERY})));
+
+        index.onAvailabilityChanged(new BookAvailabilityChangedEvent(3, 1));
+        index.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 5));
+        index.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 2)); // deleted: not returned by load
+        index.flush();
+
+        FacetResult result = index.search(new FacetQuery(null, Set.of(2010), true), 0, 10);
+        assertThat(result.bookIds()).containsExactly(5L);
+        assertThat(index.search(new FacetQuery(null, null, true), 0, 10).bookIds()).containsExactly(3L, 1L, 4L, 5L);
+    }
+
+    @Test
+    void failedLoadKeepsWritesForNextFlush() {
+        index.rebuild();
+        when(loader.load(any()))
+                .thenThrow(new QueryTimeoutException("slow"))
+                .thenReturn(List.of(new BookFacets(5, 2011, 3, new long[]{MYSTERY})));
+
+        index.onAvailabilityChanged(new BookAvailabilityChangedEvent(3, 1));
+        index.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 5));
+        index.flush();
+
+        assertThat(index.search(new FacetQuery(null, null, true), 0, 10).bookIds()).containsExactly(1L, 2L, 4L);
+        assertThat(index.stats().pendingUpdates()).isEqualTo(2);
+
+        index.flush();
+        assertThat(index.search(new FacetQuery(null, null, true), 0, 10).bookIds()).containsExactly(3L, 1L, 2L, 4L, 5L);
+        assertThat(index.stats().pendingUpdates()).isZero();
+    }
+
+    @Test
+    void searchDoesNotWaitForAFlushLoad() throws Exception {
+        index.rebuild();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(loader.load(any())).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new BookFacets(5, 2011, 3, new long[]{MYSTERY}));
+        });
+        index.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 5));
+
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(index::flush);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        FacetResult during = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> index.search(new FacetQuery(null, null, null), 0, 10));
+        assertThat(during.bookIds()).containsExactly(3L, 1L, 2L, 4L);
+
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        assertThat(index.search(new FacetQuery(null, null, null), 0, 10).bookIds()).containsExactly(3L, 1L, 2L, 4L, 5L);
+    }
+}
@@ -0,0 +1,122 @@
+package org.mystudying.bookmanagementjpa.services.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.domain.OutboxEvent;
+import org.mystudying.bookmanagementjpa.domain.OutboxEventType;
+import org.mystudying.bookmanagementjpa.repositories.OutboxEventRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OutboxProperties properties = new OutboxProperties();
+    private long nextId = 1;
+
+    OutboxRelayTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        properties.setBatchSize(2);
+    }
+
+    @Test
+    void deliversBatchesUntilOutboxIsDrained() {
+        Queue<List<OutboxEvent>> batches = new ArrayDeque<>(List.of(List.of(event(), event()), List.of(event())));
+        when(repository.lockNextBatch(anyInt(), any()))
+                .thenAnswer(invocation -> batches.isEmpty() ? List.of() : batches.poll());
+        var sink = new RecordingSink();
+
+        new OutboxRelay(repository, List.of(sink), properties, transactionManager).relay();
+
+        assertThat(sink.received).extracting(OutboxEvent::getId).containsExactly(1L, 2L, 3L);
+        assertThat(sink.received).allMatch(e -> e.getLeasedUntil().isAfter(LocalDateTime.now()));
+        verify(repository).markPublished(eq(List.of(1L, 2L)), any());
+        verify(repository).markPublished(eq(List.of(3L)), any());
+    }
+
+    @Test
+    void sinkIsCalledOnlyAfterTheClaimHasCommitted() {
+        when(repository.lockNextBatch(anyInt(), any())).thenReturn(List.of(event()));
+        var sink = new RecordingSink();
+        sink.onDeliver = () -> assertThat(commits()).isEqualTo(1);
+
+        new OutboxRelay(repository, List.of(sink), properties, transactionManager).relay();
+
+        assertThat(sink.received).hasSize(1);
+        assertThat(commits()).isEqualTo(2);
+    }
+
+    @Test
+    void failingSinkBacksOffAndKeepsEventsPending() {
+        when(repository.lockNextBatch(anyInt(), any())).thenReturn(List.of(event(), event()));
+        var sink = new RecordingSink();
+        sink.onDeliver = () -> {
+            throw new IllegalStateException("down");
+        };
+        var relay = new OutboxRelay(repository, List.of(sink), properties, transactionManager);
+
+        relay.relay();
+        relay.relay();
+
+        verify(repository, times(1)).lockNextBatch(anyInt(), any());
+        verify(repository).markFailedAttempt(List.of(1L, 2L));
+        verify(repository, never()).markPublished(any(), any());
+        assertThat(relay.stats().failedDeliveries()).isEqualTo(1);
+        assertThat(relay.stats().backoffUntil()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    void withoutSinksEventsStayPending() {
+        new OutboxRelay(repository, List.of(), properties, transactionManager).relay();
+
+        verifyNoInteractions(repository);
+    }
+
+    private long commits() {
+        return mockingDetails(transactionManager).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("commit"))
+                .count();
+    }
+
+    private OutboxEvent event() {
+        var event = new OutboxEvent(OutboxEventType.BOOK_RENTED, 1L, "{}", LocalDateTime.now());
+        ReflectionTestUtils.setField(event, "id", nextId++);
+        return event;
+    }
+
+    private static class RecordingSink implements OutboxEventSink {
+        private final List<OutboxEvent> received = new ArrayList<>();
+        private Runnable onDeliver = () -> {
+        };
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public void deliver(List<OutboxEvent> events) {
+            onDeliver.run();
+            received.addAll(events);
+        }
+    }
+}
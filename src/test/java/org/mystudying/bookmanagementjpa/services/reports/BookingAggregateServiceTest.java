@@ -0,0 +1,78 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.dto.BookingAggregatesDto;
+import org.mystudying.bookmanagementjpa.dto.OverdueDayDto;
+import org.mystudying.bookmanagementjpa.services.reports.BookingRangeQueries.IdRange;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingAggregateServiceTest {
+
+    private final BookingRangeQueries rangeQueries = mock(BookingRangeQueries.class);
+    private final BookingAggregateService service = new BookingAggregateService(rangeQueries, 3, 10);
+
+    @AfterEach
+    void shutDown() {
+        service.destroy();
+    }
+
+    @Test
+    void rangesCoverTheIdSpaceWithoutGapsOrOverlap() {
+        assertThat(BookingAggregateService.split(new IdRange(1, 100), 12, 10))
+                .hasSize(10)
+                .startsWith(new IdRange(1, 10), new IdRange(11, 20))
+                .endsWith(new IdRange(91, 100));
+        assertThat(BookingAggregateService.split(new IdRange(5, 1004), 3, 10))
+                .containsExactly(new IdRange(5, 338), new IdRange(339, 672), new IdRange(673, 1004));
+        assertThat(BookingAggregateService.split(new IdRange(7, 9), 12, 10)).containsExactly(new IdRange(7, 9));
+    }
+
+    @Test
+    void rangesRunConcurrentlyAndAreMerged() {
+        LocalDate dueAt = LocalDate.now().minusDays(2);
+        // Each range waits for the other two, so this only completes when all three run at the same time
+        CountDownLatch allStarted = new CountDownLatch(3);
+        when(rangeQueries.idBounds()).thenReturn(Optional.of(new IdRange(1, 30)));
+        when(rangeQueries.totals(any(), any(), any())).thenAnswer(invocation -> {
+            allStarted.countDown();
+            assertThat(allStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return new BookingTotals(10, 2, new BigDecimal("5.00"), new BigDecimal("1.50"),
+                    new TreeMap<>(Map.of(dueAt, 1L)));
+        });
+
+        BookingAggregatesDto aggregates = service.aggregate(new QueryCancellation());
+
+        assertThat(aggregates.ranges()).isEqualTo(3);
+        assertThat(aggregates.bookings()).isEqualTo(30);
+        assertThat(aggregates.activeBookings()).isEqualTo(6);
+        assertThat(aggregates.fines()).isEqualByComparingTo("15");
+        assertThat(aggregates.unpaidFines()).isEqualByComparingTo("4.5");
+        assertThat(aggregates.overdueBookings()).isEqualTo(3);
+        assertThat(aggregates.overdueByDueDate()).containsExactly(new OverdueDayDto(dueAt, 3));
+        assertThat(aggregates.accruingFines()).isEqualByComparingTo("6");
+    }
+
+    @Test
+    void noBookingsGiveEmptyTotals() {
+        when(rangeQueries.idBounds()).thenReturn(Optional.empty());
+
+        BookingAggregatesDto aggregates = service.aggregate(new QueryCancellation());
+
+        assertThat(aggregates.ranges()).isZero();
+        assertThat(aggregates.bookings()).isZero();
+        assertThat(aggregates.overdueByDueDate()).isEmpty();
+    }
+}
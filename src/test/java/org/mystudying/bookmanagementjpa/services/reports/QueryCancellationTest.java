@@ -0,0 +1,57 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.exceptions.ReportCancelledException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryCancellationTest {
+
+    private final List<Long> killed = new ArrayList<>();
+    private final QueryCancellation cancellation = new QueryCancellation();
+
+    @Test
+    void cancelKillsTheBoundConnectionOnce() {
+        cancellation.bind(42);
+
+        cancellation.cancel(killed::add);
+        cancellation.cancel(killed::add);
+
+        assertThat(killed).containsExactly(42L);
+        assertThat(cancellation.isCancelled()).isTrue();
+    }
+
+    @Test
+    void cancelKillsEveryConnectionStillBound() {
+        cancellation.bind(42);
+        cancellation.bind(43);
+        cancellation.bind(44);
+        cancellation.release(43);
+
+        cancellation.cancel(killed::add);
+
+        assertThat(killed).containsExactlyInAnyOrder(42L, 44L);
+    }
+
+    @Test
+    void finishedReportIsNeverKilled() {
+        cancellation.bind(42);
+        cancellation.finish();
+
+        cancellation.cancel(killed::add);
+
+        assertThat(killed).isEmpty();
+    }
+
+    @Test
+    void reportCancelledBeforeItStartsDoesNotRun() {
+        cancellation.cancel(killed::add);
+
+        assertThat(killed).isEmpty();
+        assertThatThrownBy(() -> cancellation.bind(42)).isInstanceOf(ReportCancelledException.class);
+    }
+}
@@ -0,0 +1,168 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mystudying.bookmanagementjpa.dto.BookingReportDto;
+import org.mystudying.bookmanagementjpa.dto.BookingReportType;
+import org.mystudying.bookmanagementjpa.dto.ReportJobDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobRequestDto;
+import org.mystudying.bookmanagementjpa.dto.ReportJobStatus;
+import org.mystudying.bookmanagementjpa.exceptions.ReportJobNotFoundException;
+import org.mystudying.bookmanagementjpa.exceptions.TooManyReportJobsException;
+import org.mystudying.bookmanagementjpa.services.BookingService;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportJobServiceTest {
+
+    private static final ReportJobRequestDto FINES = new ReportJobRequestDto(BookingReportType.FINES, null, null, false);
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ReportJobProperties properties = new ReportJobProperties();
+    private final MovableClock clock = new MovableClock();
+    @TempDir
+    private Path directory;
+    private ReportJobService service;
+
+    @BeforeEach
+    void configure() {
+        properties.setDirectory(directory);
+        properties.setPageSize(2);
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+    }
+
+    @AfterEach
+    void shutDown() {
+        service.destroy();
+    }
+
+    @Test
+    void writesAllChunksAsOneCompressedJsonArray() throws Exception {
+        when(bookingService.getBookingReportAfter(eq(BookingReportType.FINES), any(), any(), anyBoolean(), eq(0L), eq(2)))
+                .thenReturn(List.of(row(1), row(5)));
+        when(bookingService.getBookingReportAfter(eq(BookingReportType.FINES), any(), any(), anyBoolean(), eq(5L), eq(2)))
+                .thenReturn(List.of(row(7)));
+        service = new ReportJobService(bookingService, objectMapper, properties, clock);
+
+        ReportJobDto job = awaitFinished(service.submit(FINES).id());
+
+        assertThat(job.status()).isEqualTo(ReportJobStatus.DONE);
+        assertThat(job.rows()).isEqualTo(3);
+        assertThat(job.resultUrl()).isEqualTo("/api/reports/jobs/" + job.id() + "/result");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(service.result(job.id())))) {
+            JsonNode rows = objectMapper.readTree(in);
+            assertThat(rows).extracting(row -> row.get("bookingId").asLong()).containsExactly(1L, 5L, 7L);
+        }
+    }
+
+    @Test
+    void sameParametersShareOneJobUntilItExpires() throws Exception {
+        when(bookingService.getBookingReportAfter(any(), any(), any(), anyBoolean(), anyLong(), anyInt()))
+                .thenReturn(List.of(row(1)));
+        service = new ReportJobService(bookingService, objectMapper, properties, clock);
+
+        String id = service.submit(FINES).id();
+        awaitFinished(id);
+        Path result = service.result(id);
+
+        assertThat(service.submit(FINES).id()).isEqualTo(id);
+        verify(bookingService, times(1)).getBookingReportAfter(any(), any(), any(), anyBoolean(), anyLong(), anyInt());
+
+        clock.advance(properties.getTtl().plusSeconds(1));
+        service.expire();
+
+        assertThat(result).doesNotExist();
+        assertThatThrownBy(() -> service.find(id)).isInstanceOf(ReportJobNotFoundException.class);
+        assertThat(service.submit(FINES).id()).isNotEqualTo(id);
+    }
+
+    @Test
+    void jobsBeyondTheQueueAreRefused() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingService.getBookingReportAfter(any(), any(), any(), anyBoolean(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.<BookingReportDto>of();
+        });
+        service = new ReportJobService(bookingService, objectMapper, properties, clock);
+
+        String running = service.submit(FINES).id();
+        service.submit(new ReportJobRequestDto(BookingReportType.ACTIVE, null, null, false));
+
+        assertThatThrownBy(() -> service.submit(new ReportJobRequestDto(BookingReportType.RETURNED, null, null, false)))
+                .isInstanceOf(TooManyReportJobsException.class);
+        release.countDown();
+        assertThat(awaitFinished(running).status()).isEqualTo(ReportJobStatus.DONE);
+    }
+
+    private ReportJobDto awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ReportJobDto job = service.find(id);
+        while (job.status() != ReportJobStatus.DONE && job.status() != ReportJobStatus.FAILED
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = service.find(id);
+        }
+        return job;
+    }
+
+    private static BookingReportDto row(long id) {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        return new BookingReportDto(id, 1L, "Reader", "reader@example.com", 1L, "Book", day, day.plusDays(14),
+                null, 0, BigDecimal.ZERO, false);
+    }
+
+    private static class MovableClock extends Clock {
+
+        private volatile Instant instant = Instant.parse("2024-01-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.mystudying.bookmanagementjpa.services.reports;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.exceptions.TooManyReportsException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReportRunnerTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final DataSource killDataSource = mock(DataSource.class);
+    private final ReportRunner runner = new ReportRunner(dataSource, killDataSource, 1, 1, 60_000);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutDown() {
+        release.countDown();
+        runner.destroy();
+    }
+
+    @Test
+    void reportsBeyondTheQueueAreRefused() {
+        runner.submit(cancellation -> await());
+        runner.submit(cancellation -> await());
+
+        assertThatThrownBy(() -> runner.submit(cancellation -> await())).isInstanceOf(TooManyReportsException.class);
+    }
+
+    @Test
+    void killGoesToTheServerTheReportRunsOn() throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(killDataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        runner.killQuery(42);
+
+        verify(statement).execute("KILL QUERY 42");
+        verifyNoInteractions(dataSource);
+    }
+
+    private Object await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
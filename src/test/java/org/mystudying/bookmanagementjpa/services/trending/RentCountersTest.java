@@ -0,0 +1,109 @@
+package org.mystudying.bookmanagementjpa.services.trending;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.dto.TrendingWindow;
+import org.mystudying.bookmanagementjpa.services.trending.RentCounters.RentCount;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RentCountersTest {
+
+    private final MovableClock clock = new MovableClock();
+    private final RentCounters counters = new RentCounters(clock);
+
+    @Test
+    void rentsSlideOutOfEachWindow() {
+        rent(1, 3);
+        clock.advance(Duration.ofMinutes(50));
+        rent(2, 2);
+
+        assertThat(counters.top(TrendingWindow.HOUR, 10)).containsExactly(new RentCount(1, 3), new RentCount(2, 2));
+
+        clock.advance(Duration.ofMinutes(15));
+        counters.advance();
+        assertThat(counters.top(TrendingWindow.HOUR, 10)).containsExactly(new RentCount(2, 2));
+        assertThat(counters.top(TrendingWindow.DAY, 10)).containsExactly(new RentCount(1, 3), new RentCount(2, 2));
+
+        clock.advance(Duration.ofDays(1));
+        counters.advance();
+        assertThat(counters.top(TrendingWindow.DAY, 10)).isEmpty();
+        assertThat(counters.top(TrendingWindow.WEEK, 10)).containsExactly(new RentCount(1, 3), new RentCount(2, 2));
+
+        clock.advance(Duration.ofDays(7));
+        rent(3, 1);
+        assertThat(counters.top(TrendingWindow.WEEK, 10)).containsExactly(new RentCount(3, 1));
+    }
+
+    @Test
+    void topKeepsTheMostRentedWithLowerIdFirstOnATie() {
+        rent(5, 1);
+        rent(4, 4);
+        rent(3, 2);
+        rent(2, 4);
+        rent(1, 1);
+
+        assertThat(counters.top(TrendingWindow.DAY, 3))
+                .containsExactly(new RentCount(2, 4), new RentCount(4, 4), new RentCount(3, 2));
+    }
+
+    @Test
+    void loadedCountsAreNotStoredAgain() {
+        long now = counters.currentBucket();
+        counters.load(now - 20, 7, 5);
+        counters.load(now - RentCounters.buckets(TrendingWindow.WEEK), 8, 100);
+        rent(7, 1);
+
+        assertThat(counters.top(TrendingWindow.HOUR, 10)).containsExactly(new RentCount(7, 1));
+        assertThat(counters.top(TrendingWindow.DAY, 10)).containsExactly(new RentCount(7, 6));
+        assertThat(counters.drainUnflushed()).isEqualTo(Map.of(now, Map.of(7L, 1L)));
+        assertThat(counters.drainUnflushed()).isEmpty();
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        rent(1, 2);
+        var drained = counters.drainUnflushed();
+        rent(1, 1);
+
+        counters.restore(drained);
+
+        assertThat(counters.drainUnflushed()).isEqualTo(Map.of(counters.currentBucket(), Map.of(1L, 3L)));
+    }
+
+    private void rent(long bookId, int times) {
+        for (int i = 0; i < times; i++) {
+            counters.record(bookId);
+        }
+    }
+
+    private static class MovableClock extends Clock {
+
+        private Instant instant = Instant.parse("2024-01-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
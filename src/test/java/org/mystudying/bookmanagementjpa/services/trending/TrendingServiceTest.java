@@ -0,0 +1,74 @@
+package org.mystudying.bookmanagementjpa.services.trending;
+
+import org.junit.jupiter.api.Test;
+import org.mystudying.bookmanagementjpa.dto.BookDto;
+import org.mystudying.bookmanagementjpa.dto.TrendingBookDto;
+import org.mystudying.bookmanagementjpa.dto.TrendingWindow;
+import org.mystudying.bookmanagementjpa.events.BookRentedEvent;
+import org.mystudying.bookmanagementjpa.events.CatalogAggregate;
+import org.mystudying.bookmanagementjpa.events.CatalogChangedEvent;
+import org.mystudying.bookmanagementjpa.repositories.BookRepository;
+import org.mystudying.bookmanagementjpa.services.catalog.CatalogReadModel;
+import org.mystudying.bookmanagementjpa.services.trending.TrendingStore.DailyRents;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrendingServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T12:00:00Z");
+
+    private final TrendingStore store = mock(TrendingStore.class);
+    private final CatalogReadModel catalog = mock(CatalogReadModel.class);
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final TrendingService service = new TrendingService(store, catalog, bookRepository, 10,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+    TrendingServiceTest() {
+        when(catalog.current()).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void countsRebuiltFromBookingsAreStored() {
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        when(store.loadBuckets(anyLong())).thenReturn(Map.of());
+        when(store.loadFromBookings(any(), any())).thenReturn(List.of(new DailyRents(today, 1, 4)));
+
+        service.flush();
+
+        long bucket = RentCounters.bucketOf(today.atStartOfDay(ZoneOffset.UTC).toInstant());
+        verify(store).add(Map.of(bucket, Map.of(1L, 4L)));
+        assertThat(service.trending(TrendingWindow.WEEK, 10).books()).extracting(TrendingBookDto::rents)
+                .containsExactly(4L);
+    }
+
+    @Test
+    void titlesWithoutSnapshotAreLoadedOnceFromBooks() {
+        when(bookRepository.findDtosByIdIn(Set.of(1L))).thenReturn(List.of(new BookDto(1, "Dune", 1965, 2)));
+        service.onBookRented(new BookRentedEvent(1L));
+
+        service.refresh();
+        service.refresh();
+        assertThat(service.trending(TrendingWindow.HOUR, 10).books())
+                .containsExactly(new TrendingBookDto(1, "Dune", 1));
+        verify(bookRepository).findDtosByIdIn(Set.of(1L));
+
+        service.onCatalogChanged(new CatalogChangedEvent(CatalogAggregate.BOOKS, 1L));
+        service.refresh();
+        verify(bookRepository, times(2)).findDtosByIdIn(Set.of(1L));
+    }
+}
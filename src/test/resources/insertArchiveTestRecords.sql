@@ -0,0 +1,27 @@
+-- Bookings for the archive queries. Ids are chosen above every id already present, so these rows
+-- come last in id order whatever other data the database holds.
+INSERT INTO authors (name, birthdate) VALUES ('Archive Author', '1970-01-01');
+INSERT INTO users (name, email) VALUES ('Archive User', 'user@archive.test');
+INSERT INTO books (title, year, author_id, available)
+VALUES ('Archive Book', 2010, (SELECT id FROM authors WHERE name = 'Archive Author'), 1);
+
+SET @base = (SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings), (SELECT COALESCE(MAX(id), 0) FROM bookings_archive)));
+SET @user = (SELECT id FROM users WHERE email = 'user@archive.test');
+SET @book = (SELECT id FROM books WHERE title = 'Archive Book');
+
+-- Returned long ago and settled: archivable
+INSERT INTO bookings (id, user_id, book_id, borrowed_at, due_at, returned_at, fine, fine_paid)
+VALUES (@base + 1, @user, @book, '2020-01-01', '2020-01-15', '2020-01-10', 0, FALSE);
+
+-- Returned long ago with an unpaid fine: stays until paid
+INSERT INTO bookings (id, user_id, book_id, borrowed_at, due_at, returned_at, fine, fine_paid)
+VALUES (@base + 2, @user, @book, '2020-02-01', '2020-02-15', '2020-02-20', 2.50, FALSE);
+
+-- Still borrowed
+INSERT INTO bookings (id, user_id, book_id, borrowed_at, due_at, returned_at, fine, fine_paid)
+VALUES (@base + 3, @user, @book, CURDATE(), DATE_ADD(CURDATE(), INTERVAL 14 DAY), NULL, 0, FALSE);
+
+-- Already archived
+INSERT INTO bookings_archive (id, user_id, book_id, borrowed_at, due_at, returned_at, fine, fine_paid, archived_at)
+VALUES (@base + 4, @user, @book, '2019-01-01', '2019-01-15', '2019-01-12', 0, FALSE, NOW(6)),
+       (@base + 5, @user, @book, '2019-03-01', '2019-03-15', '2019-03-20', 2.50, TRUE, NOW(6));
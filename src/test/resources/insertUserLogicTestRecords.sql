@@ -67,3 +67,12 @@ VALUES (
     15.00,
     FALSE
 );
+
+-- The fine is in the ledger and the user's balance, as returnBook would have recorded it
+INSERT INTO fine_ledger (user_id, booking_id, entry_type, amount, created_at)
+SELECT user_id, id, 'ACCRUAL', fine, CURRENT_TIMESTAMP
+FROM bookings
+WHERE user_id = (SELECT id FROM users WHERE email = 'fine@logic.test');
+
+INSERT INTO user_balances (user_id, balance, updated_at)
+VALUES ((SELECT id FROM users WHERE email = 'fine@logic.test'), 15.00, CURRENT_TIMESTAMP);